@@ -0,0 +1,35 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.liquigraph.trinity;
+
+import java.util.List;
+
+/**
+ * Non-blocking counterpart of {@link CypherClient}: every method returns immediately
+ * and the outcome is later handed over to the given callback.
+ */
+public interface AsyncCypherClient<OpenTx extends OngoingTransaction> {
+
+    void runSingleTransaction(List<Statement> statements, ResultCallback<List<Data>> callback);
+
+    void openTransaction(List<Statement> statements, ResultCallback<OpenTx> callback);
+
+    void execute(OpenTx transaction, List<Statement> statements, ResultCallback<OpenTx> callback);
+
+    void commit(OpenTx transaction, List<Statement> statements, ResultCallback<ClosedTransaction> callback);
+
+    void rollback(OpenTx transaction, ResultCallback<ClosedTransaction> callback);
+}
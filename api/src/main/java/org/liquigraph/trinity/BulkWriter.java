@@ -0,0 +1,116 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.liquigraph.trinity;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes a stream of parameter maps in batches: each batch is sent as a single
+ * <code>UNWIND {batch} AS row</code> statement and a transaction is committed every few batches.
+ *
+ * The row query refers to the current map as <code>row</code>, e.g. <code>CREATE (:Person {name: row.name})</code>.
+ * When a batch fails, the transaction it belongs to is rolled back but the previously committed ones are kept.
+ */
+public final class BulkWriter<OpenTx extends OngoingTransaction> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BulkWriter.class);
+
+    private final CypherClient<OpenTx> client;
+    private final int batchSize;
+    private final int batchesPerTransaction;
+
+    public BulkWriter(CypherClient<OpenTx> client, int batchSize, int batchesPerTransaction) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException(String.format("Batch size must be strictly positive, got %d", batchSize));
+        }
+        if (batchesPerTransaction < 1) {
+            throw new IllegalArgumentException(String.format("Batches per transaction must be strictly positive, got %d", batchesPerTransaction));
+        }
+        this.client = client;
+        this.batchSize = batchSize;
+        this.batchesPerTransaction = batchesPerTransaction;
+    }
+
+    /**
+     * @return the number of written rows
+     */
+    public Either<List<Fault>, Long> write(String rowQuery, Iterator<Map<String, Object>> rows) {
+        String query = "UNWIND {batch} AS row " + rowQuery;
+        OpenTx transaction = null;
+        int batchesInTransaction = 0;
+        long committed = 0;
+        long uncommitted = 0;
+        while (rows.hasNext()) {
+            List<Map<String, Object>> batch = nextBatch(rows);
+            Statement statement = new Statement(query, Collections.<String, Object>singletonMap("batch", batch));
+            boolean lastOfTransaction = !rows.hasNext() || batchesInTransaction + 1 == batchesPerTransaction;
+            List<Fault> faults;
+            if (lastOfTransaction) {
+                faults = transaction == null ?
+                    faults(client.runSingleTransaction(statement)) :
+                    faults(client.commit(transaction, statement));
+                if (faults.isEmpty()) {
+                    committed += uncommitted + batch.size();
+                }
+                uncommitted = 0;
+                transaction = null;
+                batchesInTransaction = 0;
+            } else {
+                Either<List<Fault>, OpenTx> result = transaction == null ?
+                    client.openTransaction(statement) :
+                    client.execute(transaction, statement);
+                faults = faults(result);
+                if (result.isLeft() && transaction != null) {
+                    rollBack(transaction);
+                }
+                transaction = result.isRight() ? result.getRight() : null;
+                uncommitted += batch.size();
+                batchesInTransaction++;
+            }
+            if (!faults.isEmpty()) {
+                LOGGER.error("Bulk write stopped after {} committed rows: {}", committed, faults);
+                return DefaultEither.left(faults);
+            }
+        }
+        LOGGER.debug("Bulk write of {} rows completed", committed);
+        return DefaultEither.right(committed);
+    }
+
+    private List<Map<String, Object>> nextBatch(Iterator<Map<String, Object>> rows) {
+        List<Map<String, Object>> batch = new ArrayList<>(batchSize);
+        while (batch.size() < batchSize && rows.hasNext()) {
+            batch.add(rows.next());
+        }
+        return batch;
+    }
+
+    private void rollBack(OpenTx transaction) {
+        List<Fault> faults = faults(client.rollback(transaction));
+        if (!faults.isEmpty()) {
+            LOGGER.warn("Could not roll back failed bulk write transaction: {}", faults);
+        }
+    }
+
+    private static List<Fault> faults(Either<List<Fault>, ?> result) {
+        return result.isLeft() ? result.getLeft() : Collections.<Fault>emptyList();
+    }
+}
@@ -0,0 +1,418 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.liquigraph.trinity;
+
+import org.liquigraph.trinity.internal.collection.WeakIdentityMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.liquigraph.trinity.internal.Results.immutable;
+import static org.liquigraph.trinity.internal.Statements.statements;
+import static org.liquigraph.trinity.internal.collection.Lists.prepend;
+
+/**
+ * Caches the results of single transactions run with {@link AccessMode#READ}, keyed on their queries and parameters.
+ * Entries expire after the configured time to live and the least recently used ones are evicted beyond the maximum
+ * entry count. Cached results are immutable and shared between callers.
+ *
+ * With label invalidation, every write successfully committed through this client evicts the entries sharing a label
+ * or relationship type with it. A query without any label, or with a node or relationship pattern lacking one, such as
+ * {@code (x)} or {@code -[r]->}, evicts, or is evicted by, everything. Labels are read off the query text though, so
+ * invalidation is best-effort: e.g. procedures writing to the graph are only noticed if they mention the labels they
+ * touch. Writes made through other clients are only caught up with once entries expire.
+ */
+public final class CachingCypherClient<OpenTx extends OngoingTransaction> implements CypherClient<OpenTx> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CachingCypherClient.class);
+    private static final Pattern LABEL = Pattern.compile("[:|]\\s*(`[^`]+`|[\\p{L}_][\\p{L}\\p{N}_]*)");
+    private static final Pattern UNLABELLED_NODE = Pattern.compile("(?<![\\p{L}\\p{N}_`])\\(\\s*(`[^`]+`|[\\p{L}_][\\p{L}\\p{N}_]*)?\\s*[){]");
+    private static final Pattern UNTYPED_RELATIONSHIP = Pattern.compile("-\\s*\\[\\s*(`[^`]+`|[\\p{L}_][\\p{L}\\p{N}_]*)?\\s*[\\]{*]");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^'\\\\]|\\\\.)*'|\"(?:[^\"\\\\]|\\\\.)*\"");
+    private static final String ANY_LABEL = "*";
+
+    private final CypherClient<OpenTx> delegate;
+    private final long timeToLiveNanos;
+    private final boolean invalidateByLabel;
+    private final LeastRecentlyUsedEntries entries;
+    // weakly referenced, so that abandoned transactions do not pile up
+    private final WeakIdentityMap<OpenTx, Set<String>> pendingWrites = new WeakIdentityMap<>();
+    private long invalidations;
+
+    public CachingCypherClient(CypherClient<OpenTx> delegate, int maxEntries, long timeToLive, TimeUnit unit, boolean invalidateByLabel) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException(String.format("Max entries must be strictly positive, got %d", maxEntries));
+        }
+        this.delegate = delegate;
+        this.timeToLiveNanos = unit.toNanos(timeToLive);
+        this.invalidateByLabel = invalidateByLabel;
+        this.entries = new LeastRecentlyUsedEntries(maxEntries);
+    }
+
+    @Override
+    public Either<List<Fault>, List<Data>> runSingleTransaction(String query, String... queries) {
+        List<Statement> allStatements = statements(prepend(query, queries));
+        return written(labelsOf(allStatements), delegate.runSingleTransaction(query, queries));
+    }
+
+    @Override
+    public Either<List<Fault>, List<Data>> runSingleTransaction(Statement statement, Statement... statements) {
+        return written(labelsOf(prepend(statement, statements)), delegate.runSingleTransaction(statement, statements));
+    }
+
+    @Override
+    public Either<List<Fault>, List<Data>> runSingleTransaction(AccessMode accessMode, Statement statement, Statement... statements) {
+        List<Statement> key = prepend(statement, statements);
+        if (accessMode != AccessMode.READ) {
+            return written(labelsOf(key), delegate.runSingleTransaction(accessMode, statement, statements));
+        }
+        long now = System.nanoTime();
+        long invalidationCount;
+        synchronized (entries) {
+            CacheEntry entry = entries.get(key);
+            if (entry != null && now - entry.expiresAt < 0) {
+                return DefaultEither.right(entry.data);
+            }
+            if (entry != null) {
+                entries.remove(key);
+            }
+            invalidationCount = invalidations;
+        }
+        Either<List<Fault>, List<Data>> result = delegate.runSingleTransaction(accessMode, statement, statements);
+        if (result.isLeft()) {
+            return result;
+        }
+        List<Data> data = immutable(result.getRight());
+        synchronized (entries) {
+            // a concurrent write may have been committed after the read, caching it would serve stale results
+            if (invalidationCount == invalidations) {
+                entries.put(copy(key), new CacheEntry(data, System.nanoTime() + timeToLiveNanos, labelsOf(key)));
+            }
+        }
+        return DefaultEither.right(data);
+    }
+
+    @Override
+    public <T> Either<List<Fault>, List<T>> runSingleTransaction(Statement statement, RowMapper<T> mapper) {
+        return written(labelsOf(Collections.singletonList(statement)), delegate.runSingleTransaction(statement, mapper));
+    }
+
+    @Override
+    public Either<List<Fault>, Cursor> streamSingleTransaction(Statement statement) {
+        return streamSingleTransaction(AccessMode.WRITE, statement);
+    }
+
+    @Override
+    public Either<List<Fault>, Cursor> streamSingleTransaction(AccessMode accessMode, Statement statement) {
+        Either<List<Fault>, Cursor> result = delegate.streamSingleTransaction(accessMode, statement);
+        if (accessMode == AccessMode.READ || result.isLeft()) {
+            return result;
+        }
+        return DefaultEither.<List<Fault>, Cursor>right(
+            new InvalidatingCursor(result.getRight(), labelsOf(Collections.singletonList(statement))));
+    }
+
+    @Override
+    public Either<List<Fault>, OpenTx> openTransaction(String... queries) {
+        return opened(labelsOf(statements(Arrays.asList(queries))), delegate.openTransaction(queries));
+    }
+
+    @Override
+    public Either<List<Fault>, OpenTx> openTransaction(Statement statement, Statement... statements) {
+        return opened(labelsOf(prepend(statement, statements)), delegate.openTransaction(statement, statements));
+    }
+
+    @Override
+    public Either<List<Fault>, OpenTx> openTransaction(AccessMode accessMode, Statement... statements) {
+        Either<List<Fault>, OpenTx> result = delegate.openTransaction(accessMode, statements);
+        if (accessMode == AccessMode.READ) {
+            return result;
+        }
+        return opened(labelsOf(Arrays.asList(statements)), result);
+    }
+
+    @Override
+    public Either<List<Fault>, OpenTx> execute(OpenTx transaction, String... queries) {
+        return executed(transaction, labelsOf(statements(Arrays.asList(queries))), delegate.execute(transaction, queries));
+    }
+
+    @Override
+    public Either<List<Fault>, OpenTx> execute(OpenTx transaction, Statement statement, Statement... statements) {
+        return executed(transaction, labelsOf(prepend(statement, statements)), delegate.execute(transaction, statement, statements));
+    }
+
+    @Override
+    public Either<List<Fault>, ClosedTransaction> commit(OpenTx transaction, String... queries) {
+        return committed(transaction, labelsOf(statements(Arrays.asList(queries))), delegate.commit(transaction, queries));
+    }
+
+    @Override
+    public Either<List<Fault>, ClosedTransaction> commit(OpenTx transaction, Statement statement, Statement... statements) {
+        return committed(transaction, labelsOf(prepend(statement, statements)), delegate.commit(transaction, statement, statements));
+    }
+
+    @Override
+    public Either<List<Fault>, ClosedTransaction> rollback(OpenTx transaction) {
+        if (invalidateByLabel) {
+            synchronized (pendingWrites) {
+                pendingWrites.remove(transaction);
+            }
+        }
+        return delegate.rollback(transaction);
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            invalidations++;
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private <T> Either<List<Fault>, T> written(Set<String> labels, Either<List<Fault>, T> result) {
+        if (result.isRight()) {
+            invalidate(labels);
+        }
+        return result;
+    }
+
+    private Either<List<Fault>, OpenTx> opened(Set<String> labels, Either<List<Fault>, OpenTx> result) {
+        if (invalidateByLabel && result.isRight()) {
+            synchronized (pendingWrites) {
+                pendingWrites.put(result.getRight(), labels);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Failed executions close their transaction, its pending writes are therefore dropped.
+     */
+    private Either<List<Fault>, OpenTx> executed(OpenTx transaction, Set<String> labels, Either<List<Fault>, OpenTx> result) {
+        if (!invalidateByLabel || transaction.getAccessMode() == AccessMode.READ) {
+            return result;
+        }
+        synchronized (pendingWrites) {
+            Set<String> pendingLabels = pendingLabels(transaction);
+            if (result.isRight()) {
+                pendingLabels.addAll(labels);
+                pendingWrites.put(result.getRight(), pendingLabels);
+            }
+        }
+        return result;
+    }
+
+    private Either<List<Fault>, ClosedTransaction> committed(OpenTx transaction, Set<String> labels, Either<List<Fault>, ClosedTransaction> result) {
+        if (!invalidateByLabel || transaction.getAccessMode() == AccessMode.READ) {
+            return result;
+        }
+        Set<String> pendingLabels;
+        synchronized (pendingWrites) {
+            pendingLabels = pendingLabels(transaction);
+        }
+        pendingLabels.addAll(labels);
+        return written(pendingLabels, result);
+    }
+
+    private Set<String> pendingLabels(OpenTx transaction) {
+        Set<String> result = pendingWrites.remove(transaction);
+        if (result == null) {
+            // the transaction was not opened through this client, anything may have been written
+            return new HashSet<>(Collections.singleton(ANY_LABEL));
+        }
+        return new HashSet<>(result);
+    }
+
+    private void invalidate(Set<String> labels) {
+        if (!invalidateByLabel || labels.isEmpty()) {
+            return;
+        }
+        synchronized (entries) {
+            invalidations++;
+            if (labels.contains(ANY_LABEL)) {
+                entries.clear();
+                return;
+            }
+            Iterator<CacheEntry> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                Set<String> entryLabels = iterator.next().labels;
+                if (entryLabels.contains(ANY_LABEL) || !Collections.disjoint(entryLabels, labels)) {
+                    iterator.remove();
+                }
+            }
+        }
+        LOGGER.trace("Invalidated cached results for labels {}", labels);
+    }
+
+    /**
+     * @return the labels and relationship types the statements touch, none if invalidation by label is disabled
+     */
+    private Set<String> labelsOf(List<Statement> statements) {
+        if (!invalidateByLabel) {
+            return Collections.emptySet();
+        }
+        Set<String> result = new HashSet<>();
+        for (Statement statement : statements) {
+            String query = withoutMapContents(STRING_LITERAL.matcher(statement.getQuery()).replaceAll("''"));
+            if (UNLABELLED_NODE.matcher(query).find() || UNTYPED_RELATIONSHIP.matcher(query).find()) {
+                result.add(ANY_LABEL);
+                continue;
+            }
+            Matcher matcher = LABEL.matcher(query);
+            boolean found = false;
+            while (matcher.find()) {
+                result.add(unquote(matcher.group(1)));
+                found = true;
+            }
+            if (!found) {
+                result.add(ANY_LABEL);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Empties map literals, so that their keys are not mistaken for labels, e.g. {@code {name: row.name}}.
+     */
+    private static String withoutMapContents(String query) {
+        StringBuilder result = new StringBuilder(query.length());
+        int depth = 0;
+        for (int i = 0; i < query.length(); i++) {
+            char c = query.charAt(i);
+            if (c == '{') {
+                if (depth++ == 0) {
+                    result.append(c);
+                }
+            }
+            else if (c == '}' && depth > 0) {
+                if (--depth == 0) {
+                    result.append(c);
+                }
+            }
+            else if (depth == 0) {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+
+    private static String unquote(String label) {
+        return label.startsWith("`") ? label.substring(1, label.length() - 1) : label;
+    }
+
+    private static List<Statement> copy(List<Statement> statements) {
+        List<Statement> result = new ArrayList<>(statements.size());
+        for (Statement statement : statements) {
+            result.add(statement.copy());
+        }
+        return result;
+    }
+
+    private final class InvalidatingCursor implements Cursor {
+        private final Cursor delegate;
+        private final Set<String> labels;
+
+        InvalidatingCursor(Cursor delegate, Set<String> labels) {
+            this.delegate = delegate;
+            this.labels = labels;
+        }
+
+        @Override
+        public List<String> getColumns() {
+            return delegate.getColumns();
+        }
+
+        @Override
+        public List<Fault> getFaults() {
+            return delegate.getFaults();
+        }
+
+        @Override
+        public <T> T next(RowMapper<T> mapper) {
+            return delegate.next(mapper);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return delegate.hasNext();
+        }
+
+        @Override
+        public Row next() {
+            return delegate.next();
+        }
+
+        @Override
+        public void remove() {
+            delegate.remove();
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+            if (delegate.getFaults().isEmpty()) {
+                invalidate(labels);
+            }
+        }
+
+        @Override
+        public void abort() {
+            delegate.abort();
+        }
+    }
+
+    private static final class CacheEntry {
+        private final List<Data> data;
+        private final long expiresAt;
+        private final Set<String> labels;
+
+        CacheEntry(List<Data> data, long expiresAt, Set<String> labels) {
+            this.data = data;
+            this.expiresAt = expiresAt;
+            this.labels = labels;
+        }
+    }
+
+    private static final class LeastRecentlyUsedEntries extends LinkedHashMap<List<Statement>, CacheEntry> {
+        private final int maxEntries;
+
+        LeastRecentlyUsedEntries(int maxEntries) {
+            super(16, 0.75f, true);
+            this.maxEntries = maxEntries;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<List<Statement>, CacheEntry> eldest) {
+            return size() > maxEntries;
+        }
+    }
+}
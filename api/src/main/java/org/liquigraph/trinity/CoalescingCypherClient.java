@@ -0,0 +1,168 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.liquigraph.trinity;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+
+import static org.liquigraph.trinity.internal.Results.immutable;
+import static org.liquigraph.trinity.internal.collection.Lists.prepend;
+
+/**
+ * Shares a single execution between concurrent identical single transactions run with {@link AccessMode#READ}:
+ * the first caller runs the statements while the others wait for it and all of them get the same immutable result.
+ * Wrapping this client in a {@link CachingCypherClient} keeps expiring cache entries from sending a burst of identical
+ * queries to the database.
+ */
+public final class CoalescingCypherClient<OpenTx extends OngoingTransaction> implements CypherClient<OpenTx> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CoalescingCypherClient.class);
+    private static final Either<List<Fault>, List<Data>> LEADER_FAILURE = DefaultEither.left(Collections.singletonList(
+        new Fault("CoalescingCypherClient.Error.LeaderFailure", "The shared execution failed unexpectedly")
+    ));
+
+    private final CypherClient<OpenTx> delegate;
+    private final ConcurrentMap<List<Statement>, InFlightExecution> inFlight = new ConcurrentHashMap<>();
+
+    public CoalescingCypherClient(CypherClient<OpenTx> delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Either<List<Fault>, List<Data>> runSingleTransaction(String query, String... queries) {
+        return delegate.runSingleTransaction(query, queries);
+    }
+
+    @Override
+    public Either<List<Fault>, List<Data>> runSingleTransaction(Statement statement, Statement... statements) {
+        return delegate.runSingleTransaction(statement, statements);
+    }
+
+    @Override
+    public Either<List<Fault>, List<Data>> runSingleTransaction(AccessMode accessMode, Statement statement, Statement... statements) {
+        if (accessMode != AccessMode.READ) {
+            return delegate.runSingleTransaction(accessMode, statement, statements);
+        }
+        List<Statement> key = prepend(statement, statements);
+        InFlightExecution execution = new InFlightExecution();
+        InFlightExecution leader = inFlight.putIfAbsent(key, execution);
+        if (leader != null) {
+            LOGGER.trace("Joining in-flight execution of {} statements", key.size());
+            return leader.await();
+        }
+        Either<List<Fault>, List<Data>> result = null;
+        try {
+            result = share(delegate.runSingleTransaction(accessMode, statement, statements));
+            return result;
+        } finally {
+            inFlight.remove(key, execution);
+            execution.complete(result != null ? result : LEADER_FAILURE);
+        }
+    }
+
+    @Override
+    public <T> Either<List<Fault>, List<T>> runSingleTransaction(Statement statement, RowMapper<T> mapper) {
+        return delegate.runSingleTransaction(statement, mapper);
+    }
+
+    @Override
+    public Either<List<Fault>, Cursor> streamSingleTransaction(Statement statement) {
+        return delegate.streamSingleTransaction(statement);
+    }
+
+    @Override
+    public Either<List<Fault>, Cursor> streamSingleTransaction(AccessMode accessMode, Statement statement) {
+        return delegate.streamSingleTransaction(accessMode, statement);
+    }
+
+    @Override
+    public Either<List<Fault>, OpenTx> openTransaction(String... queries) {
+        return delegate.openTransaction(queries);
+    }
+
+    @Override
+    public Either<List<Fault>, OpenTx> openTransaction(Statement statement, Statement... statements) {
+        return delegate.openTransaction(statement, statements);
+    }
+
+    @Override
+    public Either<List<Fault>, OpenTx> openTransaction(AccessMode accessMode, Statement... statements) {
+        return delegate.openTransaction(accessMode, statements);
+    }
+
+    @Override
+    public Either<List<Fault>, OpenTx> execute(OpenTx transaction, String... queries) {
+        return delegate.execute(transaction, queries);
+    }
+
+    @Override
+    public Either<List<Fault>, OpenTx> execute(OpenTx transaction, Statement statement, Statement... statements) {
+        return delegate.execute(transaction, statement, statements);
+    }
+
+    @Override
+    public Either<List<Fault>, ClosedTransaction> commit(OpenTx transaction, String... queries) {
+        return delegate.commit(transaction, queries);
+    }
+
+    @Override
+    public Either<List<Fault>, ClosedTransaction> commit(OpenTx transaction, Statement statement, Statement... statements) {
+        return delegate.commit(transaction, statement, statements);
+    }
+
+    @Override
+    public Either<List<Fault>, ClosedTransaction> rollback(OpenTx transaction) {
+        return delegate.rollback(transaction);
+    }
+
+    private static Either<List<Fault>, List<Data>> share(Either<List<Fault>, List<Data>> result) {
+        if (result.isLeft()) {
+            return DefaultEither.left(Collections.unmodifiableList(result.getLeft()));
+        }
+        return DefaultEither.right(immutable(result.getRight()));
+    }
+
+    private static final class InFlightExecution {
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile Either<List<Fault>, List<Data>> result;
+
+        void complete(Either<List<Fault>, List<Data>> result) {
+            this.result = result;
+            done.countDown();
+        }
+
+        Either<List<Fault>, List<Data>> await() {
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    done.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            return result;
+        }
+    }
+}
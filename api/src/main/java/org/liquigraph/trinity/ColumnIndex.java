@@ -0,0 +1,80 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.liquigraph.trinity;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Column names of a result, resolved once and shared by all its {@link Row}s.
+ */
+public final class ColumnIndex {
+
+    private final List<String> columns;
+    private final Map<String, Integer> positions;
+
+    public ColumnIndex(List<String> columns) {
+        this.columns = Collections.unmodifiableList(new ArrayList<>(columns));
+        this.positions = new HashMap<>((int) Math.ceil(columns.size() / 0.75));
+        for (int i = 0; i < columns.size(); i++) {
+            positions.put(columns.get(i), i);
+        }
+    }
+
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    public int size() {
+        return columns.size();
+    }
+
+    /**
+     * @return the position of the given column, or -1 if the result has no such column
+     */
+    public int indexOf(String column) {
+        Integer position = positions.get(column);
+        return position == null ? -1 : position;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(columns);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        final ColumnIndex other = (ColumnIndex) obj;
+        return Objects.equals(this.columns, other.columns);
+    }
+
+    @Override
+    public String toString() {
+        return "ColumnIndex{" +
+            "columns=" + columns +
+            '}';
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.liquigraph.trinity;
+
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Pull-based view over the result of a single statement, decoding one row at a time.
+ * Iteration stops at the first fault met while pulling rows, see {@link #getFaults()}.
+ * Closing the cursor commits the underlying transaction, unless faults occurred, in which case it is rolled back.
+ */
+public interface Cursor extends Iterator<Row>, AutoCloseable {
+
+    List<String> getColumns();
+
+    List<Fault> getFaults();
+
+    /**
+     * Decodes the next row with the given mapper, without materializing a {@link Row} where the transport allows it.
+     */
+    <T> T next(RowMapper<T> mapper);
+
+    @Override
+    void close();
+
+    /**
+     * Closes the cursor and rolls back the underlying transaction, whether faults occurred or not.
+     * Transports committing before the rows are streamed (HTTP) can only release the response.
+     */
+    void abort();
+}
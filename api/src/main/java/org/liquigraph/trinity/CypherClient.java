@@ -21,11 +21,29 @@ public interface CypherClient<OpenTx extends OngoingTransaction> {
 
    Either<List<Fault>, List<Data>> runSingleTransaction(String query, String... queries);
 
+   Either<List<Fault>, List<Data>> runSingleTransaction(Statement statement, Statement... statements);
+
+   Either<List<Fault>, List<Data>> runSingleTransaction(AccessMode accessMode, Statement statement, Statement... statements);
+
+   <T> Either<List<Fault>, List<T>> runSingleTransaction(Statement statement, RowMapper<T> mapper);
+
+   Either<List<Fault>, Cursor> streamSingleTransaction(Statement statement);
+
+   Either<List<Fault>, Cursor> streamSingleTransaction(AccessMode accessMode, Statement statement);
+
    Either<List<Fault>, OpenTx> openTransaction(String... queries);
 
+   Either<List<Fault>, OpenTx> openTransaction(Statement statement, Statement... statements);
+
+   Either<List<Fault>, OpenTx> openTransaction(AccessMode accessMode, Statement... statements);
+
    Either<List<Fault>, OpenTx> execute(OpenTx transaction, String... queries);
 
+   Either<List<Fault>, OpenTx> execute(OpenTx transaction, Statement statement, Statement... statements);
+
    Either<List<Fault>, ClosedTransaction> commit(OpenTx transaction, String... queries);
 
+   Either<List<Fault>, ClosedTransaction> commit(OpenTx transaction, Statement statement, Statement... statements);
+
    Either<List<Fault>, ClosedTransaction> rollback(OpenTx transaction);
 }
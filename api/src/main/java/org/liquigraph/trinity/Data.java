@@ -19,17 +19,35 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
+/**
+ * Columns and rows of a single statement, along with its {@link QuerySummary}.
+ * The summary depends on the execution and is thus left out of equality.
+ */
 public final class Data {
     private final List<String> columns;
     private final List<Row> rows;
+    private final QuerySummary summary;
 
     public Data(String singleColumn, Row singleRow) {
         this(Collections.singletonList(singleColumn), Collections.singletonList(singleRow));
     }
 
+    public Data(ColumnIndex columns, List<Row> rows) {
+        this(columns, rows, QuerySummary.EMPTY);
+    }
+
+    public Data(ColumnIndex columns, List<Row> rows, QuerySummary summary) {
+        this(columns.getColumns(), rows, summary);
+    }
+
     public Data(List<String> columns, List<Row> rows) {
+        this(columns, rows, QuerySummary.EMPTY);
+    }
+
+    public Data(List<String> columns, List<Row> rows, QuerySummary summary) {
         this.columns = columns;
         this.rows = rows;
+        this.summary = summary;
     }
 
     public List<String> getColumns() {
@@ -40,6 +58,10 @@ public final class Data {
         return rows;
     }
 
+    public QuerySummary getSummary() {
+        return summary;
+    }
+
     @Override
     public int hashCode() {
         return Objects.hash(columns, rows);
@@ -63,6 +85,7 @@ public final class Data {
         return "Data{" +
             "columns=" + columns +
             ", rows=" + rows +
+            ", summary=" + summary +
             '}';
     }
 }
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.liquigraph.trinity;
+
+import java.util.List;
+
+/**
+ * Receives the execution events of a {@link ListeningCypherClient}. Every call to the client is reported as a query,
+ * covering all the statements it carries, and transactions are reported from their opening to their closing call.
+ * Implementations are called from the executing threads and must therefore be thread-safe and fast.
+ *
+ * Extend {@link ExecutionListenerAdapter} to only listen to some of the events.
+ */
+public interface ExecutionListener {
+
+    void queryStarted(List<Statement> statements);
+
+    void queryCompleted(List<Statement> statements, long rows, long elapsedNanos);
+
+    void queryFailed(List<Statement> statements, List<Fault> faults, long elapsedNanos);
+
+    void transactionOpened(AccessMode accessMode);
+
+    /**
+     * @param elapsedNanos time since the transaction was opened, or -1 if it was not opened through the same client
+     */
+    void transactionCommitted(long elapsedNanos);
+
+    /**
+     * @param elapsedNanos time since the transaction was opened, or -1 if it was not opened through the same client
+     */
+    void transactionRolledBack(long elapsedNanos);
+
+    /**
+     * Only reported by transports that can count bytes on the wire, see the HTTP <code>ByteCountingInterceptor</code>.
+     */
+    void bytesTransferred(long sent, long received);
+}
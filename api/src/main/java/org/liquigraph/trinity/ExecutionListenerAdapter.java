@@ -13,36 +13,37 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-package org.liquigraph.trinity.http.internal.payload;
+package org.liquigraph.trinity;
 
 import java.util.List;
-import java.util.Objects;
 
-public class CypherExecutionData {
-    private List<Object> row;
+public abstract class ExecutionListenerAdapter implements ExecutionListener {
 
-    public List<Object> getRow() {
-        return row;
+    @Override
+    public void queryStarted(List<Statement> statements) {
+    }
+
+    @Override
+    public void queryCompleted(List<Statement> statements, long rows, long elapsedNanos) {
     }
 
-    public void setRow(List<Object> row) {
-        this.row = row;
+    @Override
+    public void queryFailed(List<Statement> statements, List<Fault> faults, long elapsedNanos) {
+    }
+
+    @Override
+    public void transactionOpened(AccessMode accessMode) {
+    }
+
+    @Override
+    public void transactionCommitted(long elapsedNanos) {
     }
 
     @Override
-    public int hashCode() {
-        return Objects.hash(row);
+    public void transactionRolledBack(long elapsedNanos) {
     }
 
     @Override
-    public boolean equals(Object obj) {
-        if (this == obj) {
-            return true;
-        }
-        if (obj == null || getClass() != obj.getClass()) {
-            return false;
-        }
-        final CypherExecutionData other = (CypherExecutionData) obj;
-        return Objects.equals(this.row, other.row);
+    public void bytesTransferred(long sent, long received) {
     }
 }
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.liquigraph.trinity;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs a blocking {@link CypherClient} on the given {@link Executor}.
+ * This is how transports without a non-blocking API (embedded, Bolt) run single transactions asynchronously.
+ *
+ * Each step of an open transaction is submitted separately and may thus run on a different thread of the executor.
+ * Embedded transactions are bound to the thread that opened them: open them through a client backed by a
+ * single-threaded executor, dedicated to that transaction.
+ */
+public final class ExecutorAsyncCypherClient<OpenTx extends OngoingTransaction> implements AsyncCypherClient<OpenTx> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExecutorAsyncCypherClient.class);
+
+    private final CypherClient<OpenTx> delegate;
+    private final Executor executor;
+
+    public ExecutorAsyncCypherClient(CypherClient<OpenTx> delegate, Executor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    @Override
+    public void runSingleTransaction(final List<Statement> statements, ResultCallback<List<Data>> callback) {
+        submit(callback, new Work<List<Data>>() {
+            @Override
+            public Either<List<Fault>, List<Data>> run() {
+                if (statements.isEmpty()) {
+                    return DefaultEither.right(Collections.<Data>emptyList());
+                }
+                return delegate.runSingleTransaction(head(statements), tail(statements));
+            }
+        });
+    }
+
+    @Override
+    public void openTransaction(final List<Statement> statements, ResultCallback<OpenTx> callback) {
+        submit(callback, new Work<OpenTx>() {
+            @Override
+            public Either<List<Fault>, OpenTx> run() {
+                if (statements.isEmpty()) {
+                    return delegate.openTransaction();
+                }
+                return delegate.openTransaction(head(statements), tail(statements));
+            }
+        });
+    }
+
+    @Override
+    public void execute(final OpenTx transaction, final List<Statement> statements, ResultCallback<OpenTx> callback) {
+        submit(callback, new Work<OpenTx>() {
+            @Override
+            public Either<List<Fault>, OpenTx> run() {
+                if (statements.isEmpty()) {
+                    return delegate.execute(transaction);
+                }
+                return delegate.execute(transaction, head(statements), tail(statements));
+            }
+        });
+    }
+
+    @Override
+    public void commit(final OpenTx transaction, final List<Statement> statements, ResultCallback<ClosedTransaction> callback) {
+        submit(callback, new Work<ClosedTransaction>() {
+            @Override
+            public Either<List<Fault>, ClosedTransaction> run() {
+                if (statements.isEmpty()) {
+                    return delegate.commit(transaction);
+                }
+                return delegate.commit(transaction, head(statements), tail(statements));
+            }
+        });
+    }
+
+    @Override
+    public void rollback(final OpenTx transaction, ResultCallback<ClosedTransaction> callback) {
+        submit(callback, new Work<ClosedTransaction>() {
+            @Override
+            public Either<List<Fault>, ClosedTransaction> run() {
+                return delegate.rollback(transaction);
+            }
+        });
+    }
+
+    private <T> void submit(final ResultCallback<T> callback, final Work<T> work) {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                callback.onResult(safelyRun(work));
+            }
+        });
+    }
+
+    private static <T> Either<List<Fault>, T> safelyRun(Work<T> work) {
+        try {
+            return work.run();
+        } catch (RuntimeException e) {
+            LOGGER.error("An unexpected error happened while running the asynchronous work", e);
+            Fault fault = new Fault("AsyncCypherClient.Error." + e.getClass().getSimpleName(), e.getMessage());
+            return DefaultEither.left(Collections.singletonList(fault));
+        }
+    }
+
+    private static Statement head(List<Statement> statements) {
+        return statements.get(0);
+    }
+
+    private static Statement[] tail(List<Statement> statements) {
+        return statements.subList(1, statements.size()).toArray(new Statement[statements.size() - 1]);
+    }
+
+    private interface Work<T> {
+        Either<List<Fault>, T> run();
+    }
+}
@@ -19,6 +19,11 @@ import java.util.Objects;
 
 public class Fault {
 
+    /**
+     * Code of the faults reported when a statement or transaction outlives its timeout and gets terminated.
+     */
+    public static final String TIMEOUT = "CypherClient.Error.Timeout";
+
     private final String code;
     private final String message;
 
@@ -35,6 +40,14 @@ public class Fault {
         return message;
     }
 
+    public static Fault timeout(long timeoutMillis) {
+        return new Fault(TIMEOUT, String.format("Execution did not complete within %d ms and was terminated", timeoutMillis));
+    }
+
+    public boolean isTimeout() {
+        return TIMEOUT.equals(code);
+    }
+
     @Override
     public int hashCode() {
         return Objects.hash(code, message);
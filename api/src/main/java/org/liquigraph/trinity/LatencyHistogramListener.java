@@ -0,0 +1,84 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.liquigraph.trinity;
+
+import org.liquigraph.trinity.internal.QueryFingerprints;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Records the latency of successful queries in a {@link LatencyHistogram} per query shape, i.e. per query text
+ * with literals left out (see {@link QueryFingerprints}).
+ * Once the maximum number of fingerprints is reached, queries of other shapes are recorded under {@link #OTHER_FINGERPRINTS}.
+ */
+public final class LatencyHistogramListener extends ExecutionListenerAdapter {
+
+    public static final String OTHER_FINGERPRINTS = "<other>";
+    public static final int DEFAULT_MAX_FINGERPRINTS = 1000;
+
+    private final ConcurrentMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private final int maxFingerprints;
+
+    public LatencyHistogramListener() {
+        this(DEFAULT_MAX_FINGERPRINTS);
+    }
+
+    public LatencyHistogramListener(int maxFingerprints) {
+        if (maxFingerprints <= 0) {
+            throw new IllegalArgumentException(String.format("Max fingerprints must be strictly positive, got %d", maxFingerprints));
+        }
+        this.maxFingerprints = maxFingerprints;
+    }
+
+    @Override
+    public void queryCompleted(List<Statement> statements, long rows, long elapsedNanos) {
+        histogramOf(QueryFingerprints.fingerprint(statements)).recordNanos(elapsedNanos);
+    }
+
+    /**
+     * @return the histogram of the given fingerprint, or null if no query of this shape completed yet
+     */
+    public LatencyHistogram getHistogram(String fingerprint) {
+        return histograms.get(fingerprint);
+    }
+
+    public Map<String, LatencyHistogram> getHistograms() {
+        return Collections.unmodifiableMap(new HashMap<>(histograms));
+    }
+
+    private LatencyHistogram histogramOf(String fingerprint) {
+        LatencyHistogram histogram = histograms.get(fingerprint);
+        if (histogram != null) {
+            return histogram;
+        }
+        return registeredHistogram(histograms.size() < maxFingerprints ? fingerprint : OTHER_FINGERPRINTS);
+    }
+
+    private LatencyHistogram registeredHistogram(String fingerprint) {
+        LatencyHistogram histogram = histograms.get(fingerprint);
+        if (histogram != null) {
+            return histogram;
+        }
+        LatencyHistogram created = new LatencyHistogram();
+        LatencyHistogram existing = histograms.putIfAbsent(fingerprint, created);
+        return existing != null ? existing : created;
+    }
+}
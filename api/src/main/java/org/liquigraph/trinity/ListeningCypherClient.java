@@ -0,0 +1,344 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.liquigraph.trinity;
+
+import org.liquigraph.trinity.internal.collection.WeakIdentityMap;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.liquigraph.trinity.internal.Statements.statements;
+import static org.liquigraph.trinity.internal.collection.Lists.prepend;
+
+/**
+ * Reports the queries and transactions of the decorated client to {@link ExecutionListener}s.
+ * Streamed queries are reported once their cursor is closed.
+ * Failed executions are reported as rollbacks, since transports close the transaction on failure.
+ */
+public final class ListeningCypherClient<OpenTx extends OngoingTransaction> implements CypherClient<OpenTx> {
+    private static final long UNKNOWN_DURATION = -1;
+
+    private final CypherClient<OpenTx> delegate;
+    private final List<ExecutionListener> listeners;
+    // weakly referenced, so that abandoned transactions do not pile up
+    private final WeakIdentityMap<OpenTx, Long> openingTimes = new WeakIdentityMap<>();
+
+    public ListeningCypherClient(CypherClient<OpenTx> delegate, ExecutionListener... listeners) {
+        this.delegate = delegate;
+        this.listeners = Arrays.asList(listeners);
+    }
+
+    @Override
+    public Either<List<Fault>, List<Data>> runSingleTransaction(String query, String... queries) {
+        List<Statement> allStatements = statements(prepend(query, queries));
+        long start = started(allStatements);
+        return completed(allStatements, start, delegate.runSingleTransaction(query, queries));
+    }
+
+    @Override
+    public Either<List<Fault>, List<Data>> runSingleTransaction(Statement statement, Statement... statements) {
+        List<Statement> allStatements = prepend(statement, statements);
+        long start = started(allStatements);
+        return completed(allStatements, start, delegate.runSingleTransaction(statement, statements));
+    }
+
+    @Override
+    public Either<List<Fault>, List<Data>> runSingleTransaction(AccessMode accessMode, Statement statement, Statement... statements) {
+        List<Statement> allStatements = prepend(statement, statements);
+        long start = started(allStatements);
+        return completed(allStatements, start, delegate.runSingleTransaction(accessMode, statement, statements));
+    }
+
+    @Override
+    public <T> Either<List<Fault>, List<T>> runSingleTransaction(Statement statement, RowMapper<T> mapper) {
+        List<Statement> allStatements = Collections.singletonList(statement);
+        long start = started(allStatements);
+        Either<List<Fault>, List<T>> result = delegate.runSingleTransaction(statement, mapper);
+        long elapsed = System.nanoTime() - start;
+        if (result.isLeft()) {
+            failed(allStatements, result.getLeft(), elapsed);
+        } else {
+            for (ExecutionListener listener : listeners) {
+                listener.queryCompleted(allStatements, result.getRight().size(), elapsed);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Either<List<Fault>, Cursor> streamSingleTransaction(Statement statement) {
+        return streamSingleTransaction(AccessMode.WRITE, statement);
+    }
+
+    @Override
+    public Either<List<Fault>, Cursor> streamSingleTransaction(AccessMode accessMode, Statement statement) {
+        List<Statement> allStatements = Collections.singletonList(statement);
+        long start = started(allStatements);
+        Either<List<Fault>, Cursor> result = delegate.streamSingleTransaction(accessMode, statement);
+        if (result.isLeft()) {
+            failed(allStatements, result.getLeft(), System.nanoTime() - start);
+            return result;
+        }
+        return DefaultEither.<List<Fault>, Cursor>right(new ListeningCursor(result.getRight(), allStatements, start));
+    }
+
+    @Override
+    public Either<List<Fault>, OpenTx> openTransaction(String... queries) {
+        List<Statement> allStatements = statements(Arrays.asList(queries));
+        long start = started(allStatements);
+        return opened(AccessMode.WRITE, allStatements, start, delegate.openTransaction(queries));
+    }
+
+    @Override
+    public Either<List<Fault>, OpenTx> openTransaction(Statement statement, Statement... statements) {
+        List<Statement> allStatements = prepend(statement, statements);
+        long start = started(allStatements);
+        return opened(AccessMode.WRITE, allStatements, start, delegate.openTransaction(statement, statements));
+    }
+
+    @Override
+    public Either<List<Fault>, OpenTx> openTransaction(AccessMode accessMode, Statement... statements) {
+        List<Statement> allStatements = Arrays.asList(statements);
+        long start = started(allStatements);
+        return opened(accessMode, allStatements, start, delegate.openTransaction(accessMode, statements));
+    }
+
+    @Override
+    public Either<List<Fault>, OpenTx> execute(OpenTx transaction, String... queries) {
+        List<Statement> allStatements = statements(Arrays.asList(queries));
+        long start = started(allStatements);
+        return executed(transaction, allStatements, start, delegate.execute(transaction, queries));
+    }
+
+    @Override
+    public Either<List<Fault>, OpenTx> execute(OpenTx transaction, Statement statement, Statement... statements) {
+        List<Statement> allStatements = prepend(statement, statements);
+        long start = started(allStatements);
+        return executed(transaction, allStatements, start, delegate.execute(transaction, statement, statements));
+    }
+
+    @Override
+    public Either<List<Fault>, ClosedTransaction> commit(OpenTx transaction, String... queries) {
+        List<Statement> allStatements = statements(Arrays.asList(queries));
+        long start = started(allStatements);
+        return committed(transaction, allStatements, start, delegate.commit(transaction, queries));
+    }
+
+    @Override
+    public Either<List<Fault>, ClosedTransaction> commit(OpenTx transaction, Statement statement, Statement... statements) {
+        List<Statement> allStatements = prepend(statement, statements);
+        long start = started(allStatements);
+        return committed(transaction, allStatements, start, delegate.commit(transaction, statement, statements));
+    }
+
+    @Override
+    public Either<List<Fault>, ClosedTransaction> rollback(OpenTx transaction) {
+        Either<List<Fault>, ClosedTransaction> result = delegate.rollback(transaction);
+        long lifetime = lifetime(transaction);
+        for (ExecutionListener listener : listeners) {
+            listener.transactionRolledBack(lifetime);
+        }
+        return result;
+    }
+
+    private long started(List<Statement> statements) {
+        if (!statements.isEmpty()) {
+            for (ExecutionListener listener : listeners) {
+                listener.queryStarted(statements);
+            }
+        }
+        return System.nanoTime();
+    }
+
+    private Either<List<Fault>, List<Data>> completed(List<Statement> statements, long start, Either<List<Fault>, List<Data>> result) {
+        long elapsed = System.nanoTime() - start;
+        if (result.isLeft()) {
+            failed(statements, result.getLeft(), elapsed);
+            return result;
+        }
+        succeeded(statements, result.getRight(), elapsed);
+        return result;
+    }
+
+    private void failed(List<Statement> statements, List<Fault> faults, long elapsed) {
+        if (statements.isEmpty()) {
+            return;
+        }
+        for (ExecutionListener listener : listeners) {
+            listener.queryFailed(statements, faults, elapsed);
+        }
+    }
+
+    private void succeeded(List<Statement> statements, List<Data> data, long elapsed) {
+        if (statements.isEmpty()) {
+            return;
+        }
+        long rows = rowCount(data);
+        for (ExecutionListener listener : listeners) {
+            listener.queryCompleted(statements, rows, elapsed);
+        }
+    }
+
+    private Either<List<Fault>, OpenTx> opened(AccessMode accessMode, List<Statement> statements, long start, Either<List<Fault>, OpenTx> result) {
+        long elapsed = System.nanoTime() - start;
+        if (result.isLeft()) {
+            failed(statements, result.getLeft(), elapsed);
+            return result;
+        }
+        synchronized (openingTimes) {
+            openingTimes.put(result.getRight(), start);
+        }
+        for (ExecutionListener listener : listeners) {
+            listener.transactionOpened(accessMode);
+        }
+        succeeded(statements, result.getRight().getData(), elapsed);
+        return result;
+    }
+
+    private Either<List<Fault>, OpenTx> executed(OpenTx transaction, List<Statement> statements, long start, Either<List<Fault>, OpenTx> result) {
+        long elapsed = System.nanoTime() - start;
+        if (result.isLeft()) {
+            failed(statements, result.getLeft(), elapsed);
+            long lifetime = lifetime(transaction);
+            for (ExecutionListener listener : listeners) {
+                listener.transactionRolledBack(lifetime);
+            }
+            return result;
+        }
+        synchronized (openingTimes) {
+            Long openingTime = openingTimes.remove(transaction);
+            if (openingTime != null) {
+                openingTimes.put(result.getRight(), openingTime);
+            }
+        }
+        succeeded(statements, result.getRight().getData(), elapsed);
+        return result;
+    }
+
+    private Either<List<Fault>, ClosedTransaction> committed(OpenTx transaction, List<Statement> statements, long start, Either<List<Fault>, ClosedTransaction> result) {
+        long elapsed = System.nanoTime() - start;
+        long lifetime = lifetime(transaction);
+        if (result.isLeft()) {
+            failed(statements, result.getLeft(), elapsed);
+            for (ExecutionListener listener : listeners) {
+                listener.transactionRolledBack(lifetime);
+            }
+            return result;
+        }
+        succeeded(statements, result.getRight().getData(), elapsed);
+        for (ExecutionListener listener : listeners) {
+            listener.transactionCommitted(lifetime);
+        }
+        return result;
+    }
+
+    private long lifetime(OpenTx transaction) {
+        Long openingTime;
+        synchronized (openingTimes) {
+            openingTime = openingTimes.remove(transaction);
+        }
+        return openingTime == null ? UNKNOWN_DURATION : System.nanoTime() - openingTime;
+    }
+
+    private static long rowCount(List<Data> data) {
+        long result = 0;
+        for (Data current : data) {
+            result += current.getRows().size();
+        }
+        return result;
+    }
+
+    private final class ListeningCursor implements Cursor {
+        private final Cursor delegate;
+        private final List<Statement> statements;
+        private final long start;
+        private long rows;
+        private boolean closed;
+
+        ListeningCursor(Cursor delegate, List<Statement> statements, long start) {
+            this.delegate = delegate;
+            this.statements = statements;
+            this.start = start;
+        }
+
+        @Override
+        public List<String> getColumns() {
+            return delegate.getColumns();
+        }
+
+        @Override
+        public List<Fault> getFaults() {
+            return delegate.getFaults();
+        }
+
+        @Override
+        public <T> T next(RowMapper<T> mapper) {
+            T result = delegate.next(mapper);
+            rows++;
+            return result;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return delegate.hasNext();
+        }
+
+        @Override
+        public Row next() {
+            Row result = delegate.next();
+            rows++;
+            return result;
+        }
+
+        @Override
+        public void remove() {
+            delegate.remove();
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            delegate.close();
+            long elapsed = System.nanoTime() - start;
+            List<Fault> faults = delegate.getFaults();
+            if (!faults.isEmpty()) {
+                failed(statements, faults, elapsed);
+                return;
+            }
+            for (ExecutionListener listener : listeners) {
+                listener.queryCompleted(statements, rows, elapsed);
+            }
+        }
+
+        @Override
+        public void abort() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            delegate.abort();
+            List<Fault> faults = delegate.getFaults();
+            if (faults.isEmpty()) {
+                faults = Collections.singletonList(new Fault("Cursor.Error.Aborted", "Cursor was aborted before completion"));
+            }
+            failed(statements, faults, System.nanoTime() - start);
+        }
+    }
+}
@@ -20,4 +20,6 @@ import java.util.List;
 public interface OngoingTransaction {
 
     List<Data> getData();
+
+    AccessMode getAccessMode();
 }
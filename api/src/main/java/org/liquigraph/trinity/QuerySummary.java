@@ -0,0 +1,253 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.liquigraph.trinity;
+
+import java.util.Objects;
+
+/**
+ * Update counters and server-side timings of a single statement.
+ * Timings are in milliseconds, or {@link #UNKNOWN_TIME} when the transport does not report them.
+ */
+public final class QuerySummary {
+
+    public static final long UNKNOWN_TIME = -1;
+    public static final QuerySummary EMPTY = new Builder().build();
+
+    private final int nodesCreated;
+    private final int nodesDeleted;
+    private final int relationshipsCreated;
+    private final int relationshipsDeleted;
+    private final int propertiesSet;
+    private final int labelsAdded;
+    private final int labelsRemoved;
+    private final int indexesAdded;
+    private final int indexesRemoved;
+    private final int constraintsAdded;
+    private final int constraintsRemoved;
+    private final long resultAvailableAfter;
+    private final long resultConsumedAfter;
+
+    private QuerySummary(Builder builder) {
+        this.nodesCreated = builder.nodesCreated;
+        this.nodesDeleted = builder.nodesDeleted;
+        this.relationshipsCreated = builder.relationshipsCreated;
+        this.relationshipsDeleted = builder.relationshipsDeleted;
+        this.propertiesSet = builder.propertiesSet;
+        this.labelsAdded = builder.labelsAdded;
+        this.labelsRemoved = builder.labelsRemoved;
+        this.indexesAdded = builder.indexesAdded;
+        this.indexesRemoved = builder.indexesRemoved;
+        this.constraintsAdded = builder.constraintsAdded;
+        this.constraintsRemoved = builder.constraintsRemoved;
+        this.resultAvailableAfter = builder.resultAvailableAfter;
+        this.resultConsumedAfter = builder.resultConsumedAfter;
+    }
+
+    public int getNodesCreated() {
+        return nodesCreated;
+    }
+
+    public int getNodesDeleted() {
+        return nodesDeleted;
+    }
+
+    public int getRelationshipsCreated() {
+        return relationshipsCreated;
+    }
+
+    public int getRelationshipsDeleted() {
+        return relationshipsDeleted;
+    }
+
+    public int getPropertiesSet() {
+        return propertiesSet;
+    }
+
+    public int getLabelsAdded() {
+        return labelsAdded;
+    }
+
+    public int getLabelsRemoved() {
+        return labelsRemoved;
+    }
+
+    public int getIndexesAdded() {
+        return indexesAdded;
+    }
+
+    public int getIndexesRemoved() {
+        return indexesRemoved;
+    }
+
+    public int getConstraintsAdded() {
+        return constraintsAdded;
+    }
+
+    public int getConstraintsRemoved() {
+        return constraintsRemoved;
+    }
+
+    public boolean containsUpdates() {
+        return nodesCreated + nodesDeleted
+            + relationshipsCreated + relationshipsDeleted
+            + propertiesSet + labelsAdded + labelsRemoved
+            + indexesAdded + indexesRemoved
+            + constraintsAdded + constraintsRemoved > 0;
+    }
+
+    public long getResultAvailableAfter() {
+        return resultAvailableAfter;
+    }
+
+    public long getResultConsumedAfter() {
+        return resultConsumedAfter;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(nodesCreated, nodesDeleted, relationshipsCreated, relationshipsDeleted, propertiesSet,
+            labelsAdded, labelsRemoved, indexesAdded, indexesRemoved, constraintsAdded, constraintsRemoved,
+            resultAvailableAfter, resultConsumedAfter);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        final QuerySummary other = (QuerySummary) obj;
+        return this.nodesCreated == other.nodesCreated
+            && this.nodesDeleted == other.nodesDeleted
+            && this.relationshipsCreated == other.relationshipsCreated
+            && this.relationshipsDeleted == other.relationshipsDeleted
+            && this.propertiesSet == other.propertiesSet
+            && this.labelsAdded == other.labelsAdded
+            && this.labelsRemoved == other.labelsRemoved
+            && this.indexesAdded == other.indexesAdded
+            && this.indexesRemoved == other.indexesRemoved
+            && this.constraintsAdded == other.constraintsAdded
+            && this.constraintsRemoved == other.constraintsRemoved
+            && this.resultAvailableAfter == other.resultAvailableAfter
+            && this.resultConsumedAfter == other.resultConsumedAfter;
+    }
+
+    @Override
+    public String toString() {
+        return "QuerySummary{" +
+            "nodesCreated=" + nodesCreated +
+            ", nodesDeleted=" + nodesDeleted +
+            ", relationshipsCreated=" + relationshipsCreated +
+            ", relationshipsDeleted=" + relationshipsDeleted +
+            ", propertiesSet=" + propertiesSet +
+            ", labelsAdded=" + labelsAdded +
+            ", labelsRemoved=" + labelsRemoved +
+            ", indexesAdded=" + indexesAdded +
+            ", indexesRemoved=" + indexesRemoved +
+            ", constraintsAdded=" + constraintsAdded +
+            ", constraintsRemoved=" + constraintsRemoved +
+            ", resultAvailableAfter=" + resultAvailableAfter +
+            ", resultConsumedAfter=" + resultConsumedAfter +
+            '}';
+    }
+
+    public static final class Builder {
+        private int nodesCreated;
+        private int nodesDeleted;
+        private int relationshipsCreated;
+        private int relationshipsDeleted;
+        private int propertiesSet;
+        private int labelsAdded;
+        private int labelsRemoved;
+        private int indexesAdded;
+        private int indexesRemoved;
+        private int constraintsAdded;
+        private int constraintsRemoved;
+        private long resultAvailableAfter = UNKNOWN_TIME;
+        private long resultConsumedAfter = UNKNOWN_TIME;
+
+        public Builder nodesCreated(int nodesCreated) {
+            this.nodesCreated = nodesCreated;
+            return this;
+        }
+
+        public Builder nodesDeleted(int nodesDeleted) {
+            this.nodesDeleted = nodesDeleted;
+            return this;
+        }
+
+        public Builder relationshipsCreated(int relationshipsCreated) {
+            this.relationshipsCreated = relationshipsCreated;
+            return this;
+        }
+
+        public Builder relationshipsDeleted(int relationshipsDeleted) {
+            this.relationshipsDeleted = relationshipsDeleted;
+            return this;
+        }
+
+        public Builder propertiesSet(int propertiesSet) {
+            this.propertiesSet = propertiesSet;
+            return this;
+        }
+
+        public Builder labelsAdded(int labelsAdded) {
+            this.labelsAdded = labelsAdded;
+            return this;
+        }
+
+        public Builder labelsRemoved(int labelsRemoved) {
+            this.labelsRemoved = labelsRemoved;
+            return this;
+        }
+
+        public Builder indexesAdded(int indexesAdded) {
+            this.indexesAdded = indexesAdded;
+            return this;
+        }
+
+        public Builder indexesRemoved(int indexesRemoved) {
+            this.indexesRemoved = indexesRemoved;
+            return this;
+        }
+
+        public Builder constraintsAdded(int constraintsAdded) {
+            this.constraintsAdded = constraintsAdded;
+            return this;
+        }
+
+        public Builder constraintsRemoved(int constraintsRemoved) {
+            this.constraintsRemoved = constraintsRemoved;
+            return this;
+        }
+
+        public Builder resultAvailableAfter(long resultAvailableAfter) {
+            this.resultAvailableAfter = resultAvailableAfter;
+            return this;
+        }
+
+        public Builder resultConsumedAfter(long resultConsumedAfter) {
+            this.resultConsumedAfter = resultConsumedAfter;
+            return this;
+        }
+
+        public QuerySummary build() {
+            return new QuerySummary(this);
+        }
+    }
+}
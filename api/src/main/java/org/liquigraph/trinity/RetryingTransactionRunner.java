@@ -0,0 +1,137 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.liquigraph.trinity;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Random;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Runs units of work against a {@link CypherClient}, retrying them with exponential backoff and jitter
+ * as long as they fail with transient faults (<code>Neo.TransientError.*</code>, e.g. deadlocks)
+ * and the maximum retry time has not elapsed.
+ * The defaults mirror the ones of the Neo4j Java driver.
+ */
+public final class RetryingTransactionRunner<OpenTx extends OngoingTransaction> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(RetryingTransactionRunner.class);
+
+    public static final long DEFAULT_MAX_RETRY_TIME_MILLISECONDS = 30000;
+    public static final long DEFAULT_INITIAL_RETRY_DELAY_MILLISECONDS = 1000;
+    public static final double DEFAULT_RETRY_DELAY_MULTIPLIER = 2.0;
+    public static final double DEFAULT_RETRY_DELAY_JITTER_FACTOR = 0.2;
+
+    private static final String TRANSIENT_ERROR_PREFIX = "Neo.TransientError.";
+    private static final String TERMINATED = "Neo.TransientError.Transaction.Terminated";
+    private static final String LOCK_CLIENT_STOPPED = "Neo.TransientError.Transaction.LockClientStopped";
+
+    private final CypherClient<OpenTx> client;
+    private final long maxRetryTimeMillis;
+    private final long initialDelayMillis;
+    private final double multiplier;
+    private final double jitterFactor;
+    private final Random random = new Random();
+
+    public RetryingTransactionRunner(CypherClient<OpenTx> client) {
+        this(client, DEFAULT_MAX_RETRY_TIME_MILLISECONDS);
+    }
+
+    public RetryingTransactionRunner(CypherClient<OpenTx> client, long maxRetryTimeMillis) {
+        this(client, maxRetryTimeMillis, DEFAULT_INITIAL_RETRY_DELAY_MILLISECONDS, DEFAULT_RETRY_DELAY_MULTIPLIER, DEFAULT_RETRY_DELAY_JITTER_FACTOR);
+    }
+
+    public RetryingTransactionRunner(CypherClient<OpenTx> client,
+                                     long maxRetryTimeMillis,
+                                     long initialDelayMillis,
+                                     double multiplier,
+                                     double jitterFactor) {
+
+        if (maxRetryTimeMillis < 0 || initialDelayMillis < 0) {
+            throw new IllegalArgumentException("Retry time and delay must be positive");
+        }
+        if (multiplier < 1.0) {
+            throw new IllegalArgumentException(String.format("Delay multiplier must be at least 1, got %s", multiplier));
+        }
+        if (jitterFactor < 0.0 || jitterFactor > 1.0) {
+            throw new IllegalArgumentException(String.format("Jitter factor must be between 0 and 1, got %s", jitterFactor));
+        }
+        this.client = client;
+        this.maxRetryTimeMillis = maxRetryTimeMillis;
+        this.initialDelayMillis = initialDelayMillis;
+        this.multiplier = multiplier;
+        this.jitterFactor = jitterFactor;
+    }
+
+    public <T> Either<List<Fault>, T> run(TransactionWork<OpenTx, T> work) {
+        long start = System.nanoTime();
+        long delayMillis = initialDelayMillis;
+        int attempt = 1;
+        while (true) {
+            Either<List<Fault>, T> result = work.execute(client);
+            if (result.isRight() || !isTransient(result.getLeft())) {
+                return result;
+            }
+            long elapsedMillis = NANOSECONDS.toMillis(System.nanoTime() - start);
+            long jitteredDelayMillis = jitter(delayMillis);
+            if (elapsedMillis + jitteredDelayMillis > maxRetryTimeMillis) {
+                LOGGER.warn("Giving up after {} attempts over {} ms: {}", attempt, elapsedMillis, result.getLeft());
+                return result;
+            }
+            LOGGER.info("Attempt {} failed with transient faults, retrying in {} ms: {}", attempt, jitteredDelayMillis, result.getLeft());
+            if (!sleep(jitteredDelayMillis)) {
+                return result;
+            }
+            delayMillis = (long) (delayMillis * multiplier);
+            attempt++;
+        }
+    }
+
+    static boolean isTransient(List<Fault> faults) {
+        if (faults.isEmpty()) {
+            return false;
+        }
+        for (Fault fault : faults) {
+            String code = fault.getCode();
+            if (code == null
+                || !code.startsWith(TRANSIENT_ERROR_PREFIX)
+                || TERMINATED.equals(code)
+                || LOCK_CLIENT_STOPPED.equals(code)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long jitter(long delayMillis) {
+        double jitter = delayMillis * jitterFactor;
+        return (long) (delayMillis - jitter + 2 * jitter * random.nextDouble());
+    }
+
+    private static boolean sleep(long delayMillis) {
+        try {
+            MILLISECONDS.sleep(delayMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.warn("Interrupted while waiting for the next attempt");
+            return false;
+        }
+    }
+}
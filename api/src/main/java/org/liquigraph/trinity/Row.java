@@ -15,29 +15,84 @@
  */
 package org.liquigraph.trinity;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
 
-public final class Row {
+/**
+ * Values of a single result row, stored positionally against a {@link ColumnIndex} shared by the whole result.
+ * Rows compare like maps of column name to value, regardless of column order.
+ *
+ * Rows hold a single array of values: the typed accessors such as {@link #getLong(String)} unbox them on read.
+ */
+public final class Row implements RowView {
 
-    private final Map<String, Object> values;
+    private final ColumnIndex columns;
+    private final Object[] values;
 
     public Row(String singleKey, Object singleValue) {
-        this(map(singleKey, singleValue));
+        this(new ColumnIndex(Collections.singletonList(singleKey)), new Object[]{singleValue});
     }
 
+    /**
+     * Convenience for tests and one-off rows: each call builds its own {@link ColumnIndex}.
+     * Rows of the same result should share one through {@link #Row(ColumnIndex, Object[])} or {@link Builder}.
+     */
     public Row(Map<String, Object> values) {
+        this(new ColumnIndex(new ArrayList<>(values.keySet())), values.values().toArray());
+    }
+
+    public Row(ColumnIndex columns, Object[] values) {
+        if (columns.size() != values.length) {
+            throw new IllegalArgumentException(String.format("Expected %d values, got %d", columns.size(), values.length));
+        }
+        this.columns = columns;
         this.values = values;
     }
 
+    @Override
     public Object get(String name) {
-        return values.get(name);
+        int index = columns.indexOf(name);
+        return index < 0 ? null : values[index];
+    }
+
+    @Override
+    public long getLong(String name) {
+        return ((Number) nonNullValue(name)).longValue();
+    }
+
+    @Override
+    public double getDouble(String name) {
+        return ((Number) nonNullValue(name)).doubleValue();
+    }
+
+    @Override
+    public boolean getBoolean(String name) {
+        return (Boolean) nonNullValue(name);
+    }
+
+    @Override
+    public String getString(String name) {
+        return (String) values[indexOf(name)];
+    }
+
+    public Map<String, Object> asMap() {
+        Map<String, Object> result = new LinkedHashMap<>((int) Math.ceil(values.length / 0.75));
+        for (int i = 0; i < values.length; i++) {
+            result.put(columns.getColumns().get(i), values[i]);
+        }
+        return result;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(values);
+        int result = 0;
+        for (int i = 0; i < values.length; i++) {
+            result += columns.getColumns().get(i).hashCode() ^ Objects.hashCode(values[i]);
+        }
+        return result;
     }
 
     @Override
@@ -49,19 +104,76 @@ public final class Row {
             return false;
         }
         final Row other = (Row) obj;
-        return Objects.equals(this.values, other.values);
+        if (this.values.length != other.values.length) {
+            return false;
+        }
+        boolean sameColumns = this.columns == other.columns;
+        for (int i = 0; i < values.length; i++) {
+            int otherIndex = sameColumns ? i : other.columns.indexOf(columns.getColumns().get(i));
+            if (otherIndex < 0 || !Objects.equals(values[i], other.values[otherIndex])) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
     public String toString() {
         return "Row{" +
-              "values=" + values +
+              "values=" + asMap() +
               '}';
     }
 
-    private static Map<String, Object> map(String singleKey, Object singleValue) {
-        HashMap<String, Object> map = new HashMap<>(2);
-        map.put(singleKey, singleValue);
-        return map;
+    private int indexOf(String name) {
+        int index = columns.indexOf(name);
+        if (index < 0) {
+            throw new IllegalArgumentException(String.format("Unknown column %s, expected one of %s", name, columns.getColumns()));
+        }
+        return index;
+    }
+
+    private Object nonNullValue(String name) {
+        Object value = values[indexOf(name)];
+        if (value == null) {
+            throw new IllegalStateException(String.format("Column %s is null", name));
+        }
+        return value;
+    }
+
+    /**
+     * Fills a single row column by column, for transports that read values already typed.
+     */
+    public static final class Builder {
+        private final ColumnIndex columns;
+        private final Object[] values;
+
+        public Builder(ColumnIndex columns) {
+            this.columns = columns;
+            this.values = new Object[columns.size()];
+        }
+
+        public Builder set(int index, Object value) {
+            values[index] = value;
+            return this;
+        }
+
+        public Builder setLong(int index, long value) {
+            values[index] = value;
+            return this;
+        }
+
+        public Builder setDouble(int index, double value) {
+            values[index] = value;
+            return this;
+        }
+
+        public Builder setBoolean(int index, boolean value) {
+            values[index] = value;
+            return this;
+        }
+
+        public Row build() {
+            return new Row(columns, values);
+        }
     }
 }
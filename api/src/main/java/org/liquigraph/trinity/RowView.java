@@ -0,0 +1,34 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.liquigraph.trinity;
+
+/**
+ * Read access to a single result row, whatever the transport representation of that row is.
+ * Null values are returned as <code>null</code> by {@link #get(String)} and {@link #getString(String)},
+ * while the primitive accessors throw an {@link IllegalStateException}.
+ */
+public interface RowView {
+
+    Object get(String name);
+
+    long getLong(String name);
+
+    double getDouble(String name);
+
+    boolean getBoolean(String name);
+
+    String getString(String name);
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.liquigraph.trinity;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reference-counted client handed out by <code>CypherClientLookup#getSharedInstance</code> to all the callers asking for
+ * the same transport and configuration. Each acquisition must be matched by exactly one {@link #close()}: the last one
+ * releases the client, closing the one created by the transport and its decorators if they are {@link AutoCloseable}.
+ */
+public final class SharedCypherClient<OpenTx extends OngoingTransaction> implements CypherClient<OpenTx>, AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SharedCypherClient.class);
+
+    private final CypherClient<OpenTx> delegate;
+    private final Object transportClient;
+    private final Map<?, ?> registry;
+    private final Object key;
+    private int references = 1;
+
+    /**
+     * @param delegate the client calls are forwarded to, possibly decorating <code>transportClient</code>
+     * @param transportClient the client created by the transport
+     * @param registry the shared clients, by key, this client removes itself from once released
+     */
+    SharedCypherClient(CypherClient<OpenTx> delegate, Object transportClient, Map<?, ?> registry, Object key) {
+        this.delegate = delegate;
+        this.transportClient = transportClient;
+        this.registry = registry;
+        this.key = key;
+    }
+
+    /**
+     * Must be called while holding the lock of the registry.
+     */
+    void retain() {
+        references++;
+    }
+
+    public int getReferenceCount() {
+        synchronized (registry) {
+            return references;
+        }
+    }
+
+    @Override
+    public Either<List<Fault>, List<Data>> runSingleTransaction(String query, String... queries) {
+        return delegate.runSingleTransaction(query, queries);
+    }
+
+    @Override
+    public Either<List<Fault>, List<Data>> runSingleTransaction(Statement statement, Statement... statements) {
+        return delegate.runSingleTransaction(statement, statements);
+    }
+
+    @Override
+    public Either<List<Fault>, List<Data>> runSingleTransaction(AccessMode accessMode, Statement statement, Statement... statements) {
+        return delegate.runSingleTransaction(accessMode, statement, statements);
+    }
+
+    @Override
+    public <T> Either<List<Fault>, List<T>> runSingleTransaction(Statement statement, RowMapper<T> mapper) {
+        return delegate.runSingleTransaction(statement, mapper);
+    }
+
+    @Override
+    public Either<List<Fault>, Cursor> streamSingleTransaction(Statement statement) {
+        return delegate.streamSingleTransaction(statement);
+    }
+
+    @Override
+    public Either<List<Fault>, Cursor> streamSingleTransaction(AccessMode accessMode, Statement statement) {
+        return delegate.streamSingleTransaction(accessMode, statement);
+    }
+
+    @Override
+    public Either<List<Fault>, OpenTx> openTransaction(String... queries) {
+        return delegate.openTransaction(queries);
+    }
+
+    @Override
+    public Either<List<Fault>, OpenTx> openTransaction(Statement statement, Statement... statements) {
+        return delegate.openTransaction(statement, statements);
+    }
+
+    @Override
+    public Either<List<Fault>, OpenTx> openTransaction(AccessMode accessMode, Statement... statements) {
+        return delegate.openTransaction(accessMode, statements);
+    }
+
+    @Override
+    public Either<List<Fault>, OpenTx> execute(OpenTx transaction, String... queries) {
+        return delegate.execute(transaction, queries);
+    }
+
+    @Override
+    public Either<List<Fault>, OpenTx> execute(OpenTx transaction, Statement statement, Statement... statements) {
+        return delegate.execute(transaction, statement, statements);
+    }
+
+    @Override
+    public Either<List<Fault>, ClosedTransaction> commit(OpenTx transaction, String... queries) {
+        return delegate.commit(transaction, queries);
+    }
+
+    @Override
+    public Either<List<Fault>, ClosedTransaction> commit(OpenTx transaction, Statement statement, Statement... statements) {
+        return delegate.commit(transaction, statement, statements);
+    }
+
+    @Override
+    public Either<List<Fault>, ClosedTransaction> rollback(OpenTx transaction) {
+        return delegate.rollback(transaction);
+    }
+
+    @Override
+    public void close() {
+        synchronized (registry) {
+            if (references == 0) {
+                return;
+            }
+            references--;
+            if (references > 0) {
+                return;
+            }
+            registry.remove(key);
+        }
+        if (delegate != transportClient) {
+            closeQuietly(delegate);
+        }
+        closeQuietly(transportClient);
+    }
+
+    private static void closeQuietly(Object client) {
+        if (client instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) client).close();
+            } catch (Exception e) {
+                LOGGER.warn("Could not close shared client", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.liquigraph.trinity;
+
+import org.liquigraph.trinity.internal.QueryFingerprints;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Captures the queries of a {@link ListeningCypherClient} that take longer than a threshold. Captured queries are
+ * identified by their fingerprint (see {@link QueryFingerprints}), logged at WARN level and kept in a bounded ring
+ * buffer, where only the most recent entries survive.
+ *
+ * Queries under the threshold only cost a comparison: fingerprinting and sampling happen past it.
+ */
+public final class SlowQueryLog extends ExecutionListenerAdapter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SlowQueryLog.class);
+
+    public static final String THRESHOLD_SETTING = "slow-query.threshold-milliseconds";
+    public static final String SAMPLING_RATE_SETTING = "slow-query.sampling-rate";
+    public static final String CAPACITY_SETTING = "slow-query.capacity";
+    private static final int DEFAULT_CAPACITY = 128;
+
+    private final long thresholdNanos;
+    private final double samplingRate;
+    private final AtomicReferenceArray<Entry> entries;
+    private final AtomicLong captured = new AtomicLong();
+
+    public SlowQueryLog(long threshold, TimeUnit unit, double samplingRate, int capacity) {
+        if (samplingRate <= 0 || samplingRate > 1) {
+            throw new IllegalArgumentException(String.format("Sampling rate must be within ]0, 1], got %s", samplingRate));
+        }
+        if (capacity <= 0) {
+            throw new IllegalArgumentException(String.format("Capacity must be strictly positive, got %d", capacity));
+        }
+        this.thresholdNanos = unit.toNanos(threshold);
+        this.samplingRate = samplingRate;
+        this.entries = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * Reads the settings of the given transport, e.g. <code>cypher.bolt.slow-query.threshold-milliseconds</code>.
+     *
+     * @return the configured log, or null if no threshold is set for this transport
+     */
+    public static SlowQueryLog fromProperties(CypherTransport transport, Properties properties) {
+        String prefix = settingPrefix(transport);
+        String threshold = properties.getProperty(prefix + THRESHOLD_SETTING);
+        if (threshold == null) {
+            return null;
+        }
+        return new SlowQueryLog(
+            Long.parseLong(threshold),
+            MILLISECONDS,
+            Double.parseDouble(properties.getProperty(prefix + SAMPLING_RATE_SETTING, "1")),
+            Integer.parseInt(properties.getProperty(prefix + CAPACITY_SETTING, String.valueOf(DEFAULT_CAPACITY)))
+        );
+    }
+
+    @Override
+    public void queryCompleted(List<Statement> statements, long rows, long elapsedNanos) {
+        if (elapsedNanos >= thresholdNanos && sampled()) {
+            capture(new Entry(QueryFingerprints.fingerprint(statements), elapsedNanos, rows, Collections.<Fault>emptyList()));
+        }
+    }
+
+    @Override
+    public void queryFailed(List<Statement> statements, List<Fault> faults, long elapsedNanos) {
+        if (elapsedNanos >= thresholdNanos && sampled()) {
+            capture(new Entry(QueryFingerprints.fingerprint(statements), elapsedNanos, -1, faults));
+        }
+    }
+
+    /**
+     * @return the entries still in the buffer, oldest first
+     */
+    public List<Entry> getEntries() {
+        long last = captured.get();
+        int capacity = entries.length();
+        List<Entry> result = new ArrayList<>(capacity);
+        for (long sequence = Math.max(0, last - capacity); sequence < last; sequence++) {
+            Entry entry = entries.get(slot(sequence));
+            if (entry != null) {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the number of queries captured so far, including the ones that were since evicted from the buffer
+     */
+    public long getCapturedCount() {
+        return captured.get();
+    }
+
+    private boolean sampled() {
+        return samplingRate >= 1 || ThreadLocalRandom.current().nextDouble() < samplingRate;
+    }
+
+    private void capture(Entry entry) {
+        LOGGER.warn("Slow query: {}", entry);
+        entries.set(slot(captured.getAndIncrement()), entry);
+    }
+
+    private int slot(long sequence) {
+        return (int) (sequence % entries.length());
+    }
+
+    static String settingPrefix(CypherTransport transport) {
+        switch (transport) {
+            case EMBEDDED_2:
+                return "cypher.embeddedv2.";
+            case EMBEDDED_3:
+                return "cypher.embeddedv3.";
+            default:
+                return "cypher." + transport.name().toLowerCase(Locale.ENGLISH) + ".";
+        }
+    }
+
+    public static final class Entry {
+        private final String fingerprint;
+        private final long elapsedNanos;
+        private final long rows;
+        private final List<Fault> faults;
+        private final long capturedAt;
+
+        Entry(String fingerprint, long elapsedNanos, long rows, List<Fault> faults) {
+            this.fingerprint = fingerprint;
+            this.elapsedNanos = elapsedNanos;
+            this.rows = rows;
+            this.faults = faults;
+            this.capturedAt = System.currentTimeMillis();
+        }
+
+        public String getFingerprint() {
+            return fingerprint;
+        }
+
+        public long getElapsed(TimeUnit unit) {
+            return unit.convert(elapsedNanos, NANOSECONDS);
+        }
+
+        /**
+         * @return the number of returned rows, or -1 if the query failed
+         */
+        public long getRows() {
+            return rows;
+        }
+
+        public List<Fault> getFaults() {
+            return faults;
+        }
+
+        /**
+         * @return the capture time, in milliseconds since the epoch
+         */
+        public long getCapturedAt() {
+            return capturedAt;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(fingerprint, elapsedNanos, rows, faults, capturedAt);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            final Entry other = (Entry) obj;
+            return Objects.equals(this.fingerprint, other.fingerprint)
+                    && this.elapsedNanos == other.elapsedNanos
+                    && this.rows == other.rows
+                    && Objects.equals(this.faults, other.faults)
+                    && this.capturedAt == other.capturedAt;
+        }
+
+        @Override
+        public String toString() {
+            return "Entry{" +
+                "fingerprint='" + fingerprint + '\'' +
+                ", elapsedMillis=" + NANOSECONDS.toMillis(elapsedNanos) +
+                ", rows=" + rows +
+                ", faults=" + faults +
+                ", capturedAt=" + capturedAt +
+                '}';
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.liquigraph.trinity;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cypher query along with its parameters.
+ * Parameterized queries keep the same text across executions, which lets Neo4j reuse cached execution plans.
+ * Statements with a timeout are terminated, along with their transaction, if they run longer than it.
+ */
+public final class Statement {
+
+    private final String query;
+    private final Map<String, Object> parameters;
+    private final long timeoutMillis;
+
+    public Statement(String query) {
+        this(query, Collections.<String, Object>emptyMap());
+    }
+
+    public Statement(String query, Map<String, Object> parameters) {
+        this(query, parameters, 0);
+    }
+
+    private Statement(String query, Map<String, Object> parameters, long timeoutMillis) {
+        this.query = query;
+        this.parameters = parameters;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public Statement withTimeout(long timeout, TimeUnit unit) {
+        if (timeout <= 0) {
+            throw new IllegalArgumentException(String.format("Timeout must be strictly positive, got %d", timeout));
+        }
+        return new Statement(query, parameters, unit.toMillis(timeout));
+    }
+
+    /**
+     * @return an equal statement that does not share its parameter map with this one
+     */
+    public Statement copy() {
+        return new Statement(query, new HashMap<>(parameters), timeoutMillis);
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    public Map<String, Object> getParameters() {
+        return parameters;
+    }
+
+    public boolean hasParameters() {
+        return !parameters.isEmpty();
+    }
+
+    /**
+     * @return the timeout in milliseconds, or 0 if the statement can run for as long as it needs
+     */
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(query, parameters, timeoutMillis);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        final Statement other = (Statement) obj;
+        return Objects.equals(this.query, other.query)
+            && Objects.equals(this.parameters, other.parameters)
+            && this.timeoutMillis == other.timeoutMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "Statement{" +
+            "query='" + query + '\'' +
+            ", parameters=" + parameters +
+            ", timeoutMillis=" + timeoutMillis +
+            '}';
+    }
+}
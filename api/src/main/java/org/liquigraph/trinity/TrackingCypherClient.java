@@ -0,0 +1,439 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.liquigraph.trinity;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Keeps track of the transactions opened through the decorated client until they are committed or rolled back.
+ * Transactions left idle for longer than the idle timeout are considered leaked: they are rolled back, counted and
+ * logged at WARN level, along with the stack of their creation when it was sampled.
+ *
+ * Committing or executing statements in a leaked transaction fails with {@link #IDLE_ROLLBACK}.
+ * Transactions whose execution failed are no longer tracked, since transports close them on failure.
+ * Transactions of thread-bound transports, i.e. embedded ones, cannot be rolled back from the thread running the idle
+ * checks: they are only flagged as leaked then, and rolled back on their next use. Until then, they keep holding their
+ * locks, so thread-bound callers must still commit or roll back in a finally block.
+ * Closing this client stops the idle checks, it does not close the decorated client.
+ */
+public final class TrackingCypherClient<OpenTx extends OngoingTransaction> implements CypherClient<OpenTx>, AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TrackingCypherClient.class);
+
+    public static final String IDLE_ROLLBACK = "CypherClient.Error.IdleTransactionRolledBack";
+    public static final String IDLE_TIMEOUT_SETTING = "leak-detection.idle-timeout-milliseconds";
+    public static final String STACK_SAMPLING_RATE_SETTING = "leak-detection.stack-sampling-rate";
+    private static final String DEFAULT_STACK_SAMPLING_RATE = "0.1";
+    private static final Tracked LEAKED = new Tracked(null, null);
+
+    private final CypherClient<OpenTx> delegate;
+    private final long idleTimeoutNanos;
+    private final double stackSamplingRate;
+    private final boolean threadBound;
+    private final Map<OpenTx, Tracked> openTransactions = new IdentityHashMap<>();
+    // compared by identity as open transactions are, and weakly referenced since leaked ones may never be used again
+    private final List<WeakReference<OpenTx>> leakedTransactions = new ArrayList<>();
+    private final AtomicLong leaked = new AtomicLong();
+    private final ScheduledFuture<?> idleCheck;
+
+    public TrackingCypherClient(CypherClient<OpenTx> delegate, long idleTimeout, TimeUnit unit, double stackSamplingRate) {
+        this(delegate, idleTimeout, unit, stackSamplingRate, false);
+    }
+
+    /**
+     * @param threadBound whether transactions can only be rolled back by the thread that opened them
+     */
+    public TrackingCypherClient(CypherClient<OpenTx> delegate, long idleTimeout, TimeUnit unit, double stackSamplingRate, boolean threadBound) {
+        if (idleTimeout <= 0) {
+            throw new IllegalArgumentException(String.format("Idle timeout must be strictly positive, got %d", idleTimeout));
+        }
+        if (stackSamplingRate < 0 || stackSamplingRate > 1) {
+            throw new IllegalArgumentException(String.format("Stack sampling rate must be within [0, 1], got %s", stackSamplingRate));
+        }
+        this.delegate = delegate;
+        this.idleTimeoutNanos = unit.toNanos(idleTimeout);
+        this.stackSamplingRate = stackSamplingRate;
+        this.threadBound = threadBound;
+        long period = Math.max(1, unit.toMillis(idleTimeout) / 4);
+        this.idleCheck = Reaper.INSTANCE.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                rollBackIdleTransactions();
+            }
+        }, period, period, MILLISECONDS);
+    }
+
+    /**
+     * Reads the settings of the given transport, e.g. <code>cypher.bolt.leak-detection.idle-timeout-milliseconds</code>.
+     *
+     * @return the decorated client, or the given client if no idle timeout is set for this transport
+     */
+    public static CypherClient<OngoingTransaction> fromProperties(CypherTransport transport,
+                                                                  Properties properties,
+                                                                  CypherClient<OngoingTransaction> client) {
+        String prefix = SlowQueryLog.settingPrefix(transport);
+        String idleTimeout = properties.getProperty(prefix + IDLE_TIMEOUT_SETTING);
+        if (idleTimeout == null) {
+            return client;
+        }
+        return new TrackingCypherClient<>(
+            client,
+            Long.parseLong(idleTimeout),
+            MILLISECONDS,
+            Double.parseDouble(properties.getProperty(prefix + STACK_SAMPLING_RATE_SETTING, DEFAULT_STACK_SAMPLING_RATE)),
+            transport == CypherTransport.EMBEDDED_2 || transport == CypherTransport.EMBEDDED_3
+        );
+    }
+
+    /**
+     * @return the transactions currently open, oldest first
+     */
+    public List<OpenTransaction> getOpenTransactions() {
+        List<OpenTransaction> result;
+        synchronized (openTransactions) {
+            result = new ArrayList<>(openTransactions.size());
+            for (Tracked tracked : openTransactions.values()) {
+                result.add(tracked.snapshot());
+            }
+        }
+        Collections.sort(result, OpenTransaction.OLDEST_FIRST);
+        return result;
+    }
+
+    public int getOpenCount() {
+        synchronized (openTransactions) {
+            return openTransactions.size();
+        }
+    }
+
+    /**
+     * @return the number of transactions detected so far as left idle, rolled back then or, if thread-bound, on next use
+     */
+    public long getLeakedCount() {
+        return leaked.get();
+    }
+
+    @Override
+    public Either<List<Fault>, List<Data>> runSingleTransaction(String query, String... queries) {
+        return delegate.runSingleTransaction(query, queries);
+    }
+
+    @Override
+    public Either<List<Fault>, List<Data>> runSingleTransaction(Statement statement, Statement... statements) {
+        return delegate.runSingleTransaction(statement, statements);
+    }
+
+    @Override
+    public Either<List<Fault>, List<Data>> runSingleTransaction(AccessMode accessMode, Statement statement, Statement... statements) {
+        return delegate.runSingleTransaction(accessMode, statement, statements);
+    }
+
+    @Override
+    public <T> Either<List<Fault>, List<T>> runSingleTransaction(Statement statement, RowMapper<T> mapper) {
+        return delegate.runSingleTransaction(statement, mapper);
+    }
+
+    @Override
+    public Either<List<Fault>, Cursor> streamSingleTransaction(Statement statement) {
+        return delegate.streamSingleTransaction(statement);
+    }
+
+    @Override
+    public Either<List<Fault>, Cursor> streamSingleTransaction(AccessMode accessMode, Statement statement) {
+        return delegate.streamSingleTransaction(accessMode, statement);
+    }
+
+    @Override
+    public Either<List<Fault>, OpenTx> openTransaction(String... queries) {
+        return opened(delegate.openTransaction(queries));
+    }
+
+    @Override
+    public Either<List<Fault>, OpenTx> openTransaction(Statement statement, Statement... statements) {
+        return opened(delegate.openTransaction(statement, statements));
+    }
+
+    @Override
+    public Either<List<Fault>, OpenTx> openTransaction(AccessMode accessMode, Statement... statements) {
+        return opened(delegate.openTransaction(accessMode, statements));
+    }
+
+    @Override
+    public Either<List<Fault>, OpenTx> execute(OpenTx transaction, String... queries) {
+        Tracked tracked = acquire(transaction);
+        if (tracked == LEAKED) {
+            return idleRollback(transaction);
+        }
+        return executed(transaction, tracked, delegate.execute(transaction, queries));
+    }
+
+    @Override
+    public Either<List<Fault>, OpenTx> execute(OpenTx transaction, Statement statement, Statement... statements) {
+        Tracked tracked = acquire(transaction);
+        if (tracked == LEAKED) {
+            return idleRollback(transaction);
+        }
+        return executed(transaction, tracked, delegate.execute(transaction, statement, statements));
+    }
+
+    @Override
+    public Either<List<Fault>, ClosedTransaction> commit(OpenTx transaction, String... queries) {
+        if (release(transaction) == LEAKED) {
+            return idleRollback(transaction);
+        }
+        return delegate.commit(transaction, queries);
+    }
+
+    @Override
+    public Either<List<Fault>, ClosedTransaction> commit(OpenTx transaction, Statement statement, Statement... statements) {
+        if (release(transaction) == LEAKED) {
+            return idleRollback(transaction);
+        }
+        return delegate.commit(transaction, statement, statements);
+    }
+
+    @Override
+    public Either<List<Fault>, ClosedTransaction> rollback(OpenTx transaction) {
+        if (release(transaction) == LEAKED && !threadBound) {
+            return DefaultEither.right(ClosedTransaction.ROLLED_BACK);
+        }
+        return delegate.rollback(transaction);
+    }
+
+    @Override
+    public void close() {
+        idleCheck.cancel(false);
+    }
+
+    private Either<List<Fault>, OpenTx> opened(Either<List<Fault>, OpenTx> result) {
+        if (result.isRight()) {
+            Throwable creationStack = sampled() ? new Throwable("Transaction opened here") : null;
+            synchronized (openTransactions) {
+                openTransactions.put(result.getRight(), new Tracked(result.getRight().getAccessMode(), creationStack));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Marks the transaction as in use, so that it is not rolled back while executing statements.
+     */
+    private Tracked acquire(OpenTx transaction) {
+        synchronized (openTransactions) {
+            Tracked tracked = openTransactions.get(transaction);
+            if (tracked != null) {
+                tracked.inUse = true;
+                return tracked;
+            }
+            return removeLeaked(transaction) ? LEAKED : null;
+        }
+    }
+
+    private Either<List<Fault>, OpenTx> executed(OpenTx transaction, Tracked tracked, Either<List<Fault>, OpenTx> result) {
+        if (tracked == null) {
+            return result;
+        }
+        synchronized (openTransactions) {
+            tracked.inUse = false;
+            tracked.lastUsed = System.nanoTime();
+            if (result.isLeft()) {
+                openTransactions.remove(transaction);
+            } else if (result.getRight() != transaction) {
+                openTransactions.remove(transaction);
+                openTransactions.put(result.getRight(), tracked);
+            }
+        }
+        return result;
+    }
+
+    private Tracked release(OpenTx transaction) {
+        synchronized (openTransactions) {
+            Tracked tracked = openTransactions.remove(transaction);
+            if (tracked != null) {
+                return tracked;
+            }
+            return removeLeaked(transaction) ? LEAKED : null;
+        }
+    }
+
+    private boolean removeLeaked(OpenTx transaction) {
+        Iterator<WeakReference<OpenTx>> iterator = leakedTransactions.iterator();
+        while (iterator.hasNext()) {
+            OpenTx leakedTransaction = iterator.next().get();
+            if (leakedTransaction == null) {
+                iterator.remove();
+            }
+            else if (leakedTransaction == transaction) {
+                iterator.remove();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void rollBackIdleTransactions() {
+        long now = System.nanoTime();
+        Map<OpenTx, Tracked> idleTransactions = new IdentityHashMap<>();
+        synchronized (openTransactions) {
+            Iterator<Map.Entry<OpenTx, Tracked>> iterator = openTransactions.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<OpenTx, Tracked> entry = iterator.next();
+                OpenTx transaction = entry.getKey();
+                Tracked tracked = entry.getValue();
+                if (!tracked.inUse && now - tracked.lastUsed >= idleTimeoutNanos) {
+                    iterator.remove();
+                    leakedTransactions.add(new WeakReference<>(transaction));
+                    idleTransactions.put(transaction, tracked);
+                }
+            }
+        }
+        for (Map.Entry<OpenTx, Tracked> entry : idleTransactions.entrySet()) {
+            leaked.incrementAndGet();
+            Tracked tracked = entry.getValue();
+            long idleMillis = NANOSECONDS.toMillis(now - tracked.lastUsed);
+            if (threadBound) {
+                LOGGER.warn("{} transaction left idle for {} ms will be rolled back on its next use", tracked.accessMode, idleMillis, tracked.creationStack);
+                continue;
+            }
+            LOGGER.warn("Rolling back {} transaction left idle for {} ms", tracked.accessMode, idleMillis, tracked.creationStack);
+            rollBackQuietly(entry.getKey());
+        }
+    }
+
+    private void rollBackQuietly(OpenTx transaction) {
+        try {
+            delegate.rollback(transaction);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Could not roll back idle transaction", e);
+        }
+    }
+
+    private boolean sampled() {
+        return stackSamplingRate > 0 && (stackSamplingRate >= 1 || ThreadLocalRandom.current().nextDouble() < stackSamplingRate);
+    }
+
+    private <T> Either<List<Fault>, T> idleRollback(OpenTx transaction) {
+        if (threadBound) {
+            rollBackQuietly(transaction);
+        }
+        return DefaultEither.left(Collections.singletonList(
+            new Fault(IDLE_ROLLBACK, "Transaction was rolled back after being left idle")));
+    }
+
+
+    private static final class Tracked {
+        private final AccessMode accessMode;
+        private final Throwable creationStack;
+        private final long openedAt = System.nanoTime();
+        private long lastUsed = openedAt;
+        private boolean inUse;
+
+        Tracked(AccessMode accessMode, Throwable creationStack) {
+            this.accessMode = accessMode;
+            this.creationStack = creationStack;
+        }
+
+        OpenTransaction snapshot() {
+            long now = System.nanoTime();
+            return new OpenTransaction(accessMode, now - openedAt, now - lastUsed, creationStack);
+        }
+    }
+
+    public static final class OpenTransaction {
+        private static final Comparator<OpenTransaction> OLDEST_FIRST = new Comparator<OpenTransaction>() {
+            @Override
+            public int compare(OpenTransaction first, OpenTransaction second) {
+                return Long.compare(second.ageNanos, first.ageNanos);
+            }
+        };
+
+        private final AccessMode accessMode;
+        private final long ageNanos;
+        private final long idleNanos;
+        private final Throwable creationStack;
+
+        OpenTransaction(AccessMode accessMode, long ageNanos, long idleNanos, Throwable creationStack) {
+            this.accessMode = accessMode;
+            this.ageNanos = ageNanos;
+            this.idleNanos = idleNanos;
+            this.creationStack = creationStack;
+        }
+
+        public AccessMode getAccessMode() {
+            return accessMode;
+        }
+
+        public long getAge(TimeUnit unit) {
+            return unit.convert(ageNanos, NANOSECONDS);
+        }
+
+        public long getIdleTime(TimeUnit unit) {
+            return unit.convert(idleNanos, NANOSECONDS);
+        }
+
+        /**
+         * @return where the transaction was opened, or null if its stack was not sampled
+         */
+        public Throwable getCreationStack() {
+            return creationStack;
+        }
+
+        @Override
+        public String toString() {
+            return "OpenTransaction{" +
+                "accessMode=" + accessMode +
+                ", ageMillis=" + NANOSECONDS.toMillis(ageNanos) +
+                ", idleMillis=" + NANOSECONDS.toMillis(idleNanos) +
+                '}';
+        }
+    }
+
+    private static final class Reaper {
+        private static final ScheduledThreadPoolExecutor INSTANCE = create();
+
+        private static ScheduledThreadPoolExecutor create() {
+            ScheduledThreadPoolExecutor result = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "trinity-transaction-reaper");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            result.setRemoveOnCancelPolicy(true);
+            return result;
+        }
+    }
+}
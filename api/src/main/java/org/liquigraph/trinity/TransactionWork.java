@@ -0,0 +1,27 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.liquigraph.trinity;
+
+import java.util.List;
+
+/**
+ * Unit of work run by {@link RetryingTransactionRunner}.
+ * It may be run several times and must therefore only have side effects through the given client.
+ */
+public interface TransactionWork<OpenTx extends OngoingTransaction, T> {
+
+    Either<List<Fault>, T> execute(CypherClient<OpenTx> client);
+}
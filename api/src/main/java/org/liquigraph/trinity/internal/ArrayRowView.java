@@ -0,0 +1,39 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.liquigraph.trinity.internal;
+
+import org.liquigraph.trinity.ColumnIndex;
+
+public final class ArrayRowView extends BoxedRowView {
+
+    private final ColumnIndex columns;
+    private final Object[] values;
+
+    public ArrayRowView(ColumnIndex columns) {
+        this.columns = columns;
+        this.values = new Object[columns.size()];
+    }
+
+    public Object[] values() {
+        return values;
+    }
+
+    @Override
+    public Object get(String name) {
+        int index = columns.indexOf(name);
+        return index < 0 ? null : values[index];
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.liquigraph.trinity.internal;
+
+import org.liquigraph.trinity.RowView;
+
+/**
+ * Derives the typed accessors of a {@link RowView} from its boxed values.
+ */
+public abstract class BoxedRowView implements RowView {
+
+    @Override
+    public long getLong(String name) {
+        return ((Number) nonNull(name)).longValue();
+    }
+
+    @Override
+    public double getDouble(String name) {
+        return ((Number) nonNull(name)).doubleValue();
+    }
+
+    @Override
+    public boolean getBoolean(String name) {
+        return (Boolean) nonNull(name);
+    }
+
+    @Override
+    public String getString(String name) {
+        return (String) get(name);
+    }
+
+    private Object nonNull(String name) {
+        Object value = get(name);
+        if (value == null) {
+            throw new IllegalStateException(String.format("Column %s is null or missing", name));
+        }
+        return value;
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.liquigraph.trinity.internal;
+
+import org.liquigraph.trinity.Cursor;
+import org.liquigraph.trinity.DefaultEither;
+import org.liquigraph.trinity.Either;
+import org.liquigraph.trinity.Fault;
+import org.liquigraph.trinity.Row;
+import org.liquigraph.trinity.RowMapper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+public final class Cursors {
+
+    private Cursors() {
+        throw new UnsupportedOperationException("Static class");
+    }
+
+    public static <T> Either<List<Fault>, List<T>> mapAll(Either<List<Fault>, Cursor> cursorResult, RowMapper<T> mapper) {
+        if (cursorResult.isLeft()) {
+            return DefaultEither.left(cursorResult.getLeft());
+        }
+        Cursor cursor = cursorResult.getRight();
+        List<T> result = new ArrayList<>();
+        try {
+            while (cursor.hasNext()) {
+                result.add(cursor.next(mapper));
+            }
+        } catch (RuntimeException e) {
+            cursor.abort();
+            if (cursor.getFaults().isEmpty()) {
+                throw e;
+            }
+        }
+        cursor.close();
+        if (!cursor.getFaults().isEmpty()) {
+            return DefaultEither.left(cursor.getFaults());
+        }
+        return DefaultEither.right(result);
+    }
+
+    /**
+     * Keeps the watchdog running until the cursor is closed and reports its timeout fault if it terminated the cursor.
+     */
+    public static Cursor watched(Cursor cursor, Watchdog watchdog) {
+        return new WatchedCursor(cursor, watchdog);
+    }
+
+    private static final class WatchedCursor implements Cursor {
+        private final Cursor delegate;
+        private final Watchdog watchdog;
+        private boolean terminated;
+
+        WatchedCursor(Cursor delegate, Watchdog watchdog) {
+            this.delegate = delegate;
+            this.watchdog = watchdog;
+        }
+
+        @Override
+        public List<String> getColumns() {
+            return delegate.getColumns();
+        }
+
+        @Override
+        public List<Fault> getFaults() {
+            List<Fault> faults = delegate.getFaults();
+            if (watchdog.hasExpired() && (terminated || !faults.isEmpty())) {
+                return Collections.singletonList(watchdog.fault());
+            }
+            return faults;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (terminated) {
+                return false;
+            }
+            try {
+                return delegate.hasNext();
+            } catch (RuntimeException e) {
+                terminated(e);
+                return false;
+            }
+        }
+
+        @Override
+        public Row next() {
+            try {
+                return delegate.next();
+            } catch (RuntimeException e) {
+                terminated(e);
+                throw new NoSuchElementException(watchdog.fault().getMessage());
+            }
+        }
+
+        @Override
+        public <T> T next(RowMapper<T> mapper) {
+            try {
+                return delegate.next(mapper);
+            } catch (RuntimeException e) {
+                terminated(e);
+                throw new NoSuchElementException(watchdog.fault().getMessage());
+            }
+        }
+
+        @Override
+        public void remove() {
+            delegate.remove();
+        }
+
+        @Override
+        public void close() {
+            try {
+                delegate.close();
+            } catch (RuntimeException e) {
+                terminated(e);
+            } finally {
+                watchdog.stop();
+            }
+        }
+
+        @Override
+        public void abort() {
+            try {
+                delegate.abort();
+            } catch (RuntimeException e) {
+                terminated(e);
+            } finally {
+                watchdog.stop();
+            }
+        }
+
+        private void terminated(RuntimeException e) {
+            if (!watchdog.hasExpired()) {
+                throw e;
+            }
+            terminated = true;
+        }
+    }
+}
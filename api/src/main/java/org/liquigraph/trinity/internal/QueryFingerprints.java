@@ -0,0 +1,73 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.liquigraph.trinity.internal;
+
+import org.liquigraph.trinity.Statement;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+
+public final class QueryFingerprints {
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^'\\\\]|\\\\.)*'|\"(?:[^\"\\\\]|\\\\.)*\"");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\p{L}\\p{N}_])-?\\d+(?:\\.\\d+)?(?:[eE][+-]?\\d+)?");
+    private static final Pattern WHITESPACES = Pattern.compile("\\s+");
+    private static final int MAX_CACHED_QUERIES = 1024;
+    private static final ConcurrentMap<String, String> CACHE = new ConcurrentHashMap<>();
+
+    private QueryFingerprints() {
+        throw new UnsupportedOperationException("Static class");
+    }
+
+    /**
+     * Identifies the shape of the given statements: literals are replaced by <code>?</code>, whitespaces are
+     * collapsed and parameter values are left out.
+     */
+    public static String fingerprint(List<Statement> statements) {
+        StringBuilder result = new StringBuilder();
+        for (Statement statement : statements) {
+            if (result.length() > 0) {
+                result.append("; ");
+            }
+            result.append(fingerprint(statement.getQuery()));
+        }
+        return result.toString();
+    }
+
+    /**
+     * Parameterized queries keep the same text across executions, their fingerprint is therefore computed once.
+     * Once {@value #MAX_CACHED_QUERIES} queries are cached, other queries, e.g. with inlined literals, are not.
+     */
+    public static String fingerprint(String query) {
+        String cached = CACHE.get(query);
+        if (cached != null) {
+            return cached;
+        }
+        String result = computeFingerprint(query);
+        if (CACHE.size() < MAX_CACHED_QUERIES) {
+            CACHE.putIfAbsent(query, result);
+        }
+        return result;
+    }
+
+    private static String computeFingerprint(String query) {
+        String result = STRING_LITERAL.matcher(query).replaceAll("?");
+        result = NUMBER_LITERAL.matcher(result).replaceAll("?");
+        return WHITESPACES.matcher(result).replaceAll(" ").trim();
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.liquigraph.trinity.internal;
+
+import org.liquigraph.trinity.Data;
+import org.liquigraph.trinity.Row;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public final class Results {
+
+    private Results() {
+        throw new UnsupportedOperationException("Static class");
+    }
+
+    /**
+     * Copies results into unmodifiable, exactly sized lists so that they can be safely shared between callers.
+     */
+    public static List<Data> immutable(List<Data> data) {
+        Data[] result = new Data[data.size()];
+        for (int i = 0; i < result.length; i++) {
+            Data current = data.get(i);
+            List<Row> rows = Arrays.asList(current.getRows().toArray(new Row[0]));
+            result[i] = new Data(
+                Collections.unmodifiableList(current.getColumns()),
+                Collections.unmodifiableList(rows),
+                current.getSummary()
+            );
+        }
+        return Collections.unmodifiableList(Arrays.asList(result));
+    }
+}
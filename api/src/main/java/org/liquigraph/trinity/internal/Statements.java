@@ -0,0 +1,50 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.liquigraph.trinity.internal;
+
+import org.liquigraph.trinity.Statement;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class Statements {
+
+    private Statements() {
+        throw new UnsupportedOperationException("Static class");
+    }
+
+    public static List<Statement> statements(List<String> queries) {
+        List<Statement> result = new ArrayList<>(queries.size());
+        for (String query : queries) {
+            result.add(new Statement(query));
+        }
+        return result;
+    }
+
+    /**
+     * Batches run under a single watchdog, bounded by the sum of the timeouts of their timed statements.
+     * Untimed statements do not extend that bound: they share it with the timed statements of the same batch.
+     *
+     * @return the sum of the statement timeouts, or 0 if none of the statements is timed
+     */
+    public static long timeoutMillis(List<Statement> statements) {
+        long result = 0;
+        for (Statement statement : statements) {
+            result += statement.getTimeoutMillis();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.liquigraph.trinity.internal;
+
+import org.liquigraph.trinity.Fault;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Terminates some work once its timeout elapses, unless stopped before.
+ * Terminations run on a single shared daemon thread, they must therefore be short and not block.
+ */
+public final class Watchdog {
+    private static final Logger LOGGER = LoggerFactory.getLogger(Watchdog.class);
+    private static final Watchdog DISABLED = new Watchdog(0, null, new AtomicBoolean());
+
+    private final long timeoutMillis;
+    private final ScheduledFuture<?> termination;
+    private final AtomicBoolean expired;
+
+    private Watchdog(long timeoutMillis, ScheduledFuture<?> termination, AtomicBoolean expired) {
+        this.timeoutMillis = timeoutMillis;
+        this.termination = termination;
+        this.expired = expired;
+    }
+
+    /**
+     * @param timeoutMillis the timeout, 0 disables the watchdog
+     */
+    public static Watchdog start(long timeoutMillis, final Runnable termination) {
+        if (timeoutMillis <= 0) {
+            return DISABLED;
+        }
+        final AtomicBoolean expired = new AtomicBoolean();
+        ScheduledFuture<?> scheduledTermination = Scheduler.INSTANCE.schedule(new Runnable() {
+            @Override
+            public void run() {
+                expired.set(true);
+                try {
+                    termination.run();
+                } catch (RuntimeException e) {
+                    LOGGER.warn("Could not terminate timed out execution", e);
+                }
+            }
+        }, timeoutMillis, MILLISECONDS);
+        return new Watchdog(timeoutMillis, scheduledTermination, expired);
+    }
+
+    public static Watchdog disabled() {
+        return DISABLED;
+    }
+
+    /**
+     * @return the shortest of the given timeouts, ignoring the disabled ones, or 0 if all of them are disabled
+     */
+    public static long shortest(long timeoutMillis, long otherTimeoutMillis) {
+        if (timeoutMillis <= 0) {
+            return Math.max(otherTimeoutMillis, 0);
+        }
+        if (otherTimeoutMillis <= 0) {
+            return timeoutMillis;
+        }
+        return Math.min(timeoutMillis, otherTimeoutMillis);
+    }
+
+    public boolean hasExpired() {
+        return expired.get();
+    }
+
+    /**
+     * @return true if the termination already ran or is running
+     */
+    public boolean stop() {
+        if (termination == null) {
+            return false;
+        }
+        return !termination.cancel(false) && !termination.isCancelled();
+    }
+
+    public Fault fault() {
+        return Fault.timeout(timeoutMillis);
+    }
+
+    private static final class Scheduler {
+        private static final ScheduledThreadPoolExecutor INSTANCE = create();
+
+        private static ScheduledThreadPoolExecutor create() {
+            ScheduledThreadPoolExecutor result = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "trinity-watchdog");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            result.setRemoveOnCancelPolicy(true);
+            return result;
+        }
+    }
+}
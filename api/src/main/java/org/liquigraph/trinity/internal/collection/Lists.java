@@ -22,8 +22,9 @@ import java.util.List;
 
 public final class Lists {
 
-    public static final List<String> prepend(String head, String... tail) {
-        List<String> result = new ArrayList<>(1 + tail.length);
+    @SafeVarargs
+    public static final <T> List<T> prepend(T head, T... tail) {
+        List<T> result = new ArrayList<>(1 + tail.length);
         result.add(head);
         result.addAll(asList(tail));
         return result;
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.liquigraph.trinity.internal.collection;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Map comparing keys by identity and holding them weakly, so that entries of keys no longer used anywhere else
+ * are dropped. Not thread-safe.
+ */
+public final class WeakIdentityMap<K, V> {
+
+    private final Map<IdentityReference<K>, V> entries = new HashMap<>();
+    private final ReferenceQueue<K> collectedKeys = new ReferenceQueue<>();
+
+    public V get(K key) {
+        expungeCollectedKeys();
+        return entries.get(new IdentityReference<>(key, null));
+    }
+
+    public V put(K key, V value) {
+        expungeCollectedKeys();
+        return entries.put(new IdentityReference<>(key, collectedKeys), value);
+    }
+
+    public V remove(K key) {
+        expungeCollectedKeys();
+        return entries.remove(new IdentityReference<>(key, null));
+    }
+
+    public int size() {
+        expungeCollectedKeys();
+        return entries.size();
+    }
+
+    private void expungeCollectedKeys() {
+        Reference<? extends K> collected;
+        while ((collected = collectedKeys.poll()) != null) {
+            entries.remove(collected);
+        }
+    }
+
+    private static final class IdentityReference<K> extends WeakReference<K> {
+        private final int hashCode;
+
+        IdentityReference(K referent, ReferenceQueue<K> queue) {
+            super(referent, queue);
+            this.hashCode = System.identityHashCode(referent);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            Object referent = get();
+            return referent != null && referent == ((IdentityReference<?>) obj).get();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.liquigraph.trinity;
+
+import org.junit.Test;
+import org.liquigraph.trinity.StubCypherClient.StubTransaction;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.liquigraph.trinity.Assertions.assertThat;
+
+public class BulkWriterTest {
+
+    private static final String BATCH_QUERY = "UNWIND {batch} AS row CREATE (:Crew {name: row.name})";
+
+    @Test
+    public void writes_rows_in_batched_transactions() {
+        StubCypherClient delegate = new StubCypherClient();
+        BulkWriter<StubTransaction> subject = new BulkWriter<>(delegate, 2, 2);
+
+        Either<List<Fault>, Long> result = subject.write("CREATE (:Crew {name: row.name})", rows(5));
+
+        assertThat(result).isRight();
+        assertThat(result.getRight()).isEqualTo(5L);
+        assertThat(delegate.getCalls()).containsExactly(
+            "open WRITE [" + BATCH_QUERY + "]",
+            "commit 1 [" + BATCH_QUERY + "]",
+            "run WRITE [" + BATCH_QUERY + "]");
+    }
+
+    @Test
+    public void rolls_back_the_transaction_of_a_failed_batch() {
+        final Fault fault = new Fault("Neo.ClientError.Schema.ConstraintValidationFailed", "Node already exists");
+        StubCypherClient delegate = new StubCypherClient() {
+            @Override
+            public Either<List<Fault>, StubTransaction> execute(StubTransaction transaction, Statement statement, Statement... statements) {
+                super.execute(transaction, statement, statements);
+                return DefaultEither.left(Collections.singletonList(fault));
+            }
+        };
+        BulkWriter<StubTransaction> subject = new BulkWriter<>(delegate, 1, 3);
+
+        Either<List<Fault>, Long> result = subject.write("CREATE (:Crew {name: row.name})", rows(3));
+
+        assertThat(result).isLeft();
+        assertThat(result.getLeft()).containsExactly(fault);
+        assertThat(delegate.getCalls()).containsExactly(
+            "open WRITE [" + BATCH_QUERY + "]",
+            "execute 1 [" + BATCH_QUERY + "]",
+            "rollback 1");
+    }
+
+    private static Iterator<Map<String, Object>> rows(int count) {
+        List<Map<String, Object>> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(Collections.<String, Object>singletonMap("name", "crew-" + i));
+        }
+        return rows.iterator();
+    }
+}
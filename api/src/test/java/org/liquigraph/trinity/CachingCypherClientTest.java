@@ -0,0 +1,137 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.liquigraph.trinity;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.liquigraph.trinity.StubCypherClient.StubTransaction;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.liquigraph.trinity.Assertions.assertThat;
+
+public class CachingCypherClientTest {
+
+    private static final Statement CREW_COUNT = new Statement("MATCH (n:Crew) RETURN count(n) AS count");
+    private static final Statement SHIP_COUNT = new Statement("MATCH (n:Ship) RETURN count(n) AS count");
+
+    private StubCypherClient delegate;
+    private CachingCypherClient<StubTransaction> subject;
+
+    @Before
+    public void prepare() {
+        delegate = new StubCypherClient()
+            .respond(CREW_COUNT.getQuery(), new Data("count", new Row("count", 0L)))
+            .respond(SHIP_COUNT.getQuery(), new Data("count", new Row("count", 1L)));
+        subject = new CachingCypherClient<>(delegate, 10, 1, TimeUnit.MINUTES, true);
+    }
+
+    @Test
+    public void serves_repeated_reads_from_cache() {
+        assertThat(subject.runSingleTransaction(AccessMode.READ, CREW_COUNT)).isRight();
+
+        Either<List<Fault>, List<Data>> result = subject.runSingleTransaction(AccessMode.READ, CREW_COUNT);
+
+        assertThat(result).isRight();
+        assertThat(result.getRight()).containsExactly(new Data("count", new Row("count", 0L)));
+        assertThat(subject.size()).isEqualTo(1);
+        assertThat(delegate.getCalls()).containsExactly("run READ [MATCH (n:Crew) RETURN count(n) AS count]");
+    }
+
+    @Test
+    public void serves_repeated_timed_reads_from_cache() {
+        Statement timedCount = CREW_COUNT.withTimeout(1, TimeUnit.SECONDS);
+        assertThat(subject.runSingleTransaction(AccessMode.READ, timedCount)).isRight();
+
+        Either<List<Fault>, List<Data>> result = subject.runSingleTransaction(AccessMode.READ, timedCount);
+
+        assertThat(result).isRight();
+        assertThat(result.getRight()).containsExactly(new Data("count", new Row("count", 0L)));
+        assertThat(delegate.getCalls()).containsExactly("run READ [MATCH (n:Crew) RETURN count(n) AS count]");
+    }
+
+    @Test
+    public void invalidates_cached_reads_sharing_labels_with_committed_writes() {
+        assertThat(subject.runSingleTransaction(AccessMode.READ, CREW_COUNT)).isRight();
+        assertThat(subject.runSingleTransaction(AccessMode.READ, SHIP_COUNT)).isRight();
+
+        Either<List<Fault>, StubTransaction> transaction = subject.openTransaction("CREATE (:Crew)");
+        assertThat(subject.commit(transaction.getRight())).isRight();
+
+        assertThat(subject.size()).isEqualTo(1);
+        assertThat(subject.runSingleTransaction(AccessMode.READ, CREW_COUNT)).isRight();
+        assertThat(subject.runSingleTransaction(AccessMode.READ, SHIP_COUNT)).isRight();
+        assertThat(delegate.getCalls()).containsExactly(
+            "run READ [MATCH (n:Crew) RETURN count(n) AS count]",
+            "run READ [MATCH (n:Ship) RETURN count(n) AS count]",
+            "open WRITE [CREATE (:Crew)]",
+            "commit 1 []",
+            "run READ [MATCH (n:Crew) RETURN count(n) AS count]"
+        );
+    }
+
+    @Test
+    public void keeps_cached_reads_on_committed_writes_without_label_invalidation() {
+        CachingCypherClient<StubTransaction> client = new CachingCypherClient<>(delegate, 10, 1, TimeUnit.MINUTES, false);
+        assertThat(client.runSingleTransaction(AccessMode.READ, CREW_COUNT)).isRight();
+
+        Either<List<Fault>, StubTransaction> transaction = client.openTransaction("CREATE (:Crew)");
+        assertThat(client.execute(transaction.getRight(), "CREATE (n)")).isRight();
+        assertThat(client.commit(transaction.getRight())).isRight();
+
+        assertThat(client.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void invalidates_writes_of_failed_executions_conservatively() {
+        delegate.fail("Not a valid query", new Fault("Neo.ClientError.Statement.SyntaxError", "Invalid input"));
+        assertThat(subject.runSingleTransaction(AccessMode.READ, SHIP_COUNT)).isRight();
+        Either<List<Fault>, StubTransaction> transaction = subject.openTransaction("CREATE (:Crew)");
+
+        assertThat(subject.execute(transaction.getRight(), "Not a valid query")).isLeft();
+        assertThat(subject.commit(transaction.getRight())).isRight();
+
+        assertThat(subject.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void invalidates_everything_on_writes_through_unlabelled_nodes() {
+        assertThat(subject.runSingleTransaction(AccessMode.READ, CREW_COUNT)).isRight();
+
+        assertThat(subject.runSingleTransaction("MATCH (p:Person)-[:OWNS]->(x) DETACH DELETE x")).isRight();
+
+        assertThat(subject.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void invalidates_everything_on_writes_through_untyped_relationships() {
+        assertThat(subject.runSingleTransaction(AccessMode.READ, CREW_COUNT)).isRight();
+
+        assertThat(subject.runSingleTransaction("MATCH (:Person)-[r]->(:Ship) DELETE r")).isRight();
+
+        assertThat(subject.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void ignores_map_keys_and_string_literals_when_detecting_labels() {
+        assertThat(subject.runSingleTransaction(AccessMode.READ, CREW_COUNT)).isRight();
+
+        assertThat(subject.runSingleTransaction("WITH 'Neo' AS Crew CREATE (:Ship {captain: Crew, motto: 'all hands:Crew'})")).isRight();
+
+        assertThat(subject.size()).isEqualTo(1);
+    }
+}
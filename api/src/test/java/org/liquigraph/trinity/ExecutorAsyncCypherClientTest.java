@@ -0,0 +1,127 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.liquigraph.trinity;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.liquigraph.trinity.StubCypherClient.StubTransaction;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.liquigraph.trinity.Assertions.assertThat;
+
+public class ExecutorAsyncCypherClientTest {
+
+    private StubCypherClient delegate;
+    private ExecutorService executor;
+
+    @Before
+    public void prepare() {
+        delegate = new StubCypherClient().respond("RETURN 1 AS item", new Data("item", new Row("item", 1L)));
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void cleanUp() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void runs_single_transactions_on_the_executor() throws InterruptedException {
+        ExecutorAsyncCypherClient<StubTransaction> subject = new ExecutorAsyncCypherClient<>(delegate, executor);
+        Callback<List<Data>> callback = new Callback<>();
+
+        subject.runSingleTransaction(Collections.singletonList(new Statement("RETURN 1 AS item")), callback);
+
+        Either<List<Fault>, List<Data>> result = callback.await();
+        assertThat(result).isRight();
+        assertThat(result.getRight()).containsExactly(new Data("item", new Row("item", 1L)));
+        assertThat(callback.thread).isNotSameAs(Thread.currentThread());
+    }
+
+    @Test
+    public void reports_empty_batches_through_the_callback() throws InterruptedException {
+        ExecutorAsyncCypherClient<StubTransaction> subject = new ExecutorAsyncCypherClient<>(delegate, executor);
+        Callback<List<Data>> callback = new Callback<>();
+
+        subject.runSingleTransaction(Collections.<Statement>emptyList(), callback);
+
+        Either<List<Fault>, List<Data>> result = callback.await();
+        assertThat(result).isRight();
+        assertThat(result.getRight()).isEmpty();
+        assertThat(delegate.getCalls()).isEmpty();
+    }
+
+    @Test
+    public void runs_open_transaction_steps_on_the_executor() throws InterruptedException {
+        ExecutorAsyncCypherClient<StubTransaction> subject = new ExecutorAsyncCypherClient<>(delegate, executor);
+        Callback<StubTransaction> opened = new Callback<>();
+        subject.openTransaction(Collections.singletonList(new Statement("CREATE (:Crew)")), opened);
+        StubTransaction transaction = opened.await().getRight();
+        Callback<ClosedTransaction> committed = new Callback<>();
+
+        subject.commit(transaction, Collections.singletonList(new Statement("RETURN 1 AS item")), committed);
+
+        Either<List<Fault>, ClosedTransaction> result = committed.await();
+        assertThat(result).isRight();
+        assertThat(result.getRight().getData()).containsExactly(new Data("item", new Row("item", 1L)));
+        assertThat(committed.thread).isSameAs(opened.thread);
+        assertThat(delegate.getCalls()).containsExactly("open WRITE [CREATE (:Crew)]", "commit 1 [RETURN 1 AS item]");
+    }
+
+    @Test
+    public void reports_unexpected_exceptions_as_faults() throws InterruptedException {
+        StubCypherClient failingDelegate = new StubCypherClient() {
+            @Override
+            public Either<List<Fault>, ClosedTransaction> rollback(StubTransaction transaction) {
+                throw new IllegalStateException("Transaction is already closed");
+            }
+        };
+        ExecutorAsyncCypherClient<StubTransaction> subject = new ExecutorAsyncCypherClient<>(failingDelegate, executor);
+        StubTransaction transaction = failingDelegate.openTransaction("CREATE (:Crew)").getRight();
+        Callback<ClosedTransaction> callback = new Callback<>();
+
+        subject.rollback(transaction, callback);
+
+        Either<List<Fault>, ClosedTransaction> result = callback.await();
+        assertThat(result).isLeft();
+        assertThat(result.getLeft()).containsExactly(
+            new Fault("AsyncCypherClient.Error.IllegalStateException", "Transaction is already closed"));
+    }
+
+    private static class Callback<T> implements ResultCallback<T> {
+        private final LinkedBlockingQueue<Either<List<Fault>, T>> results = new LinkedBlockingQueue<>();
+        private volatile Thread thread;
+
+        @Override
+        public void onResult(Either<List<Fault>, T> result) {
+            thread = Thread.currentThread();
+            results.add(result);
+        }
+
+        Either<List<Fault>, T> await() throws InterruptedException {
+            Either<List<Fault>, T> result = results.poll(5, TimeUnit.SECONDS);
+            assertThat(result).overridingErrorMessage("Callback was not called").isNotNull();
+            return result;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.liquigraph.trinity;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LatencyHistogramListenerTest {
+
+    @Test
+    public void records_latencies_per_query_shape() {
+        LatencyHistogramListener listener = new LatencyHistogramListener();
+
+        listener.queryCompleted(statements("MATCH (n) WHERE n.id = 1 RETURN n"), 1, TimeUnit.MILLISECONDS.toNanos(2));
+        listener.queryCompleted(statements("MATCH (n) WHERE n.id = 2 RETURN n"), 1, TimeUnit.MILLISECONDS.toNanos(4));
+
+        assertThat(listener.getHistograms()).containsOnlyKeys("MATCH (n) WHERE n.id = ? RETURN n");
+        assertThat(listener.getHistogram("MATCH (n) WHERE n.id = ? RETURN n").getTotalCount()).isEqualTo(2L);
+    }
+
+    @Test
+    public void records_latencies_of_shapes_beyond_the_maximum_together() {
+        LatencyHistogramListener listener = new LatencyHistogramListener(2);
+
+        listener.queryCompleted(statements("RETURN 1"), 1, 1_000L);
+        listener.queryCompleted(statements("RETURN 'a'"), 1, 1_000L);
+        listener.queryCompleted(statements("MATCH (n) RETURN n"), 1, 1_000L);
+        listener.queryCompleted(statements("MATCH (n)-->(m) RETURN m"), 1, 1_000L);
+        listener.queryCompleted(statements("MATCH (n)<--(m) RETURN m"), 1, 1_000L);
+        listener.queryCompleted(statements("RETURN 2"), 1, 1_000L);
+
+        assertThat(listener.getHistograms())
+            .containsOnlyKeys("RETURN ?", "MATCH (n) RETURN n", LatencyHistogramListener.OTHER_FINGERPRINTS);
+        assertThat(listener.getHistogram("RETURN ?").getTotalCount()).isEqualTo(3L);
+        assertThat(listener.getHistogram(LatencyHistogramListener.OTHER_FINGERPRINTS).getTotalCount()).isEqualTo(2L);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejects_non_positive_maximum() {
+        new LatencyHistogramListener(0);
+    }
+
+    private static List<Statement> statements(String query) {
+        return Collections.singletonList(new Statement(query));
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.liquigraph.trinity;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void reports_percentiles_within_two_percent() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100_000; i++) {
+            histogram.record(i);
+        }
+
+        assertThat(histogram.getTotalCount()).isEqualTo(100_000L);
+        assertThat(histogram.getMaxValue()).isEqualTo(100_000L);
+        assertThat(histogram.getValueAtPercentile(50)).isCloseTo(50_000L, within(1_000L));
+        assertThat(histogram.getValueAtPercentile(99)).isCloseTo(99_000L, within(1_980L));
+        assertThat(histogram.getValueAtPercentile(99.9)).isCloseTo(99_900L, within(1_998L));
+        assertThat(histogram.getValueAtPercentile(100)).isEqualTo(100_000L);
+    }
+
+    @Test
+    public void records_small_values_exactly() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(3);
+        histogram.record(7);
+
+        assertThat(histogram.getValueAtPercentile(50)).isEqualTo(3L);
+        assertThat(histogram.getValueAtPercentile(100)).isEqualTo(7L);
+    }
+
+    @Test
+    public void maps_every_bucket_back_to_its_values() {
+        for (long value : new long[]{0, 127, 128, 255, 256, 511, 512, 1_000_003, LatencyHistogram.HIGHEST_TRACKABLE_VALUE}) {
+            long highest = LatencyHistogram.highestEquivalentValue(LatencyHistogram.indexOf(value));
+            assertThat(highest).isGreaterThanOrEqualTo(value);
+            assertThat(LatencyHistogram.indexOf(highest)).isEqualTo(LatencyHistogram.indexOf(value));
+        }
+    }
+
+    @Test
+    public void keeps_bucket_error_under_two_percent() {
+        for (long value = 128; value < LatencyHistogram.HIGHEST_TRACKABLE_VALUE; value = value * 3 / 2 + 1) {
+            long highest = LatencyHistogram.highestEquivalentValue(LatencyHistogram.indexOf(value));
+            assertThat((double) (highest - value) / value).isLessThan(0.02);
+        }
+    }
+
+    @Test
+    public void clamps_out_of_range_values() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(Long.MAX_VALUE);
+        histogram.record(-5);
+
+        assertThat(histogram.getMaxValue()).isEqualTo(LatencyHistogram.HIGHEST_TRACKABLE_VALUE);
+        assertThat(histogram.getValueAtPercentile(50)).isEqualTo(0L);
+    }
+}
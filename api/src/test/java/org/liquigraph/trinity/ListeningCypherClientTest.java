@@ -0,0 +1,78 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.liquigraph.trinity;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.liquigraph.trinity.StubCypherClient.StubTransaction;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.liquigraph.trinity.Assertions.assertThat;
+
+public class ListeningCypherClientTest {
+
+    private StubCypherClient delegate;
+    private RecordingListener listener;
+    private ListeningCypherClient<StubTransaction> subject;
+
+    @Before
+    public void prepare() {
+        delegate = new StubCypherClient();
+        listener = new RecordingListener();
+        subject = new ListeningCypherClient<>(delegate, listener);
+    }
+
+    @Test
+    public void reports_transaction_lifetimes() {
+        Either<List<Fault>, StubTransaction> transaction = subject.openTransaction("CREATE (:Crew)");
+        Either<List<Fault>, StubTransaction> execution = subject.execute(transaction.getRight(), "CREATE (:Ship)");
+
+        assertThat(subject.commit(execution.getRight())).isRight();
+        assertThat(listener.committedLifetimes).hasSize(1);
+        assertThat(listener.committedLifetimes.get(0)).isGreaterThanOrEqualTo(0L);
+    }
+
+    @Test
+    public void reports_failed_executions_as_rollbacks_and_forgets_their_transaction() {
+        delegate.fail("Not a valid query", new Fault("Neo.ClientError.Statement.SyntaxError", "Invalid input"));
+        Either<List<Fault>, StubTransaction> transaction = subject.openTransaction("CREATE (:Crew)");
+
+        assertThat(subject.execute(transaction.getRight(), "Not a valid query")).isLeft();
+        assertThat(subject.rollback(transaction.getRight())).isRight();
+
+        assertThat(listener.rolledBackLifetimes).hasSize(2);
+        assertThat(listener.rolledBackLifetimes.get(0)).isGreaterThanOrEqualTo(0L);
+        assertThat(listener.rolledBackLifetimes.get(1)).isEqualTo(-1L);
+    }
+
+    private static class RecordingListener extends ExecutionListenerAdapter {
+        private final List<Long> committedLifetimes = Collections.synchronizedList(new ArrayList<Long>());
+        private final List<Long> rolledBackLifetimes = Collections.synchronizedList(new ArrayList<Long>());
+
+        @Override
+        public void transactionCommitted(long elapsedNanos) {
+            committedLifetimes.add(elapsedNanos);
+        }
+
+        @Override
+        public void transactionRolledBack(long elapsedNanos) {
+            rolledBackLifetimes.add(elapsedNanos);
+        }
+    }
+}
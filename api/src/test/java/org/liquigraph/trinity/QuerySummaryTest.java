@@ -0,0 +1,68 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.liquigraph.trinity;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class QuerySummaryTest {
+
+    @Test
+    public void exposes_built_counters_and_timings() {
+        QuerySummary summary = new QuerySummary.Builder()
+            .nodesCreated(2).nodesDeleted(3)
+            .relationshipsCreated(1).relationshipsDeleted(4)
+            .propertiesSet(5)
+            .labelsAdded(6).labelsRemoved(7)
+            .indexesAdded(8).indexesRemoved(9)
+            .constraintsAdded(10).constraintsRemoved(11)
+            .resultAvailableAfter(12).resultConsumedAfter(13)
+            .build();
+
+        assertThat(summary.getNodesCreated()).isEqualTo(2);
+        assertThat(summary.getNodesDeleted()).isEqualTo(3);
+        assertThat(summary.getRelationshipsCreated()).isEqualTo(1);
+        assertThat(summary.getRelationshipsDeleted()).isEqualTo(4);
+        assertThat(summary.getPropertiesSet()).isEqualTo(5);
+        assertThat(summary.getLabelsAdded()).isEqualTo(6);
+        assertThat(summary.getLabelsRemoved()).isEqualTo(7);
+        assertThat(summary.getIndexesAdded()).isEqualTo(8);
+        assertThat(summary.getIndexesRemoved()).isEqualTo(9);
+        assertThat(summary.getConstraintsAdded()).isEqualTo(10);
+        assertThat(summary.getConstraintsRemoved()).isEqualTo(11);
+        assertThat(summary.getResultAvailableAfter()).isEqualTo(12L);
+        assertThat(summary.getResultConsumedAfter()).isEqualTo(13L);
+        assertThat(summary.containsUpdates()).isTrue();
+    }
+
+    @Test
+    public void defaults_to_no_updates_and_unknown_timings() {
+        QuerySummary summary = new QuerySummary.Builder().build();
+
+        assertThat(summary).isEqualTo(QuerySummary.EMPTY);
+        assertThat(summary.containsUpdates()).isFalse();
+        assertThat(summary.getResultAvailableAfter()).isEqualTo(QuerySummary.UNKNOWN_TIME);
+        assertThat(summary.getResultConsumedAfter()).isEqualTo(QuerySummary.UNKNOWN_TIME);
+    }
+
+    @Test
+    public void counts_schema_changes_as_updates() {
+        QuerySummary summary = new QuerySummary.Builder().indexesAdded(1).build();
+
+        assertThat(summary.containsUpdates()).isTrue();
+    }
+}
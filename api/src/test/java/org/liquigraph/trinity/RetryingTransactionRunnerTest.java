@@ -0,0 +1,93 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.liquigraph.trinity;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.liquigraph.trinity.Assertions.assertThat;
+
+public class RetryingTransactionRunnerTest {
+
+    private static final Fault DEADLOCK = new Fault("Neo.TransientError.Transaction.DeadlockDetected", "Deadlock");
+    private static final Fault SYNTAX_ERROR = new Fault("Neo.ClientError.Statement.SyntaxError", "Invalid input");
+
+    @Test
+    public void retries_transient_faults_until_success() {
+        RetryingTransactionRunner<OngoingTransaction> runner = new RetryingTransactionRunner<>(null, 1000, 1, 2.0, 0.2);
+        CountingWork work = new CountingWork(2, DEADLOCK);
+
+        Either<List<Fault>, Integer> result = runner.run(work);
+
+        assertThat(result).isRight();
+        assertThat(result.getRight()).isEqualTo(3);
+    }
+
+    @Test
+    public void does_not_retry_non_transient_faults() {
+        RetryingTransactionRunner<OngoingTransaction> runner = new RetryingTransactionRunner<>(null, 1000, 1, 2.0, 0.2);
+        CountingWork work = new CountingWork(2, SYNTAX_ERROR);
+
+        Either<List<Fault>, Integer> result = runner.run(work);
+
+        assertThat(result).isLeft();
+        assertThat(result.getLeft()).containsExactly(SYNTAX_ERROR);
+        assertThat(work.attempts).isEqualTo(1);
+    }
+
+    @Test
+    public void gives_up_after_max_retry_time() {
+        RetryingTransactionRunner<OngoingTransaction> runner = new RetryingTransactionRunner<>(null, 0, 1, 2.0, 0.0);
+        CountingWork work = new CountingWork(2, DEADLOCK);
+
+        Either<List<Fault>, Integer> result = runner.run(work);
+
+        assertThat(result).isLeft();
+        assertThat(result.getLeft()).containsExactly(DEADLOCK);
+        assertThat(work.attempts).isEqualTo(1);
+    }
+
+    @Test
+    public void only_considers_faults_transient_when_all_of_them_are() {
+        assertThat(RetryingTransactionRunner.isTransient(Collections.singletonList(DEADLOCK))).isTrue();
+        assertThat(RetryingTransactionRunner.isTransient(Arrays.asList(DEADLOCK, SYNTAX_ERROR))).isFalse();
+        assertThat(RetryingTransactionRunner.isTransient(Collections.singletonList(
+            new Fault("Neo.TransientError.Transaction.Terminated", "Terminated")))).isFalse();
+    }
+
+    private static class CountingWork implements TransactionWork<OngoingTransaction, Integer> {
+        private final int failures;
+        private final Fault fault;
+        private int attempts;
+
+        CountingWork(int failures, Fault fault) {
+            this.failures = failures;
+            this.fault = fault;
+        }
+
+        @Override
+        public Either<List<Fault>, Integer> execute(CypherClient<OngoingTransaction> client) {
+            attempts++;
+            if (attempts <= failures) {
+                return DefaultEither.left(Collections.singletonList(fault));
+            }
+            return DefaultEither.right(attempts);
+        }
+    }
+}
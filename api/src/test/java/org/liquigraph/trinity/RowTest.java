@@ -0,0 +1,120 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.liquigraph.trinity;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+public class RowTest {
+
+    @Test
+    public void looks_up_values_by_column_name() {
+        ColumnIndex columns = new ColumnIndex(Arrays.asList("name", "age"));
+
+        Row row = new Row(columns, new Object[]{"Trinity", 42L});
+
+        assertThat(row.get("name")).isEqualTo("Trinity");
+        assertThat(row.get("age")).isEqualTo(42L);
+        assertThat(row.get("unknown")).isNull();
+    }
+
+    @Test
+    public void keeps_columns_independent_of_the_given_list() {
+        List<String> names = new ArrayList<>(Arrays.asList("name", "age"));
+        ColumnIndex columns = new ColumnIndex(names);
+
+        names.set(0, "alias");
+
+        assertThat(columns.getColumns()).containsExactly("name", "age");
+        assertThat(columns.indexOf("name")).isEqualTo(0);
+    }
+
+    @Test
+    public void compares_rows_regardless_of_column_order() {
+        Row row = new Row(new ColumnIndex(Arrays.asList("name", "age")), new Object[]{"Trinity", 42L});
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("age", 42L);
+        values.put("name", "Trinity");
+        Row sameRow = new Row(values);
+
+        assertThat(row).isEqualTo(sameRow);
+        assertThat(row.hashCode()).isEqualTo(sameRow.hashCode());
+        assertThat(row).isNotEqualTo(new Row("name", "Trinity"));
+    }
+
+    @Test
+    public void exposes_values_as_map() {
+        Row row = new Row(new ColumnIndex(Arrays.asList("name", "age")), new Object[]{"Trinity", 42L});
+
+        assertThat(row.asMap()).containsExactly(
+            entry("name", (Object) "Trinity"),
+            entry("age", (Object) 42L)
+        );
+    }
+
+    @Test
+    public void reads_typed_values() {
+        Row row = new Row.Builder(new ColumnIndex(Arrays.asList("count", "average", "found", "name")))
+            .setLong(0, 3L)
+            .setDouble(1, 1.5)
+            .setBoolean(2, true)
+            .set(3, "Trinity")
+            .build();
+
+        assertThat(row.getLong("count")).isEqualTo(3L);
+        assertThat(row.getDouble("count")).isEqualTo(3.0);
+        assertThat(row.getDouble("average")).isEqualTo(1.5);
+        assertThat(row.getBoolean("found")).isTrue();
+        assertThat(row.getString("name")).isEqualTo("Trinity");
+        assertThat(row.get("count")).isEqualTo(3L);
+    }
+
+    @Test
+    public void compares_typed_and_untyped_values_alike() {
+        ColumnIndex columns = new ColumnIndex(Arrays.asList("count", "average"));
+
+        Row typed = new Row.Builder(columns).setLong(0, 3L).setDouble(1, 1.5).build();
+
+        assertThat(typed).isEqualTo(new Row(columns, new Object[]{3L, 1.5}));
+        assertThat(typed.hashCode()).isEqualTo(new Row(columns, new Object[]{3L, 1.5}).hashCode());
+    }
+
+    @Test
+    public void reads_boxed_numbers_through_typed_accessors() {
+        Row row = new Row(new ColumnIndex(Arrays.asList("count", "found")), new Object[]{3L, false});
+
+        assertThat(row.getLong("count")).isEqualTo(3L);
+        assertThat(row.getBoolean("found")).isFalse();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejects_typed_access_to_unknown_column() {
+        new Row("name", "Trinity").getLong("unknown");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejects_values_not_matching_columns() {
+        new Row(new ColumnIndex(Arrays.asList("name", "age")), new Object[]{"Trinity"});
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.liquigraph.trinity;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SlowQueryLogTest {
+
+    @Test
+    public void captures_fingerprints_of_queries_over_threshold() {
+        SlowQueryLog subject = new SlowQueryLog(10, MILLISECONDS, 1, 8);
+
+        subject.queryCompleted(statements("MATCH (n {name: 'fast'}) RETURN n"), 1, MILLISECONDS.toNanos(9));
+        subject.queryCompleted(statements("MATCH (n {name: 'slow'}) RETURN n"), 3, MILLISECONDS.toNanos(10));
+        subject.queryFailed(statements("MATCH (n) RETURN n LIMIT 5"), Collections.singletonList(new Fault("Neo.Error", "oops")), MILLISECONDS.toNanos(20));
+
+        List<SlowQueryLog.Entry> entries = subject.getEntries();
+        assertThat(entries).hasSize(2);
+        assertThat(entries.get(0).getFingerprint()).isEqualTo("MATCH (n {name: ?}) RETURN n");
+        assertThat(entries.get(0).getRows()).isEqualTo(3L);
+        assertThat(entries.get(0).getElapsed(MILLISECONDS)).isEqualTo(10L);
+        assertThat(entries.get(1).getFingerprint()).isEqualTo("MATCH (n) RETURN n LIMIT ?");
+        assertThat(entries.get(1).getRows()).isEqualTo(-1L);
+        assertThat(entries.get(1).getFaults()).containsExactly(new Fault("Neo.Error", "oops"));
+    }
+
+    @Test
+    public void keeps_only_most_recent_entries() {
+        SlowQueryLog subject = new SlowQueryLog(0, MILLISECONDS, 1, 2);
+
+        subject.queryCompleted(statements("RETURN 1 AS first"), 1, 0);
+        subject.queryCompleted(statements("RETURN 2 AS second"), 1, 0);
+        subject.queryCompleted(statements("RETURN 3 AS third"), 1, 0);
+
+        assertThat(subject.getCapturedCount()).isEqualTo(3L);
+        assertThat(subject.getEntries()).extracting("fingerprint").containsExactly("RETURN ? AS second", "RETURN ? AS third");
+    }
+
+    @Test
+    public void reads_settings_of_given_transport() {
+        Properties properties = new Properties();
+        properties.setProperty("cypher.bolt.slow-query.threshold-milliseconds", "5");
+        properties.setProperty("cypher.embeddedv3.slow-query.threshold-milliseconds", "50");
+        properties.setProperty("cypher.embeddedv3.slow-query.capacity", "1");
+
+        assertThat(SlowQueryLog.fromProperties(CypherTransport.HTTP, properties)).isNull();
+        SlowQueryLog bolt = SlowQueryLog.fromProperties(CypherTransport.BOLT, properties);
+        bolt.queryCompleted(statements("RETURN 1"), 1, MILLISECONDS.toNanos(5));
+        assertThat(bolt.getEntries()).hasSize(1);
+        SlowQueryLog embedded = SlowQueryLog.fromProperties(CypherTransport.EMBEDDED_3, properties);
+        embedded.queryCompleted(statements("RETURN 1"), 1, MILLISECONDS.toNanos(5));
+        assertThat(embedded.getEntries()).isEmpty();
+    }
+
+    private static List<Statement> statements(String query) {
+        return Collections.singletonList(new Statement(query));
+    }
+}
@@ -0,0 +1,280 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.liquigraph.trinity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.liquigraph.trinity.internal.Statements.statements;
+import static org.liquigraph.trinity.internal.collection.Lists.prepend;
+
+/**
+ * In-memory client for decorator tests.
+ * Each statement returns the data registered for its query, empty data by default, or fails with the registered fault.
+ * Calls are recorded in order, e.g. "open WRITE [CREATE (n)]" or "rollback 1".
+ */
+public class StubCypherClient implements CypherClient<StubCypherClient.StubTransaction> {
+
+    private static final Data NO_DATA = new Data(Collections.<String>emptyList(), Collections.<Row>emptyList());
+
+    private final Map<String, Data> results = new HashMap<>();
+    private final Map<String, Fault> faults = new HashMap<>();
+    private final List<String> calls = Collections.synchronizedList(new ArrayList<String>());
+    private final AtomicInteger transactionIds = new AtomicInteger();
+
+    public StubCypherClient respond(String query, Data data) {
+        results.put(query, data);
+        return this;
+    }
+
+    public StubCypherClient fail(String query, Fault fault) {
+        faults.put(query, fault);
+        return this;
+    }
+
+    public List<String> getCalls() {
+        synchronized (calls) {
+            return new ArrayList<>(calls);
+        }
+    }
+
+    @Override
+    public Either<List<Fault>, List<Data>> runSingleTransaction(String query, String... queries) {
+        return runSingleTransaction(AccessMode.WRITE, statements(prepend(query, queries)));
+    }
+
+    @Override
+    public Either<List<Fault>, List<Data>> runSingleTransaction(Statement statement, Statement... statements) {
+        return runSingleTransaction(AccessMode.WRITE, prepend(statement, statements));
+    }
+
+    @Override
+    public Either<List<Fault>, List<Data>> runSingleTransaction(AccessMode accessMode, Statement statement, Statement... statements) {
+        return runSingleTransaction(accessMode, prepend(statement, statements));
+    }
+
+    @Override
+    public <T> Either<List<Fault>, List<T>> runSingleTransaction(Statement statement, RowMapper<T> mapper) {
+        Either<List<Fault>, List<Data>> result = runSingleTransaction(AccessMode.WRITE, Collections.singletonList(statement));
+        if (result.isLeft()) {
+            return DefaultEither.left(result.getLeft());
+        }
+        List<T> rows = new ArrayList<>();
+        for (Row row : result.getRight().get(0).getRows()) {
+            rows.add(mapper.map(row));
+        }
+        return DefaultEither.right(rows);
+    }
+
+    @Override
+    public Either<List<Fault>, Cursor> streamSingleTransaction(Statement statement) {
+        return streamSingleTransaction(AccessMode.WRITE, statement);
+    }
+
+    @Override
+    public Either<List<Fault>, Cursor> streamSingleTransaction(AccessMode accessMode, Statement statement) {
+        List<Statement> statements = Collections.singletonList(statement);
+        calls.add(String.format("stream %s %s", accessMode, queries(statements)));
+        Either<List<Fault>, List<Data>> result = execute(statements);
+        if (result.isLeft()) {
+            return DefaultEither.left(result.getLeft());
+        }
+        return DefaultEither.<List<Fault>, Cursor>right(new StubCursor(result.getRight().get(0)));
+    }
+
+    @Override
+    public Either<List<Fault>, StubTransaction> openTransaction(String... queries) {
+        return openTransaction(AccessMode.WRITE, statements(Arrays.asList(queries)));
+    }
+
+    @Override
+    public Either<List<Fault>, StubTransaction> openTransaction(Statement statement, Statement... statements) {
+        return openTransaction(AccessMode.WRITE, prepend(statement, statements));
+    }
+
+    @Override
+    public Either<List<Fault>, StubTransaction> openTransaction(AccessMode accessMode, Statement... statements) {
+        return openTransaction(accessMode, Arrays.asList(statements));
+    }
+
+    @Override
+    public Either<List<Fault>, StubTransaction> execute(StubTransaction transaction, String... queries) {
+        return execute(transaction, statements(Arrays.asList(queries)));
+    }
+
+    @Override
+    public Either<List<Fault>, StubTransaction> execute(StubTransaction transaction, Statement statement, Statement... statements) {
+        return execute(transaction, prepend(statement, statements));
+    }
+
+    @Override
+    public Either<List<Fault>, ClosedTransaction> commit(StubTransaction transaction, String... queries) {
+        return commit(transaction, statements(Arrays.asList(queries)));
+    }
+
+    @Override
+    public Either<List<Fault>, ClosedTransaction> commit(StubTransaction transaction, Statement statement, Statement... statements) {
+        return commit(transaction, prepend(statement, statements));
+    }
+
+    @Override
+    public Either<List<Fault>, ClosedTransaction> rollback(StubTransaction transaction) {
+        calls.add(String.format("rollback %d", transaction.getId()));
+        return DefaultEither.right(ClosedTransaction.ROLLED_BACK);
+    }
+
+    private Either<List<Fault>, List<Data>> runSingleTransaction(AccessMode accessMode, List<Statement> statements) {
+        calls.add(String.format("run %s %s", accessMode, queries(statements)));
+        return execute(statements);
+    }
+
+    private Either<List<Fault>, StubTransaction> openTransaction(AccessMode accessMode, List<Statement> statements) {
+        int id = transactionIds.incrementAndGet();
+        calls.add(String.format("open %s %s", accessMode, queries(statements)));
+        Either<List<Fault>, List<Data>> result = execute(statements);
+        if (result.isLeft()) {
+            return DefaultEither.left(result.getLeft());
+        }
+        return DefaultEither.right(new StubTransaction(id, accessMode, result.getRight()));
+    }
+
+    private Either<List<Fault>, StubTransaction> execute(StubTransaction transaction, List<Statement> statements) {
+        calls.add(String.format("execute %d %s", transaction.getId(), queries(statements)));
+        Either<List<Fault>, List<Data>> result = execute(statements);
+        if (result.isLeft()) {
+            return DefaultEither.left(result.getLeft());
+        }
+        return DefaultEither.right(new StubTransaction(transaction.getId(), transaction.getAccessMode(), result.getRight()));
+    }
+
+    private Either<List<Fault>, ClosedTransaction> commit(StubTransaction transaction, List<Statement> statements) {
+        calls.add(String.format("commit %d %s", transaction.getId(), queries(statements)));
+        Either<List<Fault>, List<Data>> result = execute(statements);
+        if (result.isLeft()) {
+            return DefaultEither.left(result.getLeft());
+        }
+        return DefaultEither.right(new ClosedTransaction(result.getRight(), false));
+    }
+
+    private Either<List<Fault>, List<Data>> execute(List<Statement> statements) {
+        List<Fault> errors = new ArrayList<>();
+        List<Data> data = new ArrayList<>(statements.size());
+        for (Statement statement : statements) {
+            Fault fault = faults.get(statement.getQuery());
+            if (fault != null) {
+                errors.add(fault);
+            }
+            Data result = results.get(statement.getQuery());
+            data.add(result == null ? NO_DATA : result);
+        }
+        if (!errors.isEmpty()) {
+            return DefaultEither.left(errors);
+        }
+        return DefaultEither.right(data);
+    }
+
+    private static List<String> queries(List<Statement> statements) {
+        List<String> result = new ArrayList<>(statements.size());
+        for (Statement statement : statements) {
+            result.add(statement.getQuery());
+        }
+        return result;
+    }
+
+    public static final class StubTransaction implements OngoingTransaction {
+        private final int id;
+        private final AccessMode accessMode;
+        private final List<Data> data;
+
+        StubTransaction(int id, AccessMode accessMode, List<Data> data) {
+            this.id = id;
+            this.accessMode = accessMode;
+            this.data = data;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        @Override
+        public List<Data> getData() {
+            return data;
+        }
+
+        @Override
+        public AccessMode getAccessMode() {
+            return accessMode;
+        }
+    }
+
+    private final class StubCursor implements Cursor {
+        private final Data data;
+        private int position;
+
+        StubCursor(Data data) {
+            this.data = data;
+        }
+
+        @Override
+        public List<String> getColumns() {
+            return data.getColumns();
+        }
+
+        @Override
+        public List<Fault> getFaults() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public <T> T next(RowMapper<T> mapper) {
+            return mapper.map(next());
+        }
+
+        @Override
+        public boolean hasNext() {
+            return position < data.getRows().size();
+        }
+
+        @Override
+        public Row next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException("Cursor is exhausted");
+            }
+            return data.getRows().get(position++);
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("Cursor is read-only");
+        }
+
+        @Override
+        public void close() {
+            calls.add("close cursor");
+        }
+
+        @Override
+        public void abort() {
+            calls.add("abort cursor");
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.liquigraph.trinity;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.liquigraph.trinity.StubCypherClient.StubTransaction;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.liquigraph.trinity.Assertions.assertThat;
+
+public class TrackingCypherClientTest {
+
+    private StubCypherClient delegate;
+
+    @Before
+    public void prepare() {
+        delegate = new StubCypherClient();
+    }
+
+    @Test
+    public void tracks_transactions_until_they_are_closed() {
+        try (TrackingCypherClient<StubTransaction> client = new TrackingCypherClient<>(delegate, 1, TimeUnit.MINUTES, 1)) {
+            Either<List<Fault>, StubTransaction> transaction = client.openTransaction("CREATE (:Crew)");
+            Either<List<Fault>, StubTransaction> execution = client.execute(transaction.getRight(), "CREATE (:Ship)");
+
+            assertThat(client.getOpenCount()).isEqualTo(1);
+            assertThat(client.getOpenTransactions().get(0).getAccessMode()).isEqualTo(AccessMode.WRITE);
+            assertThat(client.getOpenTransactions().get(0).getCreationStack()).isNotNull();
+            assertThat(client.commit(execution.getRight())).isRight();
+            assertThat(client.getOpenCount()).isEqualTo(0);
+            assertThat(client.getLeakedCount()).isEqualTo(0L);
+        }
+    }
+
+    @Test
+    public void stops_tracking_transactions_whose_execution_failed() throws InterruptedException {
+        delegate.fail("Not a valid query", new Fault("Neo.ClientError.Statement.SyntaxError", "Invalid input"));
+        try (TrackingCypherClient<StubTransaction> client = new TrackingCypherClient<>(delegate, 100, TimeUnit.MILLISECONDS, 0)) {
+            Either<List<Fault>, StubTransaction> transaction = client.openTransaction("CREATE (:Crew)");
+
+            assertThat(client.execute(transaction.getRight(), "Not a valid query")).isLeft();
+
+            assertThat(client.getOpenCount()).isEqualTo(0);
+            Thread.sleep(300);
+            assertThat(client.getLeakedCount()).isEqualTo(0L);
+            assertThat(delegate.getCalls()).containsExactly("open WRITE [CREATE (:Crew)]", "execute 1 [Not a valid query]");
+        }
+    }
+
+    @Test
+    public void rolls_back_transactions_left_idle() throws InterruptedException {
+        try (TrackingCypherClient<StubTransaction> client = new TrackingCypherClient<>(delegate, 100, TimeUnit.MILLISECONDS, 0)) {
+            Either<List<Fault>, StubTransaction> transaction = client.openTransaction("CREATE (:Crew)");
+
+            awaitLeak(client);
+
+            assertThat(client.getOpenCount()).isEqualTo(0);
+            assertThat(delegate.getCalls()).containsExactly("open WRITE [CREATE (:Crew)]", "rollback 1");
+            Either<List<Fault>, ClosedTransaction> commit = client.commit(transaction.getRight());
+            assertThat(commit).isLeft();
+            assertThat(commit.getLeft().get(0).getCode()).isEqualTo(TrackingCypherClient.IDLE_ROLLBACK);
+            assertThat(delegate.getCalls()).hasSize(2);
+        }
+    }
+
+    @Test
+    public void rolls_back_idle_transactions_of_thread_bound_transports_on_their_next_use() throws InterruptedException {
+        try (TrackingCypherClient<StubTransaction> client = new TrackingCypherClient<>(delegate, 100, TimeUnit.MILLISECONDS, 0, true)) {
+            Either<List<Fault>, StubTransaction> transaction = client.openTransaction("CREATE (:Crew)");
+
+            awaitLeak(client);
+
+            assertThat(delegate.getCalls()).containsExactly("open WRITE [CREATE (:Crew)]");
+            Either<List<Fault>, StubTransaction> execution = client.execute(transaction.getRight(), "CREATE (:Ship)");
+            assertThat(execution).isLeft();
+            assertThat(execution.getLeft().get(0).getCode()).isEqualTo(TrackingCypherClient.IDLE_ROLLBACK);
+            assertThat(delegate.getCalls()).containsExactly("open WRITE [CREATE (:Crew)]", "rollback 1");
+        }
+    }
+
+    private static void awaitLeak(TrackingCypherClient<?> client) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (client.getLeakedCount() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(client.getLeakedCount()).isEqualTo(1L);
+    }
+}
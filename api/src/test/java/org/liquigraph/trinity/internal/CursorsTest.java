@@ -0,0 +1,69 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.liquigraph.trinity.internal;
+
+import org.junit.Test;
+import org.liquigraph.trinity.Data;
+import org.liquigraph.trinity.Either;
+import org.liquigraph.trinity.Fault;
+import org.liquigraph.trinity.Row;
+import org.liquigraph.trinity.RowMapper;
+import org.liquigraph.trinity.RowView;
+import org.liquigraph.trinity.Statement;
+import org.liquigraph.trinity.StubCypherClient;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+public class CursorsTest {
+
+    private static final Statement NAMES = new Statement("MATCH (c:Crew) RETURN c.name AS name");
+
+    private final StubCypherClient client = new StubCypherClient()
+        .respond(NAMES.getQuery(), new Data("name", new Row("name", "Neo")));
+
+    @Test
+    public void closes_cursors_once_all_rows_are_mapped() {
+        Either<List<Fault>, List<String>> result = Cursors.mapAll(client.streamSingleTransaction(NAMES), new RowMapper<String>() {
+            @Override
+            public String map(RowView row) {
+                return row.getString("name");
+            }
+        });
+
+        assertThat(result.getRight()).containsExactly("Neo");
+        assertThat(client.getCalls()).containsExactly("stream WRITE [" + NAMES.getQuery() + "]", "close cursor");
+    }
+
+    @Test
+    public void aborts_cursors_when_the_mapper_fails() {
+        try {
+            Cursors.mapAll(client.streamSingleTransaction(NAMES), new RowMapper<String>() {
+                @Override
+                public String map(RowView row) {
+                    throw new IllegalStateException("Cannot map " + row.getString("name"));
+                }
+            });
+            fail("Expected the mapper exception to be rethrown");
+        } catch (IllegalStateException expected) {
+            assertThat(expected).hasMessage("Cannot map Neo");
+        }
+
+        assertThat(client.getCalls()).containsExactly("stream WRITE [" + NAMES.getQuery() + "]", "abort cursor");
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.liquigraph.trinity.internal;
+
+import org.junit.Test;
+import org.liquigraph.trinity.Statement;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StatementsTest {
+
+    @Test
+    public void sums_statement_timeouts() {
+        assertThat(Statements.timeoutMillis(Arrays.asList(
+            new Statement("RETURN 1").withTimeout(1, TimeUnit.SECONDS),
+            new Statement("RETURN 2").withTimeout(500, TimeUnit.MILLISECONDS)
+        ))).isEqualTo(1500L);
+    }
+
+    @Test
+    public void bounds_batches_mixing_timed_and_untimed_statements_by_their_timed_statements() {
+        assertThat(Statements.timeoutMillis(Arrays.asList(
+            new Statement("RETURN 1").withTimeout(1, TimeUnit.SECONDS),
+            new Statement("RETURN 2"),
+            new Statement("RETURN 3").withTimeout(250, TimeUnit.MILLISECONDS)
+        ))).isEqualTo(1250L);
+    }
+
+    @Test
+    public void does_not_bound_batches_of_untimed_statements() {
+        assertThat(Statements.timeoutMillis(Arrays.asList(
+            new Statement("RETURN 1"),
+            new Statement("RETURN 2")
+        ))).isEqualTo(0L);
+    }
+
+    @Test
+    public void does_not_bound_empty_batches() {
+        assertThat(Statements.timeoutMillis(Collections.<Statement>emptyList())).isEqualTo(0L);
+    }
+}
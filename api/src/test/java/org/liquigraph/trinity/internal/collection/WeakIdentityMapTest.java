@@ -0,0 +1,47 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.liquigraph.trinity.internal.collection;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class WeakIdentityMapTest {
+
+    @Test
+    public void compares_keys_by_identity() {
+        WeakIdentityMap<String, Long> map = new WeakIdentityMap<>();
+        String key = new String("transaction");
+
+        map.put(key, 1L);
+
+        assertThat(map.get(key)).isEqualTo(1L);
+        assertThat(map.get(new String("transaction"))).isNull();
+        assertThat(map.remove(new String("transaction"))).isNull();
+        assertThat(map.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void removes_entries() {
+        WeakIdentityMap<String, Long> map = new WeakIdentityMap<>();
+        String key = new String("transaction");
+        map.put(key, 1L);
+
+        assertThat(map.remove(key)).isEqualTo(1L);
+        assertThat(map.get(key)).isNull();
+        assertThat(map.size()).isEqualTo(0);
+    }
+}
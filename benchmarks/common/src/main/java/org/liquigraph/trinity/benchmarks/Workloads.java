@@ -0,0 +1,60 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.liquigraph.trinity.benchmarks;
+
+import java.util.Arrays;
+import java.util.Collections;
+import org.liquigraph.trinity.Statement;
+
+/**
+ * Reads back the {@code rows} nodes created by {@link #seed(int)}, so that the result shape only depends on the benchmark
+ * parameters and all transports decode the exact same rows.
+ */
+public final class Workloads {
+
+    private Workloads() {
+        throw new UnsupportedOperationException("Static class");
+    }
+
+    public static Statement seed(int rows) {
+        return new Statement("FOREACH (i IN range(1, {rows}) | CREATE (:Row {value: i}))", Collections.<String, Object>singletonMap("rows", rows));
+    }
+
+    public static Statement[] statements(int count, int columns) {
+        Statement[] result = new Statement[count];
+        Arrays.fill(result, statement(columns));
+        return result;
+    }
+
+    public static Statement statement(int columns) {
+        return new Statement(query(columns));
+    }
+
+    public static String columnName(int index) {
+        return "c" + index;
+    }
+
+    private static String query(int columns) {
+        StringBuilder builder = new StringBuilder("MATCH (row:Row) RETURN ");
+        for (int i = 0; i < columns; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append("row.value AS ").append(columnName(i));
+        }
+        return builder.toString();
+    }
+}
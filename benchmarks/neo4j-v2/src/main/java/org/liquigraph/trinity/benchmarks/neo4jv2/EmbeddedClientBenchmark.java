@@ -0,0 +1,95 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.liquigraph.trinity.benchmarks.neo4jv2;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.liquigraph.trinity.ClosedTransaction;
+import org.liquigraph.trinity.Data;
+import org.liquigraph.trinity.Either;
+import org.liquigraph.trinity.Fault;
+import org.liquigraph.trinity.Statement;
+import org.liquigraph.trinity.benchmarks.StoreDirectory;
+import org.liquigraph.trinity.benchmarks.Workloads;
+import org.liquigraph.trinity.neo4jv2.EmbeddedClient;
+import org.liquigraph.trinity.neo4jv2.OngoingLocalTransaction;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.factory.GraphDatabaseFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class EmbeddedClientBenchmark {
+
+    @Param({"1", "100", "10000"})
+    private int rows;
+
+    @Param({"1", "10"})
+    private int columns;
+
+    @Param({"1", "5"})
+    private int statementsPerTransaction;
+
+    private StoreDirectory storeDirectory;
+    private GraphDatabaseService graphDatabase;
+    private EmbeddedClient client;
+    private Statement statement;
+    private Statement[] otherStatements;
+
+    @Setup
+    public void prepare() throws IOException {
+        storeDirectory = StoreDirectory.create();
+        graphDatabase = new GraphDatabaseFactory().newEmbeddedDatabase(storeDirectory.toFile().getPath());
+        client = new EmbeddedClient(graphDatabase);
+        client.runSingleTransaction(Workloads.seed(rows)).getRight();
+        statement = Workloads.statement(columns);
+        otherStatements = Workloads.statements(statementsPerTransaction - 1, columns);
+    }
+
+    @TearDown
+    public void cleanUp() throws IOException {
+        graphDatabase.shutdown();
+        storeDirectory.delete();
+    }
+
+    @Benchmark
+    public Either<List<Fault>, List<Data>> runSingleTransaction() {
+        return client.runSingleTransaction(statement, otherStatements);
+    }
+
+    @Benchmark
+    public Either<List<Fault>, ClosedTransaction> openExecuteCommit() {
+        OngoingLocalTransaction transaction = client.openTransaction().getRight();
+        transaction = client.execute(transaction, statement, otherStatements).getRight();
+        return client.commit(transaction);
+    }
+}
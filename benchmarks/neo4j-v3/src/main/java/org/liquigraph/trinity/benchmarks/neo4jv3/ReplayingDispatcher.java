@@ -0,0 +1,118 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.liquigraph.trinity.benchmarks.neo4jv3;
+
+import static org.liquigraph.trinity.benchmarks.Workloads.columnName;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+
+/**
+ * Replays the payloads Neo4j's transactional endpoint sends back for the statements of {@link org.liquigraph.trinity.benchmarks.Workloads}.
+ * Responses are built once, so that the in-process server adds as little allocation noise as possible to the GC profile.
+ */
+final class ReplayingDispatcher extends Dispatcher {
+
+    private static final String TRANSACTION_PATH = "/db/data/transaction";
+    private static final String ONGOING_TRANSACTION_PATH = TRANSACTION_PATH + "/1";
+    private static final String EXPIRY = "Fri, 01 Jan 2100 00:00:00 +0000";
+
+    private final MockResponse singleTransaction;
+    private final MockResponse openedTransaction;
+    private final MockResponse ongoingTransaction;
+    private final MockResponse committedTransaction;
+    private final MockResponse notFound = new MockResponse().setResponseCode(404);
+
+    public ReplayingDispatcher(String baseUrl, int statements, int rows, int columns) {
+        String results = results(statements, rows, columns);
+        String commitUri = baseUrl + ONGOING_TRANSACTION_PATH + "/commit";
+        singleTransaction = json(closedPayload(results));
+        openedTransaction = json(ongoingPayload(commitUri, "[]")).setHeader("Location", baseUrl + ONGOING_TRANSACTION_PATH);
+        ongoingTransaction = json(ongoingPayload(commitUri, results));
+        committedTransaction = json(closedPayload("[]"));
+    }
+
+    @Override
+    public MockResponse dispatch(RecordedRequest request) {
+        switch (request.getPath()) {
+            case TRANSACTION_PATH + "/commit":
+                return singleTransaction;
+            case TRANSACTION_PATH:
+                return openedTransaction;
+            case ONGOING_TRANSACTION_PATH:
+                return ongoingTransaction;
+            case ONGOING_TRANSACTION_PATH + "/commit":
+                return committedTransaction;
+            default:
+                return notFound;
+        }
+    }
+
+    private static MockResponse json(String body) {
+        return new MockResponse()
+            .setHeader("Content-Type", "application/json; charset=UTF-8")
+            .setBody(body);
+    }
+
+    private static String closedPayload(String results) {
+        return "{\"results\":" + results + ",\"errors\":[]}";
+    }
+
+    private static String ongoingPayload(String commitUri, String results) {
+        return "{\"commit\":\"" + commitUri + "\",\"results\":" + results + ",\"transaction\":{\"expires\":\"" + EXPIRY + "\"},\"errors\":[]}";
+    }
+
+    private static String results(int statements, int rows, int columns) {
+        String result = result(rows, columns);
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < statements; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append(result);
+        }
+        return builder.append(']').toString();
+    }
+
+    private static String result(int rows, int columns) {
+        StringBuilder builder = new StringBuilder("{\"columns\":[");
+        for (int column = 0; column < columns; column++) {
+            if (column > 0) {
+                builder.append(',');
+            }
+            builder.append('"').append(columnName(column)).append('"');
+        }
+        builder.append("],\"data\":[");
+        for (int row = 1; row <= rows; row++) {
+            if (row > 1) {
+                builder.append(',');
+            }
+            StringBuilder values = new StringBuilder();
+            StringBuilder meta = new StringBuilder();
+            for (int column = 0; column < columns; column++) {
+                if (column > 0) {
+                    values.append(',');
+                    meta.append(',');
+                }
+                values.append(row);
+                meta.append("null");
+            }
+            builder.append("{\"row\":[").append(values).append("],\"meta\":[").append(meta).append("]}");
+        }
+        return builder.append("]}").toString();
+    }
+}
@@ -15,27 +15,48 @@
  */
 package org.liquigraph.trinity.bolt;
 
+import org.liquigraph.trinity.AccessMode;
 import org.liquigraph.trinity.ClosedTransaction;
+import org.liquigraph.trinity.ColumnIndex;
 import org.liquigraph.trinity.CypherClient;
+import org.liquigraph.trinity.Cursor;
 import org.liquigraph.trinity.Data;
 import org.liquigraph.trinity.Either;
 import org.liquigraph.trinity.Fault;
+import org.liquigraph.trinity.QuerySummary;
+import org.liquigraph.trinity.RetryingTransactionRunner;
 import org.liquigraph.trinity.Row;
+import org.liquigraph.trinity.RowMapper;
+import org.liquigraph.trinity.Statement;
 import org.liquigraph.trinity.internal.FunctionalEither;
+import org.liquigraph.trinity.internal.Watchdog;
 import org.liquigraph.trinity.internal.collection.Lists;
 import org.neo4j.driver.v1.Driver;
+import org.neo4j.driver.v1.Record;
 import org.neo4j.driver.v1.Session;
 import org.neo4j.driver.v1.StatementResult;
 import org.neo4j.driver.v1.Transaction;
-import org.neo4j.driver.v1.exceptions.ClientException;
+import org.neo4j.driver.v1.Value;
+import org.neo4j.driver.v1.exceptions.Neo4jException;
+import org.neo4j.driver.v1.summary.ResultSummary;
+import org.neo4j.driver.v1.summary.SummaryCounters;
+import org.neo4j.driver.v1.types.TypeSystem;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.bridge.SLF4JBridgeHandler;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+import static org.liquigraph.trinity.internal.Cursors.mapAll;
+import static org.liquigraph.trinity.internal.Cursors.watched;
+import static org.liquigraph.trinity.internal.Statements.statements;
+import static org.liquigraph.trinity.internal.Statements.timeoutMillis;
+
 public class BoltClient implements CypherClient<BoltTransaction>, AutoCloseable {
 
    static {
@@ -45,65 +66,131 @@ public class BoltClient implements CypherClient<BoltTransaction>, AutoCloseable
 
    private static final Logger LOGGER = LoggerFactory.getLogger(BoltClient.class);
    private final Driver driver;
+   private final long maxTransactionRetryTimeMillis;
+   private final long transactionTimeoutMillis;
 
    public BoltClient(Driver driver) {
+      this(driver, RetryingTransactionRunner.DEFAULT_MAX_RETRY_TIME_MILLISECONDS);
+   }
+
+   public BoltClient(Driver driver, long maxTransactionRetryTimeMillis) {
+      this(driver, maxTransactionRetryTimeMillis, 0);
+   }
+
+   /**
+    * Transactions still open after {@code transactionTimeoutMillis}, 0 for no timeout, are terminated by resetting their session.
+    */
+   public BoltClient(Driver driver, long maxTransactionRetryTimeMillis, long transactionTimeoutMillis) {
       this.driver = driver;
+      this.maxTransactionRetryTimeMillis = maxTransactionRetryTimeMillis;
+      this.transactionTimeoutMillis = transactionTimeoutMillis;
+   }
+
+   /**
+    * Retries units of work on transient faults for as long as the configured max transaction retry time.
+    */
+   public RetryingTransactionRunner<BoltTransaction> transactionRunner() {
+      return new RetryingTransactionRunner<>(this, maxTransactionRetryTimeMillis);
    }
 
    @Override
    public FunctionalEither<List<Fault>, List<Data>> runSingleTransaction(String query, String... queries) {
-      try (Session session = driver.session();
-           Transaction tx = session.beginTransaction()) {
-         List<String> allQueries = Lists.prepend(query, queries);
-         LOGGER.debug("About to run {} queries in a single transaction", allQueries.size());
-         FunctionalEither<List<Fault>, List<Data>> result = executeQueriesInTransaction(tx, allQueries);
-         tx.success();
-         return result;
+      return runSingleTransaction(statements(Lists.prepend(query, queries)));
+   }
+
+   @Override
+   public FunctionalEither<List<Fault>, List<Data>> runSingleTransaction(Statement statement, Statement... statements) {
+      return runSingleTransaction(Lists.prepend(statement, statements));
+   }
+
+   @Override
+   public FunctionalEither<List<Fault>, List<Data>> runSingleTransaction(AccessMode accessMode, Statement statement, Statement... statements) {
+      return runSingleTransaction(accessMode, Lists.prepend(statement, statements));
+   }
+
+   @Override
+   public <T> Either<List<Fault>, List<T>> runSingleTransaction(Statement statement, RowMapper<T> mapper) {
+      return mapAll(streamSingleTransaction(statement), mapper);
+   }
+
+   @Override
+   public FunctionalEither<List<Fault>, Cursor> streamSingleTransaction(Statement statement) {
+      return streamSingleTransaction(AccessMode.WRITE, statement);
+   }
+
+   @Override
+   public FunctionalEither<List<Fault>, Cursor> streamSingleTransaction(AccessMode accessMode, Statement statement) {
+      Session session = session(accessMode);
+      Transaction tx = session.beginTransaction();
+      Watchdog watchdog = startWatchdog(session, Watchdog.shortest(transactionTimeoutMillis, statement.getTimeoutMillis()));
+      LOGGER.debug("About to stream the results of a single transaction");
+      FunctionalEither<Fault, StatementResult> result = executeQuery(tx, statement);
+      if (result.isLeft()) {
+         if (watchdog.stop()) {
+            closeFailed(session, tx);
+            return FunctionalEither.left(Collections.singletonList(watchdog.fault()));
+         }
+         tx.failure();
+         tx.close();
+         session.close();
       }
+      return result.fold(
+            Collections::singletonList,
+            statementResult -> watched(new BoltCursor(session, tx, statementResult), watchdog));
    }
 
    @Override
    public FunctionalEither<List<Fault>, BoltTransaction> openTransaction(String... queries) {
-      Session session = driver.session();
-      Transaction tx = session.beginTransaction();
-      List<String> allQueries = Arrays.asList(queries);
-      LOGGER.debug("About to open a transaction and run {} queries", allQueries.size());
-      return executeQueriesInTransaction(tx, allQueries)
-               .mapRight(data -> new BoltTransaction(session, tx, data));
+      return openTransaction(AccessMode.WRITE, statements(Arrays.asList(queries)));
+   }
+
+   @Override
+   public FunctionalEither<List<Fault>, BoltTransaction> openTransaction(Statement statement, Statement... statements) {
+      return openTransaction(AccessMode.WRITE, Lists.prepend(statement, statements));
+   }
+
+   @Override
+   public FunctionalEither<List<Fault>, BoltTransaction> openTransaction(AccessMode accessMode, Statement... statements) {
+      return openTransaction(accessMode, Arrays.asList(statements));
    }
 
    @Override
    public FunctionalEither<List<Fault>, BoltTransaction> execute(BoltTransaction transaction, String... queries) {
-      Transaction tx = transaction.getTransaction();
-      List<String> allQueries = Arrays.asList(queries);
-      LOGGER.debug("About to run {} queries in currently open transaction", allQueries.size());
-      return executeQueriesInTransaction(tx, allQueries)
-            .mapRight(data -> new BoltTransaction(transaction.getSession(), tx, data));
+      return execute(transaction, statements(Arrays.asList(queries)));
+   }
+
+   @Override
+   public FunctionalEither<List<Fault>, BoltTransaction> execute(BoltTransaction transaction, Statement statement, Statement... statements) {
+      return execute(transaction, Lists.prepend(statement, statements));
    }
 
    @Override
    public FunctionalEither<List<Fault>, ClosedTransaction> commit(BoltTransaction transaction, String... queries) {
-      try (Session ignored = transaction.getSession();
-           Transaction tx = transaction.getTransaction()) {
+      return commit(transaction, statements(Arrays.asList(queries)));
+   }
 
-         List<String> allQueries = Arrays.asList(queries);
-         LOGGER.debug("About to run {} queries and commit open transaction", allQueries.size());
-         return executeQueriesInTransaction(tx, allQueries)
-               .mapRight(data -> {
-                  tx.success();
-                  return new ClosedTransaction(data, false);
-               });
-      }
+   @Override
+   public FunctionalEither<List<Fault>, ClosedTransaction> commit(BoltTransaction transaction, Statement statement, Statement... statements) {
+      return commit(transaction, Lists.prepend(statement, statements));
    }
 
    @Override
    public FunctionalEither<List<Fault>, ClosedTransaction> rollback(BoltTransaction transaction) {
       LOGGER.debug("About to roll back open transaction");
+      Watchdog transactionWatchdog = transaction.getWatchdog();
       try (Session ignored = transaction.getSession();
            Transaction tx = transaction.getTransaction()) {
 
          tx.failure();
          return FunctionalEither.right(ClosedTransaction.ROLLED_BACK);
+      } catch (RuntimeException e) {
+         if (!transactionWatchdog.hasExpired()) {
+            throw e;
+         }
+         LOGGER.debug("Transaction had already been terminated after timing out", e);
+         return FunctionalEither.right(ClosedTransaction.ROLLED_BACK);
+      } finally {
+         transactionWatchdog.stop();
       }
    }
 
@@ -112,10 +199,168 @@ public class BoltClient implements CypherClient<BoltTransaction>, AutoCloseable
       driver.close();
    }
 
-   private FunctionalEither<List<Fault>, List<Data>> executeQueriesInTransaction(Transaction tx, List<String> allQueries) {
-      List<Either<Fault, Data>> results = allQueries.stream()
-            .map(cypherQuery -> executeQuery(tx, cypherQuery))
-            .map(executionResult -> executionResult.mapRight(this::toData))
+   private FunctionalEither<List<Fault>, List<Data>> runSingleTransaction(List<Statement> allStatements) {
+      return runSingleTransaction(AccessMode.WRITE, allStatements);
+   }
+
+   private FunctionalEither<List<Fault>, List<Data>> runSingleTransaction(AccessMode accessMode, List<Statement> allStatements) {
+      Session session = session(accessMode);
+      Transaction tx = session.beginTransaction();
+      Watchdog transactionWatchdog = startWatchdog(session, transactionTimeoutMillis);
+      try {
+         return bounded(session, tx, transactionWatchdog, allStatements, () -> {
+            try (Session ignoredSession = session;
+                 Transaction ignoredTx = tx) {
+               LOGGER.debug("About to run {} queries in a single transaction", allStatements.size());
+               FunctionalEither<List<Fault>, List<Data>> result = executeQueriesInTransaction(session, tx, allStatements);
+               tx.success();
+               return result;
+            } catch (Neo4jException e) {
+               return commitFailure(e);
+            }
+         });
+      } finally {
+         transactionWatchdog.stop();
+      }
+   }
+
+   private FunctionalEither<List<Fault>, BoltTransaction> openTransaction(AccessMode accessMode, List<Statement> allStatements) {
+      Session session = session(accessMode);
+      Transaction tx = session.beginTransaction();
+      Watchdog transactionWatchdog = startWatchdog(session, transactionTimeoutMillis);
+      LOGGER.debug("About to open a {} transaction and run {} queries", accessMode, allStatements.size());
+      return closedOnFailure(session, tx, transactionWatchdog,
+            () -> bounded(session, tx, transactionWatchdog, allStatements, () -> executeQueriesInTransaction(session, tx, allStatements)))
+               .mapRight(data -> new BoltTransaction(session, tx, data, accessMode, transactionWatchdog));
+   }
+
+   private Session session(AccessMode accessMode) {
+      return driver.session(accessMode == AccessMode.READ
+            ? org.neo4j.driver.v1.AccessMode.READ
+            : org.neo4j.driver.v1.AccessMode.WRITE);
+   }
+
+   private FunctionalEither<List<Fault>, BoltTransaction> execute(BoltTransaction transaction, List<Statement> allStatements) {
+      Session session = transaction.getSession();
+      Transaction tx = transaction.getTransaction();
+      Watchdog transactionWatchdog = transaction.getWatchdog();
+      LOGGER.debug("About to run {} queries in currently open transaction", allStatements.size());
+      return closedOnFailure(session, tx, transactionWatchdog,
+            () -> bounded(session, tx, transactionWatchdog, allStatements, () -> executeQueriesInTransaction(session, tx, allStatements)))
+            .mapRight(data -> new BoltTransaction(session, tx, data, transaction.getAccessMode(), transactionWatchdog));
+   }
+
+   private FunctionalEither<List<Fault>, ClosedTransaction> commit(BoltTransaction transaction, List<Statement> allStatements) {
+      Session session = transaction.getSession();
+      Transaction tx = transaction.getTransaction();
+      Watchdog transactionWatchdog = transaction.getWatchdog();
+      try {
+         return bounded(session, tx, transactionWatchdog, allStatements, () -> {
+            try (Session ignoredSession = session;
+                 Transaction ignoredTx = tx) {
+
+               LOGGER.debug("About to run {} queries and commit open transaction", allStatements.size());
+               return executeQueriesInTransaction(session, tx, allStatements)
+                     .mapRight(data -> {
+                        tx.success();
+                        return new ClosedTransaction(data, false);
+                     });
+            } catch (Neo4jException e) {
+               return commitFailure(e);
+            }
+         });
+      } finally {
+         transactionWatchdog.stop();
+      }
+   }
+
+   /**
+    * Rolls back and closes the transaction if the work fails, since callers are not given any handle to do so.
+    */
+   private static <T> FunctionalEither<List<Fault>, T> closedOnFailure(Session session,
+                                                                       Transaction tx,
+                                                                       Watchdog transactionWatchdog,
+                                                                       Supplier<FunctionalEither<List<Fault>, T>> work) {
+      FunctionalEither<List<Fault>, T> result;
+      try {
+         result = work.get();
+      } catch (RuntimeException e) {
+         transactionWatchdog.stop();
+         closeFailed(session, tx);
+         throw e;
+      }
+      if (result.isLeft()) {
+         transactionWatchdog.stop();
+         closeFailed(session, tx);
+      }
+      return result;
+   }
+
+   /**
+    * Runs the work under the timeout of the given statements, on top of the transaction one.
+    * Faults met once a timeout expired are reported as a single timeout fault.
+    */
+   private static <T> FunctionalEither<List<Fault>, T> bounded(Session session,
+                                                               Transaction tx,
+                                                               Watchdog transactionWatchdog,
+                                                               List<Statement> statements,
+                                                               Supplier<FunctionalEither<List<Fault>, T>> work) {
+      if (transactionWatchdog.hasExpired()) {
+         closeFailed(session, tx);
+         return FunctionalEither.left(Collections.singletonList(transactionWatchdog.fault()));
+      }
+      Watchdog statementsWatchdog = startWatchdog(session, timeoutMillis(statements));
+      try {
+         FunctionalEither<List<Fault>, T> result = work.get();
+         if (result.isLeft() && (statementsWatchdog.hasExpired() || transactionWatchdog.hasExpired())) {
+            return terminated(session, tx, statementsWatchdog, transactionWatchdog);
+         }
+         return result;
+      } catch (RuntimeException e) {
+         if (!statementsWatchdog.hasExpired() && !transactionWatchdog.hasExpired()) {
+            throw e;
+         }
+         LOGGER.debug("Transaction failed after timing out", e);
+         return terminated(session, tx, statementsWatchdog, transactionWatchdog);
+      } finally {
+         statementsWatchdog.stop();
+      }
+   }
+
+   private static <T> FunctionalEither<List<Fault>, T> terminated(Session session,
+                                                                  Transaction tx,
+                                                                  Watchdog statementsWatchdog,
+                                                                  Watchdog transactionWatchdog) {
+      LOGGER.warn("Transaction has been terminated after timing out");
+      statementsWatchdog.stop();
+      transactionWatchdog.stop();
+      closeFailed(session, tx);
+      Fault fault = statementsWatchdog.hasExpired() ? statementsWatchdog.fault() : transactionWatchdog.fault();
+      return FunctionalEither.left(Collections.singletonList(fault));
+   }
+
+   private static void closeFailed(Session session, Transaction tx) {
+      try (Session ignoredSession = session;
+           Transaction ignoredTx = tx) {
+         tx.failure();
+      } catch (RuntimeException e) {
+         LOGGER.debug("Failed transaction could not be closed cleanly", e);
+      }
+   }
+
+   private static Watchdog startWatchdog(Session session, long timeoutMillis) {
+      return Watchdog.start(timeoutMillis, session::reset);
+   }
+
+   private static <T> FunctionalEither<List<Fault>, T> commitFailure(Neo4jException e) {
+      LOGGER.error("An unexpected error happened while closing the transaction", e);
+      return FunctionalEither.left(Collections.singletonList(new Fault(e.code(), e.getMessage())));
+   }
+
+   private FunctionalEither<List<Fault>, List<Data>> executeQueriesInTransaction(Session session, Transaction tx, List<Statement> allStatements) {
+      TypeSystem typeSystem = session.typeSystem();
+      List<Either<Fault, Data>> results = allStatements.stream()
+            .map(statement -> executeAndCollect(typeSystem, tx, statement))
             .collect(Collectors.toList());
 
       List<Fault> faults = results.stream()
@@ -124,7 +369,7 @@ public class BoltClient implements CypherClient<BoltTransaction>, AutoCloseable
             .collect(Collectors.toList());
 
       if (!faults.isEmpty()) {
-         LOGGER.warn("{} / {} query executions failed", faults.size(), allQueries.size());
+         LOGGER.warn("{} / {} query executions failed", faults.size(), allStatements.size());
          return FunctionalEither.left(faults);
       }
       return FunctionalEither.right(results.stream()
@@ -133,24 +378,68 @@ public class BoltClient implements CypherClient<BoltTransaction>, AutoCloseable
             .collect(Collectors.toList()));
    }
 
-   private FunctionalEither<Fault, StatementResult> executeQuery(Transaction transaction, String cypherQuery) {
+   private FunctionalEither<Fault, StatementResult> executeQuery(Transaction transaction, Statement statement) {
       try {
-         StatementResult result = transaction.run(cypherQuery);
+         StatementResult result = transaction.run(statement.getQuery(), statement.getParameters());
          if (!result.hasNext() /* force eager execution */) {
             LOGGER.trace("Nothing to fetch.");
          }
          return FunctionalEither.right(result);
-      } catch (ClientException ce) {
-         LOGGER.error("An unexpected error happened while executing the query", ce);
-         return FunctionalEither.left(new Fault(ce.code(), ce.getMessage()));
+      } catch (Neo4jException e) {
+         LOGGER.error("An unexpected error happened while executing the query", e);
+         return FunctionalEither.left(new Fault(e.code(), e.getMessage()));
+      }
+   }
+
+   private FunctionalEither<Fault, Data> executeAndCollect(TypeSystem typeSystem, Transaction tx, Statement statement) {
+      try {
+         return executeQuery(tx, statement).mapRight(result -> toData(typeSystem, result));
+      } catch (Neo4jException e) {
+         LOGGER.error("An unexpected error happened while fetching the query results", e);
+         return FunctionalEither.left(new Fault(e.code(), e.getMessage()));
       }
    }
 
-   private Data toData(StatementResult input) {
-      return new Data(
-          input.keys(),
-          input.list().stream().map(record -> new Row(record.asMap()))
-              .collect(Collectors.toList())
-      );
+   private static Data toData(TypeSystem typeSystem, StatementResult input) {
+      ColumnIndex columns = new ColumnIndex(input.keys());
+      List<Row> rows = input.list().stream().map(record -> toRow(typeSystem, columns, record))
+          .collect(Collectors.toList());
+      return new Data(columns, rows, toSummary(input.consume()));
+   }
+
+   private static QuerySummary toSummary(ResultSummary summary) {
+      SummaryCounters counters = summary.counters();
+      return new QuerySummary.Builder()
+            .nodesCreated(counters.nodesCreated())
+            .nodesDeleted(counters.nodesDeleted())
+            .relationshipsCreated(counters.relationshipsCreated())
+            .relationshipsDeleted(counters.relationshipsDeleted())
+            .propertiesSet(counters.propertiesSet())
+            .labelsAdded(counters.labelsAdded())
+            .labelsRemoved(counters.labelsRemoved())
+            .indexesAdded(counters.indexesAdded())
+            .indexesRemoved(counters.indexesRemoved())
+            .constraintsAdded(counters.constraintsAdded())
+            .constraintsRemoved(counters.constraintsRemoved())
+            .resultAvailableAfter(summary.resultAvailableAfter(TimeUnit.MILLISECONDS))
+            .resultConsumedAfter(summary.resultConsumedAfter(TimeUnit.MILLISECONDS))
+            .build();
+   }
+
+   static Row toRow(TypeSystem typeSystem, ColumnIndex columns, Record record) {
+      Row.Builder row = new Row.Builder(columns);
+      for (int i = 0; i < record.size(); i++) {
+         Value value = record.get(i);
+         if (value.hasType(typeSystem.INTEGER())) {
+            row.setLong(i, value.asLong());
+         } else if (value.hasType(typeSystem.FLOAT())) {
+            row.setDouble(i, value.asDouble());
+         } else if (value.hasType(typeSystem.BOOLEAN())) {
+            row.setBoolean(i, value.asBoolean());
+         } else {
+            row.set(i, value.asObject());
+         }
+      }
+      return row.build();
    }
 }
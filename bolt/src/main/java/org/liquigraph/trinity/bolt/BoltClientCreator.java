@@ -17,6 +17,7 @@ package org.liquigraph.trinity.bolt;
 
 import org.liquigraph.trinity.CypherClientCreator;
 import org.liquigraph.trinity.CypherTransport;
+import org.liquigraph.trinity.RetryingTransactionRunner;
 import org.neo4j.driver.v1.AuthToken;
 import org.neo4j.driver.v1.Config;
 import org.neo4j.driver.v1.GraphDatabase;
@@ -28,6 +29,8 @@ import java.util.function.Function;
 import java.util.function.Supplier;
 
 import static org.liquigraph.trinity.bolt.BoltProperties.BASE_URL;
+import static org.liquigraph.trinity.bolt.BoltProperties.MAX_TRANSACTION_RETRY_TIME_MILLISECONDS;
+import static org.liquigraph.trinity.bolt.BoltProperties.TRANSACTION_TIMEOUT_MILLISECONDS;
 
 public class BoltClientCreator implements CypherClientCreator {
     private static final Logger LOGGER = LoggerFactory.getLogger(BoltClient.class);
@@ -55,10 +58,29 @@ public class BoltClientCreator implements CypherClientCreator {
     public BoltClient create(Properties properties) {
         LOGGER.trace("About to instantiate the Bolt client");
 
-        return new BoltClient(GraphDatabase.driver(
-            PropertiesReader.readNullableProperty(properties, BASE_URL),
-            authTokenSupplier.apply(properties).get(),
-            driverConfigSupplier.apply(properties).get()));
+        return new BoltClient(
+            GraphDatabase.driver(
+                PropertiesReader.readNullableProperty(properties, BASE_URL),
+                authTokenSupplier.apply(properties).get(),
+                driverConfigSupplier.apply(properties).get()),
+            maxTransactionRetryTime(properties),
+            transactionTimeout(properties));
+    }
+
+    private static long maxTransactionRetryTime(Properties properties) {
+        String maxRetryTime = PropertiesReader.readNullableProperty(properties, MAX_TRANSACTION_RETRY_TIME_MILLISECONDS);
+        if (maxRetryTime == null) {
+            return RetryingTransactionRunner.DEFAULT_MAX_RETRY_TIME_MILLISECONDS;
+        }
+        return Long.parseLong(maxRetryTime, 10);
+    }
+
+    private static long transactionTimeout(Properties properties) {
+        String transactionTimeout = PropertiesReader.readNullableProperty(properties, TRANSACTION_TIMEOUT_MILLISECONDS);
+        if (transactionTimeout == null) {
+            return 0;
+        }
+        return Long.parseLong(transactionTimeout, 10);
     }
 
 
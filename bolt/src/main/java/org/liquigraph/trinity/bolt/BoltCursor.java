@@ -0,0 +1,119 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.liquigraph.trinity.bolt;
+
+import org.liquigraph.trinity.ColumnIndex;
+import org.liquigraph.trinity.Cursor;
+import org.liquigraph.trinity.Fault;
+import org.liquigraph.trinity.Row;
+import org.liquigraph.trinity.RowMapper;
+import org.neo4j.driver.v1.Session;
+import org.neo4j.driver.v1.StatementResult;
+import org.neo4j.driver.v1.Transaction;
+import org.neo4j.driver.v1.exceptions.Neo4jException;
+import org.neo4j.driver.v1.types.TypeSystem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+final class BoltCursor implements Cursor {
+   private static final Logger LOGGER = LoggerFactory.getLogger(BoltCursor.class);
+
+   private final Session session;
+   private final Transaction transaction;
+   private final StatementResult result;
+   private final ColumnIndex columns;
+   private final TypeSystem typeSystem;
+   private final List<Fault> faults = new ArrayList<>(0);
+   private final RecordRowView view = new RecordRowView();
+
+   BoltCursor(Session session, Transaction transaction, StatementResult result) {
+      this.session = session;
+      this.transaction = transaction;
+      this.result = result;
+      this.columns = new ColumnIndex(result.keys());
+      this.typeSystem = session.typeSystem();
+   }
+
+   @Override
+   public List<String> getColumns() {
+      return columns.getColumns();
+   }
+
+   @Override
+   public List<Fault> getFaults() {
+      return faults;
+   }
+
+   @Override
+   public boolean hasNext() {
+      if (!faults.isEmpty()) {
+         return false;
+      }
+      try {
+         return result.hasNext();
+      } catch (Neo4jException e) {
+         LOGGER.error("An unexpected error happened while fetching the next record", e);
+         faults.add(new Fault(e.code(), e.getMessage()));
+         return false;
+      }
+   }
+
+   @Override
+   public Row next() {
+      if (!hasNext()) {
+         throw new NoSuchElementException("Cursor is exhausted");
+      }
+      return BoltClient.toRow(typeSystem, columns, result.next());
+   }
+
+   @Override
+   public <T> T next(RowMapper<T> mapper) {
+      if (!hasNext()) {
+         throw new NoSuchElementException("Cursor is exhausted");
+      }
+      return mapper.map(view.reset(result.next()));
+   }
+
+   @Override
+   public void close() {
+      if (!faults.isEmpty()) {
+         LOGGER.warn("Rolling back the transaction after encountering {} errors", faults.size());
+      }
+      close(faults.isEmpty());
+   }
+
+   @Override
+   public void abort() {
+      LOGGER.warn("Rolling back the transaction of an aborted cursor");
+      close(false);
+   }
+
+   private void close(boolean success) {
+      try (Session ignored = session;
+           Transaction tx = transaction) {
+
+         if (success) {
+            tx.success();
+         } else {
+            tx.failure();
+         }
+      }
+   }
+}
@@ -29,6 +29,7 @@ class BoltProperties {
     static final String ENABLE_LEAKING_SESSION_LOGGING = "cypher.bolt.enable-leaking-session-logging";
     static final String MAX_IDLE_SESSIONS = "cypher.bolt.max-idle-sessions";
     static final String MAX_TRANSACTION_RETRY_TIME_MILLISECONDS = "cypher.bolt.max-transaction-retry-time-milliseconds";
+    static final String TRANSACTION_TIMEOUT_MILLISECONDS = "cypher.bolt.transaction-timeout-milliseconds";
     static final String TRUST_STRATEGY_TYPE = "cypher.bolt.trust-strategy.type";
     static final String TRUST_STRATEGY_CUSTOM_CERTIFICATE_PATH = "cypher.bolt.trust-strategy.custom-certificate-path";
 }
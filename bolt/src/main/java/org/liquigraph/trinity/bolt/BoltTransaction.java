@@ -16,8 +16,10 @@
 package org.liquigraph.trinity.bolt;
 
 import java.util.List;
+import org.liquigraph.trinity.AccessMode;
 import org.liquigraph.trinity.Data;
 import org.liquigraph.trinity.OngoingTransaction;
+import org.liquigraph.trinity.internal.Watchdog;
 import org.neo4j.driver.v1.Session;
 import org.neo4j.driver.v1.Transaction;
 
@@ -26,11 +28,23 @@ public class BoltTransaction implements OngoingTransaction {
    private final Session session;
    private final Transaction transaction;
    private final List<Data> data;
+   private final AccessMode accessMode;
+   private final Watchdog watchdog;
 
    public BoltTransaction(Session session, Transaction transaction, List<Data> data) {
+      this(session, transaction, data, AccessMode.WRITE);
+   }
+
+   public BoltTransaction(Session session, Transaction transaction, List<Data> data, AccessMode accessMode) {
+      this(session, transaction, data, accessMode, Watchdog.disabled());
+   }
+
+   BoltTransaction(Session session, Transaction transaction, List<Data> data, AccessMode accessMode, Watchdog watchdog) {
       this.session = session;
       this.transaction = transaction;
       this.data = data;
+      this.accessMode = accessMode;
+      this.watchdog = watchdog;
    }
 
    @Override
@@ -38,6 +52,11 @@ public class BoltTransaction implements OngoingTransaction {
       return data;
    }
 
+   @Override
+   public AccessMode getAccessMode() {
+      return accessMode;
+   }
+
    Transaction getTransaction() {
       return transaction;
    }
@@ -45,4 +64,8 @@ public class BoltTransaction implements OngoingTransaction {
    Session getSession() {
       return session;
    }
+
+   Watchdog getWatchdog() {
+      return watchdog;
+   }
 }
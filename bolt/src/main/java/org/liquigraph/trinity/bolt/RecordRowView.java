@@ -0,0 +1,64 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.liquigraph.trinity.bolt;
+
+import org.liquigraph.trinity.RowView;
+import org.neo4j.driver.v1.Record;
+import org.neo4j.driver.v1.Value;
+
+final class RecordRowView implements RowView {
+
+   private Record record;
+
+   RecordRowView reset(Record record) {
+      this.record = record;
+      return this;
+   }
+
+   @Override
+   public Object get(String name) {
+      return record.get(name).asObject();
+   }
+
+   @Override
+   public long getLong(String name) {
+      return nonNull(name).asLong();
+   }
+
+   @Override
+   public double getDouble(String name) {
+      return nonNull(name).asDouble();
+   }
+
+   @Override
+   public boolean getBoolean(String name) {
+      return nonNull(name).asBoolean();
+   }
+
+   @Override
+   public String getString(String name) {
+      Value value = record.get(name);
+      return value.isNull() ? null : value.asString();
+   }
+
+   private Value nonNull(String name) {
+      Value value = record.get(name);
+      if (value.isNull()) {
+         throw new IllegalStateException(String.format("Column %s is null or missing", name));
+      }
+      return value;
+   }
+}
@@ -16,20 +16,26 @@
 package org.liquigraph.trinity.bolt;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
 import static org.liquigraph.trinity.Assertions.assertThat;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Rule;
 import org.junit.Test;
 import org.liquigraph.trinity.ClosedTransaction;
+import org.liquigraph.trinity.Cursor;
 import org.liquigraph.trinity.Data;
+import org.liquigraph.trinity.DefaultEither;
 import org.liquigraph.trinity.Either;
 import org.liquigraph.trinity.Fault;
+import org.liquigraph.trinity.QuerySummary;
 import org.liquigraph.trinity.Row;
+import org.liquigraph.trinity.Statement;
 import org.slf4j.bridge.SLF4JBridgeHandler;
 import org.neo4j.driver.v1.AccessMode;
 import org.neo4j.driver.v1.Config;
@@ -79,6 +85,121 @@ public class BoltClientTest {
       }
    }
 
+   @Test
+   public void executes_parameterized_query_in_one_transaction() {
+      Statement statement = new Statement("CREATE (c:Crew {name:{name}}) RETURN c.name", Collections.singletonMap("name", "Liquigraph crew"));
+
+      Either<List<Fault>, List<Data>> result = subject.runSingleTransaction(statement);
+
+      assertThat(result).isRight();
+      assertThat(result.getRight())
+            .containsExactly(new Data("c.name", new Row("c.name", "Liquigraph crew")));
+   }
+
+   @Test
+   public void streams_query_results() {
+      Either<List<Fault>, Cursor> result = subject.streamSingleTransaction(new Statement("UNWIND range(1, 3) AS item RETURN item"));
+
+      assertThat(result).isRight();
+      try (Cursor cursor = result.getRight()) {
+         assertThat(cursor.getColumns()).containsExactly("item");
+         assertThat(cursor).containsExactly(new Row("item", 1L), new Row("item", 2L), new Row("item", 3L));
+         assertThat(cursor.getFaults()).isEmpty();
+      }
+   }
+
+   @Test
+   public void opens_read_transaction() {
+      try (Session session = driver.session()) {
+         session.run("CREATE (:Crew {name:'Liquigraph crew'})");
+      }
+
+      Either<List<Fault>, BoltTransaction> transaction = subject.openTransaction(
+            org.liquigraph.trinity.AccessMode.READ, new Statement("MATCH (c:Crew) RETURN c.name AS name"));
+
+      assertThat(transaction).isRight();
+      assertThat(transaction.getRight().getAccessMode()).isEqualTo(org.liquigraph.trinity.AccessMode.READ);
+      assertThat(transaction.getRight().getData())
+            .containsExactly(new Data("name", new Row("name", "Liquigraph crew")));
+      Either<List<Fault>, BoltTransaction> next = subject.execute(transaction.getRight(), "RETURN 1");
+      assertThat(next.getRight().getAccessMode()).isEqualTo(org.liquigraph.trinity.AccessMode.READ);
+      assertThat(subject.commit(next.getRight())).isRight();
+   }
+
+   @Test
+   public void reads_typed_values() {
+      Either<List<Fault>, List<Data>> result = subject.runSingleTransaction("RETURN 42 AS answer, 0.5 AS half, true AS yes, 'Trinity' AS name");
+
+      assertThat(result).isRight();
+      Row row = result.getRight().get(0).getRows().get(0);
+      assertThat(row.getLong("answer")).isEqualTo(42L);
+      assertThat(row.getDouble("half")).isEqualTo(0.5);
+      assertThat(row.getBoolean("yes")).isTrue();
+      assertThat(row.getString("name")).isEqualTo("Trinity");
+      assertThat(row.get("answer")).isEqualTo(42L);
+   }
+
+   @Test
+   public void maps_records_into_user_objects() {
+      Either<List<Fault>, List<String>> result = subject.runSingleTransaction(
+            new Statement("UNWIND range(1, 3) AS item RETURN item"),
+            row -> "item-" + row.getLong("item"));
+
+      assertThat(result).isRight();
+      assertThat(result.getRight()).containsExactly("item-1", "item-2", "item-3");
+   }
+
+   @Test
+   public void maps_null_strings_to_null() {
+      Either<List<Fault>, List<String>> result = subject.runSingleTransaction(
+            new Statement("RETURN null AS name"),
+            row -> String.valueOf(row.getString("name")));
+
+      assertThat(result).isRight();
+      assertThat(result.getRight()).containsExactly("null");
+   }
+
+   @Test
+   public void rolls_back_when_the_row_mapper_fails() {
+      try {
+         subject.runSingleTransaction(
+               new Statement("CREATE (c:Crew {name: 'Neo'}) RETURN c.name AS name"),
+               row -> { throw new IllegalStateException("Cannot map " + row.getString("name")); });
+         fail("Expected the mapper exception to be rethrown");
+      } catch (IllegalStateException expected) {
+         assertThat(expected).hasMessage("Cannot map Neo");
+      }
+
+      Either<List<Fault>, List<Data>> result = subject.runSingleTransaction("MATCH (c:Crew) RETURN count(c) AS count");
+      assertThat(result.getRight()).containsExactly(new Data("count", new Row("count", 0L)));
+   }
+
+   @Test
+   public void reports_query_statistics_with_server_timings_only() {
+      Either<List<Fault>, List<Data>> result = subject.runSingleTransaction("CREATE (:Crew {name: 'Neo'})-[:KNOWS]->(:Crew {name: 'Trinity'})");
+
+      assertThat(result).isRight();
+      QuerySummary summary = result.getRight().get(0).getSummary();
+      assertThat(summary.getNodesCreated()).isEqualTo(2);
+      // timings are relayed from the server, which only sends them from Neo4j 3.1 on
+      assertThat(summary.getResultAvailableAfter()).isEqualTo(QuerySummary.UNKNOWN_TIME);
+      assertThat(summary.getResultConsumedAfter()).isEqualTo(QuerySummary.UNKNOWN_TIME);
+   }
+
+   @Test
+   public void runs_unit_of_work_in_retrying_runner() {
+      Either<List<Fault>, ClosedTransaction> result = subject.transactionRunner().run(client -> {
+         Either<List<Fault>, BoltTransaction> transaction = client.openTransaction("CREATE (c:Crew {name: 'Neo'})");
+         if (transaction.isLeft()) {
+            return DefaultEither.left(transaction.getLeft());
+         }
+         return client.commit(transaction.getRight(), "MATCH (c:Crew) RETURN c.name");
+      });
+
+      assertThat(result).isRight();
+      assertThat(result.getRight().getData()).containsExactly(new Data("c.name", new Row("c.name", "Neo")));
+   }
+
    @Test
    public void handles_failing_query() {
       String query = "Not a valid query";
@@ -155,4 +276,16 @@ public class BoltClientTest {
             .isTrue();
       assertThat(closedTransaction.getData()).isEmpty();
    }
-}
\ No newline at end of file
+
+   @Test
+   public void terminates_statements_exceeding_their_timeout() {
+      subject.runSingleTransaction("FOREACH (i IN range(1, 100) | CREATE (:Row {value: i}))");
+
+      Either<List<Fault>, List<Data>> result = subject.runSingleTransaction(
+            new Statement("MATCH (a:Row), (b:Row), (c:Row), (d:Row), (e:Row) RETURN count(*)").withTimeout(100, TimeUnit.MILLISECONDS));
+
+      assertThat(result).isLeft();
+      assertThat(result.getLeft()).hasSize(1);
+      assertThat(result.getLeft().get(0).isTimeout()).overridingErrorMessage("Statement must time out").isTrue();
+   }
+}
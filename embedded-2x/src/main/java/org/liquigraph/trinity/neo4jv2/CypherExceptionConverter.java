@@ -17,6 +17,7 @@ package org.liquigraph.trinity.neo4jv2;
 
 import org.liquigraph.trinity.Fault;
 import org.neo4j.cypher.CypherException;
+import org.neo4j.kernel.DeadlockDetectedException;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
@@ -30,6 +31,10 @@ public enum CypherExceptionConverter {
         this.statusGetter = method(CypherException.class, "status");
     }
 
+    public Fault convert(DeadlockDetectedException deadlockException) {
+        return new Fault("Neo.TransientError.Transaction.DeadlockDetected", deadlockException.getMessage());
+    }
+
     public Fault convert(CypherException cypherException) {
         if (statusGetter != null) {
             return tryBuildFromStatus(cypherException);
@@ -15,132 +15,381 @@
  */
 package org.liquigraph.trinity.neo4jv2;
 
+import org.liquigraph.trinity.AccessMode;
 import org.liquigraph.trinity.ClosedTransaction;
+import org.liquigraph.trinity.ColumnIndex;
 import org.liquigraph.trinity.CypherClient;
+import org.liquigraph.trinity.Cursor;
 import org.liquigraph.trinity.Data;
 import org.liquigraph.trinity.DefaultEither;
 import org.liquigraph.trinity.Either;
 import org.liquigraph.trinity.Fault;
+import org.liquigraph.trinity.QuerySummary;
 import org.liquigraph.trinity.Row;
+import org.liquigraph.trinity.RowMapper;
+import org.liquigraph.trinity.Statement;
+import org.liquigraph.trinity.internal.Watchdog;
 import org.neo4j.cypher.CypherException;
 import org.neo4j.cypher.javacompat.ExecutionEngine;
 import org.neo4j.cypher.javacompat.ExecutionResult;
+import org.neo4j.cypher.javacompat.QueryStatistics;
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.ResourceIterator;
 import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.DeadlockDetectedException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.liquigraph.trinity.internal.Cursors.mapAll;
+import static org.liquigraph.trinity.internal.Cursors.watched;
+import static org.liquigraph.trinity.internal.Statements.statements;
+import static org.liquigraph.trinity.internal.Statements.timeoutMillis;
+import static org.liquigraph.trinity.internal.collection.Lists.prepend;
+
 public final class EmbeddedClient implements CypherClient<OngoingLocalTransaction> {
     private static final Logger LOGGER = LoggerFactory.getLogger(EmbeddedClient.class);
+    private static final Method TERMINATE = terminateMethod();
 
     private final GraphDatabaseService graphDatabase;
     private final ExecutionEngine cypherExecutor;
+    private final long transactionTimeoutMillis;
 
     public EmbeddedClient(GraphDatabaseService graphDatabase) {
+        this(graphDatabase, 0);
+    }
+
+    /**
+     * Transactions still open after {@code transactionTimeoutMillis}, 0 for no timeout, are terminated.
+     * Neo4j versions prior to 2.2 cannot terminate running queries: timed out transactions are then only
+     * rolled back once their current query completes.
+     */
+    public EmbeddedClient(GraphDatabaseService graphDatabase, long transactionTimeoutMillis) {
         this.graphDatabase = graphDatabase;
         this.cypherExecutor = new ExecutionEngine(graphDatabase);
+        this.transactionTimeoutMillis = transactionTimeoutMillis;
     }
 
     @Override
     public Either<List<Fault>, List<Data>> runSingleTransaction(String query, String... queries) {
-        int queryCount = 1 + queries.length;
-        LOGGER.debug("About to run {} queries in a single transaction", queryCount);
-        try (Transaction transaction = graphDatabase.beginTx()) {
-            List<Fault> errors = new ArrayList<>(queryCount);
-            List<Data> data = new ArrayList<>(queryCount);
-            addExecutionResult(execute(query), errors, data);
-            for (String nextQuery : queries) {
-                addExecutionResult(execute(nextQuery), errors, data);
-            }
-            if (!errors.isEmpty()) {
-                LOGGER.warn("Rolling back and closing the transaction after encountering {} errors on {} queries", errors.size(), queries.length);
-                transaction.failure();
-                return DefaultEither.left(errors);
+        return runSingleTransaction(statements(prepend(query, queries)));
+    }
+
+    @Override
+    public Either<List<Fault>, List<Data>> runSingleTransaction(Statement statement, Statement... statements) {
+        return runSingleTransaction(prepend(statement, statements));
+    }
+
+    @Override
+    public Either<List<Fault>, List<Data>> runSingleTransaction(AccessMode accessMode, Statement statement, Statement... statements) {
+        return runSingleTransaction(prepend(statement, statements));
+    }
+
+    @Override
+    public <T> Either<List<Fault>, List<T>> runSingleTransaction(Statement statement, RowMapper<T> mapper) {
+        return mapAll(streamSingleTransaction(statement), mapper);
+    }
+
+    @Override
+    public Either<List<Fault>, Cursor> streamSingleTransaction(Statement statement) {
+        LOGGER.debug("About to stream the results of a single transaction");
+        Transaction transaction = graphDatabase.beginTx();
+        Watchdog watchdog = startWatchdog(transaction, Watchdog.shortest(transactionTimeoutMillis, statement.getTimeoutMillis()));
+        try {
+            ExecutionResult executionResult = cypherExecutor.execute(statement.getQuery(), statement.getParameters());
+            return DefaultEither.<List<Fault>, Cursor>right(
+                watched(new EmbeddedCursor(transaction, executionResult.columns(), executionResult.iterator()), watchdog));
+        }
+        catch (CypherException exception) {
+            LOGGER.error("An unexpected error happened while executing the Cypher query", exception);
+            transaction.failure();
+            transaction.close();
+            if (watchdog.stop()) {
+                return DefaultEither.left(Collections.singletonList(watchdog.fault()));
             }
-            transaction.success();
-            return DefaultEither.right(data);
+            return DefaultEither.left(Collections.singletonList(CypherExceptionConverter.INSTANCE.convert(exception)));
         }
+        catch (RuntimeException exception) {
+            return terminated(exception, transaction, watchdog);
+        }
+    }
+
+    @Override
+    public Either<List<Fault>, Cursor> streamSingleTransaction(AccessMode accessMode, Statement statement) {
+        return streamSingleTransaction(statement);
     }
 
     @Override
     public Either<List<Fault>, OngoingLocalTransaction> openTransaction(String... queries) {
-        LOGGER.debug("About to open a transaction and run {} queries", queries.length);
-        return executeQueriesInTransaction(graphDatabase.beginTx(), queries);
+        return openTransaction(AccessMode.WRITE, statements(asList(queries)));
+    }
+
+    @Override
+    public Either<List<Fault>, OngoingLocalTransaction> openTransaction(Statement statement, Statement... statements) {
+        return openTransaction(AccessMode.WRITE, prepend(statement, statements));
+    }
+
+    /**
+     * The access mode is only recorded on the returned transaction: the embedded database serves reads and writes alike.
+     */
+    @Override
+    public Either<List<Fault>, OngoingLocalTransaction> openTransaction(AccessMode accessMode, Statement... statements) {
+        return openTransaction(accessMode, asList(statements));
     }
 
     @Override
     public Either<List<Fault>, OngoingLocalTransaction> execute(OngoingLocalTransaction transaction, String... queries) {
-        LOGGER.debug("About to run {} queries in currently open transaction", queries.length);
-        return executeQueriesInTransaction(transaction.getLocalTransaction(), queries);
+        return execute(transaction, statements(asList(queries)));
+    }
+
+    @Override
+    public Either<List<Fault>, OngoingLocalTransaction> execute(OngoingLocalTransaction transaction, Statement statement, Statement... statements) {
+        return execute(transaction, prepend(statement, statements));
     }
 
     @Override
     public Either<List<Fault>, ClosedTransaction> commit(OngoingLocalTransaction transaction, String... queries) {
-        LOGGER.debug("About to run {} queries and commit open transaction", queries.length);
+        return commit(transaction, statements(asList(queries)));
+    }
+
+    @Override
+    public Either<List<Fault>, ClosedTransaction> commit(OngoingLocalTransaction transaction, Statement statement, Statement... statements) {
+        return commit(transaction, prepend(statement, statements));
+    }
+
+    @Override
+    public Either<List<Fault>, ClosedTransaction> rollback(OngoingLocalTransaction transaction) {
+        LOGGER.debug("About to roll back open transaction");
+        Watchdog transactionWatchdog = transaction.getWatchdog();
         try (Transaction localTransaction = transaction.getLocalTransaction()) {
-            List<Fault> errors = new ArrayList<>(queries.length);
-            List<Data> data = new ArrayList<>(queries.length);
-            for (String nextQuery : queries) {
-                addExecutionResult(execute(nextQuery), errors, data);
+            localTransaction.failure();
+            return DefaultEither.right(ClosedTransaction.ROLLED_BACK);
+        }
+        catch (RuntimeException exception) {
+            if (!transactionWatchdog.hasExpired()) {
+                throw exception;
+            }
+            LOGGER.debug("Transaction had already been terminated after timing out", exception);
+            return DefaultEither.right(ClosedTransaction.ROLLED_BACK);
+        }
+        finally {
+            transactionWatchdog.stop();
+        }
+    }
+
+    private Either<List<Fault>, List<Data>> runSingleTransaction(List<Statement> statements) {
+        int queryCount = statements.size();
+        LOGGER.debug("About to run {} queries in a single transaction", queryCount);
+        Transaction transaction = graphDatabase.beginTx();
+        Watchdog transactionWatchdog = startWatchdog(transaction, transactionTimeoutMillis);
+        Watchdog statementsWatchdog = startWatchdog(transaction, timeoutMillis(statements));
+        try (Transaction ignored = transaction) {
+            List<Fault> errors = new ArrayList<>(queryCount);
+            List<Data> data = new ArrayList<>(queryCount);
+            executeAll(statements, errors, data, statementsWatchdog, transactionWatchdog);
+            if (!errors.isEmpty()) {
+                LOGGER.warn("Rolling back and closing the transaction after encountering {} errors on {} queries", errors.size(), queryCount);
+                transaction.failure();
+                return DefaultEither.left(errors);
             }
+            transaction.success();
+            return DefaultEither.right(data);
+        }
+        catch (RuntimeException exception) {
+            return terminated(exception, transaction, statementsWatchdog, transactionWatchdog);
+        }
+        finally {
+            statementsWatchdog.stop();
+            transactionWatchdog.stop();
+        }
+    }
+
+    private Either<List<Fault>, OngoingLocalTransaction> openTransaction(AccessMode accessMode, List<Statement> statements) {
+        LOGGER.debug("About to open a {} transaction and run {} queries", accessMode, statements.size());
+        Transaction localTransaction = graphDatabase.beginTx();
+        return executeQueriesInTransaction(localTransaction, startWatchdog(localTransaction, transactionTimeoutMillis), accessMode, statements);
+    }
+
+    private Either<List<Fault>, OngoingLocalTransaction> execute(OngoingLocalTransaction transaction, List<Statement> statements) {
+        LOGGER.debug("About to run {} queries in currently open transaction", statements.size());
+        return executeQueriesInTransaction(transaction.getLocalTransaction(), transaction.getWatchdog(), transaction.getAccessMode(), statements);
+    }
+
+    private Either<List<Fault>, ClosedTransaction> commit(OngoingLocalTransaction transaction, List<Statement> statements) {
+        LOGGER.debug("About to run {} queries and commit open transaction", statements.size());
+        Transaction localTransaction = transaction.getLocalTransaction();
+        Watchdog transactionWatchdog = transaction.getWatchdog();
+        if (transactionWatchdog.hasExpired()) {
+            return terminated(localTransaction, transactionWatchdog);
+        }
+        Watchdog statementsWatchdog = startWatchdog(localTransaction, timeoutMillis(statements));
+        try (Transaction ignored = localTransaction) {
+            List<Fault> errors = new ArrayList<>(statements.size());
+            List<Data> data = new ArrayList<>(statements.size());
+            executeAll(statements, errors, data, statementsWatchdog, transactionWatchdog);
             if (!errors.isEmpty()) {
-                LOGGER.warn("Rolling back and closing the transaction after encountering {} errors on {} queries", errors.size(), queries.length);
+                LOGGER.warn("Rolling back and closing the transaction after encountering {} errors on {} queries", errors.size(), statements.size());
                 localTransaction.failure();
                 return DefaultEither.left(errors);
             }
             localTransaction.success();
             return DefaultEither.right(new ClosedTransaction(data, false));
         }
+        catch (RuntimeException exception) {
+            return terminated(exception, localTransaction, statementsWatchdog, transactionWatchdog);
+        }
+        finally {
+            statementsWatchdog.stop();
+            transactionWatchdog.stop();
+        }
     }
 
-    @Override
-    public Either<List<Fault>, ClosedTransaction> rollback(OngoingLocalTransaction transaction) {
-        LOGGER.debug("About to roll back open transaction");
-        try (Transaction localTransaction = transaction.getLocalTransaction()) {
-            localTransaction.failure();
-            return DefaultEither.right(ClosedTransaction.ROLLED_BACK);
+    private Either<List<Fault>, OngoingLocalTransaction> executeQueriesInTransaction(Transaction localTransaction,
+                                                                                     Watchdog transactionWatchdog,
+                                                                                     AccessMode accessMode,
+                                                                                     List<Statement> statements) {
+
+        if (transactionWatchdog.hasExpired()) {
+            return terminated(localTransaction, transactionWatchdog);
+        }
+        Watchdog statementsWatchdog = startWatchdog(localTransaction, timeoutMillis(statements));
+        try {
+            List<Fault> errors = new ArrayList<>(statements.size());
+            List<Data> data = new ArrayList<>(statements.size());
+            executeAll(statements, errors, data, statementsWatchdog, transactionWatchdog);
+
+            if (!errors.isEmpty()) {
+                LOGGER.warn("Rolling back and closing the transaction after encountering {} errors on {} queries", errors.size(), statements.size());
+                transactionWatchdog.stop();
+                localTransaction.failure();
+                localTransaction.close();
+                return DefaultEither.left(errors);
+            }
+            return DefaultEither.right(new OngoingLocalTransaction(localTransaction, data, accessMode, transactionWatchdog));
+        }
+        catch (RuntimeException exception) {
+            return terminated(exception, localTransaction, statementsWatchdog, transactionWatchdog);
+        }
+        finally {
+            statementsWatchdog.stop();
         }
     }
 
-    private Either<List<Fault>, OngoingLocalTransaction> executeQueriesInTransaction(Transaction localTransaction,
-                                                                                     String[] queries) {
+    /**
+     * Stops at the first expired watchdog, reporting a single timeout fault instead of the faults of the terminated queries.
+     */
+    private void executeAll(List<Statement> statements, List<Fault> errors, List<Data> data, Watchdog... watchdogs) {
+        for (Statement statement : statements) {
+            Either<Fault, Data> result = execute(statement);
+            Fault timeout = timeoutFault(watchdogs);
+            if (timeout != null) {
+                LOGGER.warn("Rolling back and closing the transaction after timing out");
+                errors.clear();
+                errors.add(timeout);
+                return;
+            }
+            addExecutionResult(result, errors, data);
+        }
+    }
 
-        List<Fault> errors = new ArrayList<>(queries.length);
-        List<Data> data = new ArrayList<>(queries.length);
-        for (String nextQuery : queries) {
-            addExecutionResult(execute(nextQuery), errors, data);
+    private <T> Either<List<Fault>, T> terminated(RuntimeException exception, Transaction transaction, Watchdog... watchdogs) {
+        if (timeoutFault(watchdogs) == null) {
+            throw exception;
         }
+        LOGGER.warn("Transaction has been terminated after timing out", exception);
+        return terminated(transaction, watchdogs);
+    }
 
-        if (!errors.isEmpty()) {
-            LOGGER.warn("Rolling back and closing the transaction after encountering {} errors on {} queries", errors.size(), queries.length);
-            localTransaction.failure();
-            localTransaction.close();
-            return DefaultEither.left(errors);
+    private <T> Either<List<Fault>, T> terminated(Transaction transaction, Watchdog... watchdogs) {
+        Fault timeout = timeoutFault(watchdogs);
+        for (Watchdog watchdog : watchdogs) {
+            watchdog.stop();
+        }
+        try {
+            transaction.failure();
+            transaction.close();
+        }
+        catch (RuntimeException closeException) {
+            LOGGER.debug("Terminated transaction could not be closed cleanly", closeException);
         }
-        return DefaultEither.right(new OngoingLocalTransaction(localTransaction, data));
+        return DefaultEither.left(Collections.singletonList(timeout));
     }
 
-    private Either<Fault, Data> execute(String query) {
+    private static Fault timeoutFault(Watchdog... watchdogs) {
+        for (Watchdog watchdog : watchdogs) {
+            if (watchdog.hasExpired()) {
+                return watchdog.fault();
+            }
+        }
+        return null;
+    }
+
+    private static Watchdog startWatchdog(final Transaction transaction, long timeoutMillis) {
+        return Watchdog.start(timeoutMillis, new Runnable() {
+            @Override
+            public void run() {
+                terminate(transaction);
+            }
+        });
+    }
+
+    private static void terminate(Transaction transaction) {
+        if (TERMINATE == null) {
+            LOGGER.debug("Running query cannot be terminated, transaction will be rolled back once it completes");
+            return;
+        }
         try {
-            ExecutionResult executionResult = cypherExecutor.execute(query);
+            TERMINATE.invoke(transaction);
+        }
+        catch (IllegalAccessException | InvocationTargetException e) {
+            LOGGER.warn("Could not terminate timed out transaction", e);
+        }
+    }
+
+    /**
+     * <code>Transaction#terminate</code> is only available as of Neo4j 2.2.
+     */
+    private static Method terminateMethod() {
+        try {
+            return Transaction.class.getMethod("terminate");
+        }
+        catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private Either<Fault, Data> execute(Statement statement) {
+        try {
+            long start = System.nanoTime();
+            ExecutionResult executionResult = cypherExecutor.execute(statement.getQuery(), statement.getParameters());
+            long availableAfter = NANOSECONDS.toMillis(System.nanoTime() - start);
             try (ResourceIterator<Map<String, Object>> resultIterator = executionResult.iterator()) {
+                ColumnIndex columns = new ColumnIndex(executionResult.columns());
                 List<Row> rows = new ArrayList<>();
+                long consumptionStart = System.nanoTime();
                 while (resultIterator.hasNext()) {
-                    rows.add(new Row(asJavaMap(resultIterator.next())));
+                    rows.add(toRow(columns, resultIterator.next()));
                 }
-                return DefaultEither.right(new Data(executionResult.columns(), rows));
+                long consumedAfter = NANOSECONDS.toMillis(System.nanoTime() - consumptionStart);
+                return DefaultEither.right(new Data(columns, rows, summary(executionResult.getQueryStatistics(), availableAfter, consumedAfter)));
             }
         }
         catch (CypherException exception) {
             LOGGER.error("An unexpected error happened while executing the Cypher query", exception);
             return DefaultEither.left(CypherExceptionConverter.INSTANCE.convert(exception));
         }
+        catch (DeadlockDetectedException exception) {
+            LOGGER.warn("A deadlock was detected while executing the Cypher query", exception);
+            return DefaultEither.left(CypherExceptionConverter.INSTANCE.convert(exception));
+        }
     }
 
     private void addExecutionResult(Either<Fault, Data> execution, List<Fault> errors, List<Data> result) {
@@ -154,18 +403,37 @@ public final class EmbeddedClient implements CypherClient<OngoingLocalTransactio
         }
     }
 
+    private static QuerySummary summary(QueryStatistics statistics, long availableAfter, long consumedAfter) {
+        return new QuerySummary.Builder()
+            .nodesCreated(statistics.getNodesCreated())
+            .nodesDeleted(statistics.getDeletedNodes())
+            .relationshipsCreated(statistics.getRelationshipsCreated())
+            .relationshipsDeleted(statistics.getDeletedRelationships())
+            .propertiesSet(statistics.getPropertiesSet())
+            .labelsAdded(statistics.getLabelsAdded())
+            .labelsRemoved(statistics.getLabelsRemoved())
+            .indexesAdded(statistics.getIndexesAdded())
+            .indexesRemoved(statistics.getIndexesRemoved())
+            .constraintsAdded(statistics.getConstraintsAdded())
+            .constraintsRemoved(statistics.getConstraintsRemoved())
+            .resultAvailableAfter(availableAfter)
+            .resultConsumedAfter(consumedAfter)
+            .build();
+    }
+
     /**
-     * This re-creates a Map from scratch
+     * This copies the row values in column order
      *
      * <code>org.neo4j.cypher.javacompat.ExecutionEngine</code> returns a
-     * <code>scala.collection.convert.Wrappers$MapWrapper</code> which is
-     * sadly not equal to a j.u.HashMap.
+     * <code>scala.collection.convert.Wrappers$MapWrapper</code> per row,
+     * which must not be retained.
      */
-    private Map<String, Object> asJavaMap(Map<String, Object> row) {
-        Map<String, Object> result = new HashMap<>((int) Math.ceil(row.size() / 0.75));
-        for (Map.Entry<String, Object> entry : row.entrySet()) {
-            result.put(entry.getKey(), entry.getValue());
+    static Row toRow(ColumnIndex columns, Map<String, Object> row) {
+        List<String> names = columns.getColumns();
+        Object[] values = new Object[names.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = row.get(names.get(i));
         }
-        return result;
+        return new Row(columns, values);
     }
 }
@@ -46,7 +46,7 @@ public class EmbeddedClientCreator implements CypherClientCreator {
 
     @Override
     public EmbeddedClient create(Properties properties) {
-        return new EmbeddedClient(newGraphDatabase(properties));
+        return new EmbeddedClient(newGraphDatabase(properties), readTransactionTimeout(properties));
     }
 
     private static Map<String, Setting<?>> populateSettings() {
@@ -94,6 +94,10 @@ public class EmbeddedClientCreator implements CypherClientCreator {
         }
     }
 
+    private static long readTransactionTimeout(Properties properties) {
+        return Long.parseLong(properties.getProperty("cypher.embeddedv2.transaction-timeout-milliseconds", "0"), 10);
+    }
+
     private String readPath(Properties properties) {
         String pathSetting = "cypher.embeddedv2.path";
         String property = properties.getProperty(pathSetting);
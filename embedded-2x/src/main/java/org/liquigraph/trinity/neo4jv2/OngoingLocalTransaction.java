@@ -15,8 +15,10 @@
  */
 package org.liquigraph.trinity.neo4jv2;
 
+import org.liquigraph.trinity.AccessMode;
 import org.liquigraph.trinity.Data;
 import org.liquigraph.trinity.OngoingTransaction;
+import org.liquigraph.trinity.internal.Watchdog;
 import org.neo4j.graphdb.Transaction;
 
 import java.util.List;
@@ -26,10 +28,22 @@ public final class OngoingLocalTransaction implements OngoingTransaction {
 
     private final Transaction localTransaction;
     private final List<Data> data;
+    private final AccessMode accessMode;
+    private final Watchdog watchdog;
 
     public OngoingLocalTransaction(Transaction localTransaction, List<Data> data) {
+        this(localTransaction, data, AccessMode.WRITE);
+    }
+
+    public OngoingLocalTransaction(Transaction localTransaction, List<Data> data, AccessMode accessMode) {
+        this(localTransaction, data, accessMode, Watchdog.disabled());
+    }
+
+    OngoingLocalTransaction(Transaction localTransaction, List<Data> data, AccessMode accessMode, Watchdog watchdog) {
         this.localTransaction = localTransaction;
         this.data = data;
+        this.accessMode = accessMode;
+        this.watchdog = watchdog;
     }
 
     @Override
@@ -37,9 +51,14 @@ public final class OngoingLocalTransaction implements OngoingTransaction {
         return data;
     }
 
+    @Override
+    public AccessMode getAccessMode() {
+        return accessMode;
+    }
+
     @Override
     public int hashCode() {
-        return Objects.hash(localTransaction, data);
+        return Objects.hash(localTransaction, data, accessMode);
     }
 
     @Override
@@ -52,10 +71,15 @@ public final class OngoingLocalTransaction implements OngoingTransaction {
         }
         final OngoingLocalTransaction other = (OngoingLocalTransaction) obj;
         return Objects.equals(this.localTransaction, other.localTransaction)
-                && Objects.equals(this.data, other.data);
+                && Objects.equals(this.data, other.data)
+                && Objects.equals(this.accessMode, other.accessMode);
     }
 
     Transaction getLocalTransaction() {
         return localTransaction;
     }
+
+    Watchdog getWatchdog() {
+        return watchdog;
+    }
 }
@@ -16,12 +16,17 @@
 package org.liquigraph.trinity.neo4jv2;
 
 import org.liquigraph.trinity.ClosedTransaction;
+import org.liquigraph.trinity.Cursor;
 import org.liquigraph.trinity.Data;
 import org.liquigraph.trinity.Either;
 import org.liquigraph.trinity.Fault;
 import org.liquigraph.trinity.Neo4jVersionDetector;
+import org.liquigraph.trinity.QuerySummary;
 import org.liquigraph.trinity.Row;
+import org.liquigraph.trinity.RowView;
+import org.liquigraph.trinity.RowMapper;
 import org.liquigraph.trinity.SemanticVersion;
+import org.liquigraph.trinity.Statement;
 import org.assertj.core.api.Assertions;
 import org.junit.Before;
 import org.junit.Rule;
@@ -34,6 +39,7 @@ import org.neo4j.tooling.GlobalGraphOperations;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Collections;
 import java.util.List;
 
 import static org.liquigraph.trinity.Assertions.assertThat;
@@ -82,6 +88,54 @@ public class EmbeddedClientTest {
                     new Row("Réponse à La Grande Question sur la vie, l'univers et le reste", 42L)));
     }
 
+    @Test
+    public void runs_parameterized_statements() {
+        Either<List<Fault>, List<Data>> result = subject.runSingleTransaction(
+            new Statement("CREATE (n:Foo {type: {type}}) RETURN n.type", Collections.<String, Object>singletonMap("type", "Fighter")));
+
+        assertThat(result).isRight();
+        assertThat(result.getRight())
+            .containsExactly(new Data("n.type", new Row("n.type", "Fighter")));
+    }
+
+    @Test
+    public void streams_statement_results() {
+        Either<List<Fault>, Cursor> result = subject.streamSingleTransaction(new Statement("RETURN 42 AS answer"));
+
+        assertThat(result).isRight();
+        try (Cursor cursor = result.getRight()) {
+            assertThat(cursor.getColumns()).containsExactly("answer");
+            assertThat(cursor).containsExactly(new Row("answer", 42L));
+            assertThat(cursor.getFaults()).isEmpty();
+        }
+    }
+
+    @Test
+    public void maps_rows_into_user_objects() {
+        Either<List<Fault>, List<String>> result = subject.runSingleTransaction(
+            new Statement("RETURN 42 AS answer"),
+            new RowMapper<String>() {
+                @Override
+                public String map(RowView row) {
+                    return "answer-" + row.getLong("answer");
+                }
+            });
+
+        assertThat(result).isRight();
+        assertThat(result.getRight()).containsExactly("answer-42");
+    }
+
+    @Test
+    public void reports_query_statistics_with_client_timings() {
+        Either<List<Fault>, List<Data>> result = subject.runSingleTransaction("CREATE (:Crew {name: 'Neo'})-[:KNOWS]->(:Crew {name: 'Trinity'})");
+
+        assertThat(result).isRight();
+        QuerySummary summary = result.getRight().get(0).getSummary();
+        assertThat(summary.getNodesCreated()).isEqualTo(2);
+        assertThat(summary.getResultAvailableAfter()).isGreaterThanOrEqualTo(0L);
+        assertThat(summary.getResultConsumedAfter()).isGreaterThanOrEqualTo(0L);
+    }
+
     @Test
     public void returns_errors_from_invalid_statements() {
         Either<List<Fault>, List<Data>> result = subject.runSingleTransaction(
@@ -15,101 +15,282 @@
  */
 package org.liquigraph.trinity.neo4jv3;
 
+import org.liquigraph.trinity.AccessMode;
 import org.liquigraph.trinity.ClosedTransaction;
+import org.liquigraph.trinity.ColumnIndex;
 import org.liquigraph.trinity.CypherClient;
+import org.liquigraph.trinity.Cursor;
 import org.liquigraph.trinity.Data;
+import org.liquigraph.trinity.Either;
 import org.liquigraph.trinity.Fault;
+import org.liquigraph.trinity.QuerySummary;
 import org.liquigraph.trinity.Row;
+import org.liquigraph.trinity.RowMapper;
+import org.liquigraph.trinity.Statement;
 import org.liquigraph.trinity.internal.FunctionalEither;
+import org.liquigraph.trinity.internal.Watchdog;
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.QueryExecutionException;
+import org.neo4j.graphdb.QueryStatistics;
 import org.neo4j.graphdb.Result;
 import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.DeadlockDetectedException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Spliterator;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import static org.liquigraph.trinity.internal.Cursors.mapAll;
+import static org.liquigraph.trinity.internal.Cursors.watched;
+import static org.liquigraph.trinity.internal.Statements.timeoutMillis;
 import static org.liquigraph.trinity.internal.Streams.createStream;
 import static java.util.Arrays.stream;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 public final class EmbeddedClient implements CypherClient<OngoingLocalTransaction> {
     private static final Logger LOGGER = LoggerFactory.getLogger(EmbeddedClient.class);
+    private static final String DEADLOCK_DETECTED = "Neo.TransientError.Transaction.DeadlockDetected";
 
     private GraphDatabaseService graphDatabase;
+    private final long transactionTimeoutMillis;
 
     public EmbeddedClient(GraphDatabaseService graphDatabase) {
+        this(graphDatabase, 0);
+    }
+
+    /**
+     * Transactions still open after {@code transactionTimeoutMillis}, 0 for no timeout, are terminated.
+     */
+    public EmbeddedClient(GraphDatabaseService graphDatabase, long transactionTimeoutMillis) {
         this.graphDatabase = graphDatabase;
+        this.transactionTimeoutMillis = transactionTimeoutMillis;
     }
 
     @Override
     public FunctionalEither<List<Fault>, List<Data>> runSingleTransaction(String query, String... queries) {
-        LOGGER.debug("About to run {} queries in a single transaction", 1 + queries.length);
-        try (Transaction transaction = graphDatabase.beginTx()) {
-            return map(
-                executeAll(query, queries),
-                transaction,
-                Transaction::failure,
-                Transaction::success,
-                Function.identity()
-            );
+        return runSingleTransaction(new Statement(query), asStatements(queries));
+    }
+
+    @Override
+    public FunctionalEither<List<Fault>, List<Data>> runSingleTransaction(Statement statement, Statement... statements) {
+        LOGGER.debug("About to run {} queries in a single transaction", 1 + statements.length);
+        Statement[] allStatements = prepend(statement, statements);
+        Transaction transaction = graphDatabase.beginTx();
+        Watchdog transactionWatchdog = startWatchdog(transaction, transactionTimeoutMillis);
+        try {
+            return bounded(transaction, transactionWatchdog, allStatements, () -> {
+                try (Transaction ignored = transaction) {
+                    return map(
+                        executeAll(stream(allStatements)),
+                        transaction,
+                        Transaction::failure,
+                        Transaction::success,
+                        Function.identity()
+                    );
+                }
+            });
+        } finally {
+            transactionWatchdog.stop();
         }
     }
 
+    @Override
+    public FunctionalEither<List<Fault>, List<Data>> runSingleTransaction(AccessMode accessMode, Statement statement, Statement... statements) {
+        return runSingleTransaction(statement, statements);
+    }
+
+    @Override
+    public <T> Either<List<Fault>, List<T>> runSingleTransaction(Statement statement, RowMapper<T> mapper) {
+        return mapAll(streamSingleTransaction(statement), mapper);
+    }
+
+    @Override
+    public FunctionalEither<List<Fault>, Cursor> streamSingleTransaction(Statement statement) {
+        LOGGER.debug("About to stream the results of a single transaction");
+        Transaction transaction = graphDatabase.beginTx();
+        Watchdog watchdog = startWatchdog(transaction, Watchdog.shortest(transactionTimeoutMillis, statement.getTimeoutMillis()));
+        FunctionalEither<Fault, TimedResult> result;
+        try {
+            result = execute(statement);
+        } catch (RuntimeException e) {
+            return terminated(e, transaction, watchdog);
+        }
+        if (result.isLeft()) {
+            rollbackAndClose(transaction);
+            if (watchdog.stop()) {
+                return FunctionalEither.left(Collections.singletonList(watchdog.fault()));
+            }
+        }
+        return result.fold(
+            Collections::singletonList,
+            executionResult -> watched(new EmbeddedCursor(transaction, executionResult.result), watchdog)
+        );
+    }
+
+    @Override
+    public FunctionalEither<List<Fault>, Cursor> streamSingleTransaction(AccessMode accessMode, Statement statement) {
+        return streamSingleTransaction(statement);
+    }
+
     @Override
     public FunctionalEither<List<Fault>, OngoingLocalTransaction> openTransaction(String... queries) {
-        LOGGER.debug("About to open a transaction and run {} queries", queries.length);
-        return executeInTransaction(graphDatabase.beginTx(), queries);
+        return openTransaction(AccessMode.WRITE, asStatements(queries));
+    }
+
+    @Override
+    public FunctionalEither<List<Fault>, OngoingLocalTransaction> openTransaction(Statement statement, Statement... statements) {
+        return openTransaction(AccessMode.WRITE, prepend(statement, statements));
+    }
+
+    /**
+     * The access mode is only recorded on the returned transaction: the embedded database serves reads and writes alike.
+     */
+    @Override
+    public FunctionalEither<List<Fault>, OngoingLocalTransaction> openTransaction(AccessMode accessMode, Statement... statements) {
+        LOGGER.debug("About to open a {} transaction and run {} queries", accessMode, statements.length);
+        Transaction transaction = graphDatabase.beginTx();
+        return executeInTransaction(transaction, startWatchdog(transaction, transactionTimeoutMillis), accessMode, statements);
     }
 
     @Override
     public FunctionalEither<List<Fault>, OngoingLocalTransaction> execute(OngoingLocalTransaction ongoingTransaction, String... queries) {
-        LOGGER.debug("About to run {} queries in currently open transaction", queries.length);
-        return executeInTransaction(ongoingTransaction.getTransaction(), queries);
+        return execute(ongoingTransaction, asStatements(queries));
+    }
+
+    @Override
+    public FunctionalEither<List<Fault>, OngoingLocalTransaction> execute(OngoingLocalTransaction ongoingTransaction, Statement statement, Statement... statements) {
+        return execute(ongoingTransaction, prepend(statement, statements));
     }
 
     @Override
     public FunctionalEither<List<Fault>, ClosedTransaction> commit(OngoingLocalTransaction transaction, String... queries) {
-        LOGGER.debug("About to run {} queries and commit open transaction", queries.length);
-        return map(
-            executeAll(stream(queries)),
-            transaction.getTransaction(),
-            this::rollbackAndClose,
-            (tx) -> {},
-            (data) -> new ClosedTransaction(data, false)
-        );
+        return commit(transaction, asStatements(queries));
+    }
+
+    @Override
+    public FunctionalEither<List<Fault>, ClosedTransaction> commit(OngoingLocalTransaction transaction, Statement statement, Statement... statements) {
+        return commit(transaction, prepend(statement, statements));
     }
 
     @Override
     public FunctionalEither<List<Fault>, ClosedTransaction> rollback(OngoingLocalTransaction transaction) {
         LOGGER.debug("About to roll back open transaction");
-        return map(
-            Collections.emptyList(),
-            transaction.getTransaction(),
-            this::rollbackAndClose,
-            this::rollbackAndClose,
-            (data) -> new ClosedTransaction(data, true)
-        );
+        Watchdog transactionWatchdog = transaction.getWatchdog();
+        try {
+            return map(
+                Collections.emptyList(),
+                transaction.getTransaction(),
+                this::rollbackAndClose,
+                this::rollbackAndClose,
+                (data) -> new ClosedTransaction(data, true)
+            );
+        } catch (RuntimeException e) {
+            if (!transactionWatchdog.hasExpired()) {
+                throw e;
+            }
+            LOGGER.debug("Transaction had already been terminated after timing out", e);
+            return FunctionalEither.right(ClosedTransaction.ROLLED_BACK);
+        } finally {
+            transactionWatchdog.stop();
+        }
     }
 
-    private FunctionalEither<List<Fault>, OngoingLocalTransaction> executeInTransaction(Transaction transaction, String[] queries) {
-        return map(
-            executeAll(stream(queries)),
+    private FunctionalEither<List<Fault>, OngoingLocalTransaction> execute(OngoingLocalTransaction ongoingTransaction, Statement[] statements) {
+        LOGGER.debug("About to run {} queries in currently open transaction", statements.length);
+        return executeInTransaction(ongoingTransaction.getTransaction(), ongoingTransaction.getWatchdog(), ongoingTransaction.getAccessMode(), statements);
+    }
+
+    private FunctionalEither<List<Fault>, ClosedTransaction> commit(OngoingLocalTransaction transaction, Statement[] statements) {
+        LOGGER.debug("About to run {} queries and commit open transaction", statements.length);
+        Transaction localTransaction = transaction.getTransaction();
+        Watchdog transactionWatchdog = transaction.getWatchdog();
+        try {
+            return bounded(localTransaction, transactionWatchdog, statements, () -> map(
+                executeAll(stream(statements)),
+                localTransaction,
+                this::rollbackAndClose,
+                this::commitAndClose,
+                (data) -> new ClosedTransaction(data, false)
+            ));
+        } finally {
+            transactionWatchdog.stop();
+        }
+    }
+
+    private FunctionalEither<List<Fault>, OngoingLocalTransaction> executeInTransaction(Transaction transaction,
+                                                                                        Watchdog transactionWatchdog,
+                                                                                        AccessMode accessMode,
+                                                                                        Statement[] statements) {
+        return bounded(transaction, transactionWatchdog, statements, () -> map(
+            executeAll(stream(statements)),
             transaction,
             this::rollbackAndClose,
             (tx) -> {},
-            (data) -> new OngoingLocalTransaction(transaction, data)
-        );
+            (data) -> new OngoingLocalTransaction(transaction, data, accessMode, transactionWatchdog)
+        ));
+    }
+
+    /**
+     * Runs the work under the timeout of the given statements, on top of the transaction one.
+     * Faults met once a timeout expired are reported as a single timeout fault.
+     */
+    private <T> FunctionalEither<List<Fault>, T> bounded(Transaction transaction,
+                                                         Watchdog transactionWatchdog,
+                                                         Statement[] statements,
+                                                         Supplier<FunctionalEither<List<Fault>, T>> work) {
+        if (transactionWatchdog.hasExpired()) {
+            closeTerminated(transaction);
+            return FunctionalEither.left(Collections.singletonList(transactionWatchdog.fault()));
+        }
+        Watchdog statementsWatchdog = startWatchdog(transaction, timeoutMillis(Arrays.asList(statements)));
+        try {
+            FunctionalEither<List<Fault>, T> result = work.get();
+            if (result.isLeft()) {
+                transactionWatchdog.stop();
+                if (statementsWatchdog.hasExpired() || transactionWatchdog.hasExpired()) {
+                    return FunctionalEither.left(Collections.singletonList(timeoutFault(statementsWatchdog, transactionWatchdog)));
+                }
+            }
+            return result;
+        } catch (RuntimeException e) {
+            return terminated(e, transaction, statementsWatchdog, transactionWatchdog);
+        } finally {
+            statementsWatchdog.stop();
+        }
     }
 
-    private <T> FunctionalEither<List<Fault>, T> map(List<FunctionalEither<Fault, Result>> results,
+    private <T> FunctionalEither<List<Fault>, T> terminated(RuntimeException e, Transaction transaction, Watchdog... watchdogs) {
+        for (Watchdog watchdog : watchdogs) {
+            if (watchdog.hasExpired()) {
+                LOGGER.warn("Transaction has been terminated after timing out", e);
+                for (Watchdog other : watchdogs) {
+                    other.stop();
+                }
+                closeTerminated(transaction);
+                return FunctionalEither.left(Collections.singletonList(watchdog.fault()));
+            }
+        }
+        throw e;
+    }
+
+    private static Fault timeoutFault(Watchdog statementsWatchdog, Watchdog transactionWatchdog) {
+        return statementsWatchdog.hasExpired() ? statementsWatchdog.fault() : transactionWatchdog.fault();
+    }
+
+    private static Watchdog startWatchdog(Transaction transaction, long timeoutMillis) {
+        return Watchdog.start(timeoutMillis, transaction::terminate);
+    }
+
+    private <T> FunctionalEither<List<Fault>, T> map(List<FunctionalEither<Fault, TimedResult>> results,
                                                      Transaction transaction,
                                                      Consumer<Transaction> onError,
                                                      Consumer<Transaction> onSuccess,
@@ -122,18 +303,26 @@ public final class EmbeddedClient implements CypherClient<OngoingLocalTransactio
             return FunctionalEither.left(errors);
         }
 
+        T result;
+        try {
+            result = this.collectResults(results, resultMapper);
+        } catch (QueryExecutionException exception) {
+            LOGGER.error("An unexpected error happened while fetching the query results", exception);
+            onError.accept(transaction);
+            return FunctionalEither.left(Collections.singletonList(new Fault(exception.getStatusCode(), exception.getMessage())));
+        }
         onSuccess.accept(transaction);
-        return FunctionalEither.right(this.collectResults(results, resultMapper));
+        return FunctionalEither.right(result);
     }
 
-    private List<Fault> collectErrors(List<FunctionalEither<Fault, Result>> rawResults) {
+    private List<Fault> collectErrors(List<FunctionalEither<Fault, TimedResult>> rawResults) {
         return rawResults.stream()
             .filter(FunctionalEither::isLeft)
             .map(FunctionalEither::getLeft)
             .collect(Collectors.toList());
     }
 
-    private <T> T collectResults(List<FunctionalEither<Fault, Result>> rawResults, Function<List<Data>, T> resultExtractor) {
+    private <T> T collectResults(List<FunctionalEither<Fault, TimedResult>> rawResults, Function<List<Data>, T> resultExtractor) {
         return resultExtractor.apply(
             rawResults.stream()
                 .map(FunctionalEither::getRight)
@@ -141,39 +330,106 @@ public final class EmbeddedClient implements CypherClient<OngoingLocalTransactio
                 .collect(Collectors.toList()));
     }
 
-    private List<FunctionalEither<Fault, Result>> executeAll(String query, String[] queries) {
-        Stream<String> allQueries = Stream.concat(Stream.of(query), Arrays.stream(queries));
-        return executeAll(allQueries);
-    }
-
-    private List<FunctionalEither<Fault, Result>> executeAll(Stream<String> stream) {
+    private List<FunctionalEither<Fault, TimedResult>> executeAll(Stream<Statement> stream) {
         return stream.map(this::execute).collect(Collectors.toList());
     }
 
-    private FunctionalEither<Fault, Result> execute(String query) {
+    private FunctionalEither<Fault, TimedResult> execute(Statement statement) {
         try {
-            return FunctionalEither.right(graphDatabase.execute(query));
+            long start = System.nanoTime();
+            Result result = graphDatabase.execute(statement.getQuery(), statement.getParameters());
+            return FunctionalEither.right(new TimedResult(result, NANOSECONDS.toMillis(System.nanoTime() - start)));
         }
         catch (QueryExecutionException exception) {
             LOGGER.error("An unexpected error happened while executing the Cypher query", exception);
             return FunctionalEither.left(new Fault(exception.getStatusCode(), exception.getMessage()));
         }
+        catch (DeadlockDetectedException exception) {
+            LOGGER.warn("A deadlock was detected while executing the Cypher query", exception);
+            return FunctionalEither.left(deadlockFault(exception));
+        }
+    }
+
+    static Fault deadlockFault(DeadlockDetectedException exception) {
+        return new Fault(DEADLOCK_DETECTED, exception.getMessage());
+    }
+
+    private Data asResultData(TimedResult timedResult) {
+        Result result = timedResult.result;
+        ColumnIndex columns = new ColumnIndex(result.columns());
+        long start = System.nanoTime();
+        List<Row> rows = rowsOf(columns, result);
+        long consumedAfter = NANOSECONDS.toMillis(System.nanoTime() - start);
+        return new Data(columns, rows, summary(result.getQueryStatistics(), timedResult.availableAfter, consumedAfter));
     }
 
-    private Data asResultData(Result result) {
-        return new Data(result.columns(), rowsOf(result));
+    private static QuerySummary summary(QueryStatistics statistics, long availableAfter, long consumedAfter) {
+        return new QuerySummary.Builder()
+            .nodesCreated(statistics.getNodesCreated())
+            .nodesDeleted(statistics.getNodesDeleted())
+            .relationshipsCreated(statistics.getRelationshipsCreated())
+            .relationshipsDeleted(statistics.getRelationshipsDeleted())
+            .propertiesSet(statistics.getPropertiesSet())
+            .labelsAdded(statistics.getLabelsAdded())
+            .labelsRemoved(statistics.getLabelsRemoved())
+            .indexesAdded(statistics.getIndexesAdded())
+            .indexesRemoved(statistics.getIndexesRemoved())
+            .constraintsAdded(statistics.getConstraintsAdded())
+            .constraintsRemoved(statistics.getConstraintsRemoved())
+            .resultAvailableAfter(availableAfter)
+            .resultConsumedAfter(consumedAfter)
+            .build();
     }
 
-    private List<Row> rowsOf(Result result) {
+    private List<Row> rowsOf(ColumnIndex columns, Result result) {
         return createStream(result, Spliterator.ORDERED)
-            .map(Row::new)
+            .map(row -> toRow(columns, row))
             .collect(Collectors.toList());
     }
 
+    static Row toRow(ColumnIndex columns, Map<String, Object> row) {
+        List<String> names = columns.getColumns();
+        Object[] values = new Object[names.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = row.get(names.get(i));
+        }
+        return new Row(columns, values);
+    }
+
+    private static Statement[] asStatements(String[] queries) {
+        return stream(queries).map(Statement::new).toArray(Statement[]::new);
+    }
+
+    private static Statement[] prepend(Statement statement, Statement[] statements) {
+        return Stream.concat(Stream.of(statement), Arrays.stream(statements)).toArray(Statement[]::new);
+    }
+
     private void rollbackAndClose(Transaction tx) {
         LOGGER.warn("Rolling back and closing the transaction");
         tx.failure();
         tx.close();
     }
 
+    private void commitAndClose(Transaction tx) {
+        tx.success();
+        tx.close();
+    }
+
+    private void closeTerminated(Transaction tx) {
+        try {
+            rollbackAndClose(tx);
+        } catch (RuntimeException e) {
+            LOGGER.debug("Terminated transaction could not be closed cleanly", e);
+        }
+    }
+
+    private static final class TimedResult {
+        private final Result result;
+        private final long availableAfter;
+
+        TimedResult(Result result, long availableAfter) {
+            this.result = result;
+            this.availableAfter = availableAfter;
+        }
+    }
 }
@@ -47,7 +47,7 @@ public class EmbeddedClientCreator implements CypherClientCreator {
 
     @Override
     public EmbeddedClient create(Properties properties) {
-        return new EmbeddedClient(newGraphDatabase(properties));
+        return new EmbeddedClient(newGraphDatabase(properties), readTransactionTimeout(properties));
     }
 
     private static Map<String, Setting<?>> populateSettings() {
@@ -97,6 +97,10 @@ public class EmbeddedClientCreator implements CypherClientCreator {
         return settings.get(key);
     }
 
+    private static long readTransactionTimeout(Properties properties) {
+        return Long.parseLong(properties.getProperty("cypher.embeddedv3.transaction-timeout-milliseconds", "0"), 10);
+    }
+
     private File readPath(Properties properties) {
         String pathSetting = "cypher.embeddedv3.path";
         String property = properties.getProperty(pathSetting);
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.liquigraph.trinity.neo4jv3;
+
+import org.liquigraph.trinity.ColumnIndex;
+import org.liquigraph.trinity.Cursor;
+import org.liquigraph.trinity.Fault;
+import org.liquigraph.trinity.Row;
+import org.liquigraph.trinity.RowMapper;
+import org.liquigraph.trinity.internal.MapRowView;
+import org.neo4j.graphdb.QueryExecutionException;
+import org.neo4j.graphdb.Result;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.DeadlockDetectedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+final class EmbeddedCursor implements Cursor {
+    private static final Logger LOGGER = LoggerFactory.getLogger(EmbeddedCursor.class);
+
+    private final Transaction transaction;
+    private final Result result;
+    private final ColumnIndex columns;
+    private final List<Fault> faults = new ArrayList<>(0);
+    private final MapRowView view = new MapRowView();
+
+    EmbeddedCursor(Transaction transaction, Result result) {
+        this.transaction = transaction;
+        this.result = result;
+        this.columns = new ColumnIndex(result.columns());
+    }
+
+    @Override
+    public List<String> getColumns() {
+        return columns.getColumns();
+    }
+
+    @Override
+    public List<Fault> getFaults() {
+        return faults;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!faults.isEmpty()) {
+            return false;
+        }
+        try {
+            return result.hasNext();
+        }
+        catch (QueryExecutionException exception) {
+            LOGGER.error("An unexpected error happened while fetching the next row", exception);
+            faults.add(new Fault(exception.getStatusCode(), exception.getMessage()));
+            return false;
+        }
+        catch (DeadlockDetectedException exception) {
+            LOGGER.warn("A deadlock was detected while fetching the next row", exception);
+            faults.add(EmbeddedClient.deadlockFault(exception));
+            return false;
+        }
+    }
+
+    @Override
+    public Row next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("Cursor is exhausted");
+        }
+        return EmbeddedClient.toRow(columns, result.next());
+    }
+
+    @Override
+    public <T> T next(RowMapper<T> mapper) {
+        if (!hasNext()) {
+            throw new NoSuchElementException("Cursor is exhausted");
+        }
+        return mapper.map(view.reset(result.next()));
+    }
+
+    @Override
+    public void close() {
+        if (!faults.isEmpty()) {
+            LOGGER.warn("Rolling back the transaction after encountering {} errors", faults.size());
+        }
+        close(faults.isEmpty());
+    }
+
+    @Override
+    public void abort() {
+        LOGGER.warn("Rolling back the transaction of an aborted cursor");
+        close(false);
+    }
+
+    private void close(boolean success) {
+        try (Transaction tx = transaction) {
+            result.close();
+            if (success) {
+                tx.success();
+            } else {
+                tx.failure();
+            }
+        }
+    }
+}
@@ -15,8 +15,10 @@
  */
 package org.liquigraph.trinity.neo4jv3;
 
+import org.liquigraph.trinity.AccessMode;
 import org.liquigraph.trinity.Data;
 import org.liquigraph.trinity.OngoingTransaction;
+import org.liquigraph.trinity.internal.Watchdog;
 import org.neo4j.graphdb.Transaction;
 
 import java.util.List;
@@ -25,10 +27,22 @@ public class OngoingLocalTransaction implements OngoingTransaction {
 
     private final Transaction transaction;
     private final List<Data> data;
+    private final AccessMode accessMode;
+    private final Watchdog watchdog;
 
     public OngoingLocalTransaction(Transaction transaction, List<Data> data) {
+        this(transaction, data, AccessMode.WRITE);
+    }
+
+    public OngoingLocalTransaction(Transaction transaction, List<Data> data, AccessMode accessMode) {
+        this(transaction, data, accessMode, Watchdog.disabled());
+    }
+
+    OngoingLocalTransaction(Transaction transaction, List<Data> data, AccessMode accessMode, Watchdog watchdog) {
         this.transaction = transaction;
         this.data = data;
+        this.accessMode = accessMode;
+        this.watchdog = watchdog;
     }
 
     @Override
@@ -36,7 +50,16 @@ public class OngoingLocalTransaction implements OngoingTransaction {
         return data;
     }
 
+    @Override
+    public AccessMode getAccessMode() {
+        return accessMode;
+    }
+
     public Transaction getTransaction() {
         return transaction;
     }
+
+    Watchdog getWatchdog() {
+        return watchdog;
+    }
 }
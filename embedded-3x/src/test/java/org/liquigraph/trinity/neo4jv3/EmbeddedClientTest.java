@@ -15,13 +15,22 @@
  */
 package org.liquigraph.trinity.neo4jv3;
 
+import org.liquigraph.trinity.AccessMode;
+import org.liquigraph.trinity.BulkWriter;
 import org.liquigraph.trinity.ClosedTransaction;
+import org.liquigraph.trinity.Cursor;
 import org.liquigraph.trinity.Data;
 import org.liquigraph.trinity.Either;
+import org.liquigraph.trinity.ExecutionListenerAdapter;
 import org.liquigraph.trinity.Fault;
+import org.liquigraph.trinity.LatencyHistogram;
+import org.liquigraph.trinity.LatencyHistogramListener;
+import org.liquigraph.trinity.ListeningCypherClient;
 import org.liquigraph.trinity.Neo4jVersionDetector;
+import org.liquigraph.trinity.QuerySummary;
 import org.liquigraph.trinity.Row;
 import org.liquigraph.trinity.SemanticVersion;
+import org.liquigraph.trinity.Statement;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -29,10 +38,16 @@ import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Result;
 import org.neo4j.graphdb.Transaction;
 
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
 
 import static org.liquigraph.trinity.Assertions.assertThat;
 import static java.util.Arrays.asList;
+import static java.util.Collections.singletonMap;
 import static java.util.stream.Collectors.toList;
 
 public class EmbeddedClientTest {
@@ -69,6 +84,116 @@ public class EmbeddedClientTest {
         assertThat(counts).containsExactly(1L);
     }
 
+    @Test
+    public void executes_parameterized_statements() {
+        Either<List<Fault>, OngoingLocalTransaction> openTransaction = subject.openTransaction(
+            new Statement("CREATE (n:Bolt {name: {name}}) RETURN n.name", singletonMap("name", "Usain")));
+        Either<List<Fault>, ClosedTransaction> result = subject.commit(
+            openTransaction.getRight(),
+            new Statement("MATCH (n:Bolt {name: {name}}) RETURN COUNT(n)", singletonMap("name", "Usain")));
+
+        assertThat(openTransaction).isRight();
+        assertThat(openTransaction.getRight().getData())
+            .containsExactly(new Data("n.name", new Row("n.name", "Usain")));
+        assertThat(result).isRight();
+        assertThat(result.getRight().getData())
+            .containsExactly(new Data("COUNT(n)", new Row("COUNT(n)", 1L)));
+    }
+
+    @Test
+    public void streams_statement_results() {
+        Either<List<Fault>, Cursor> result = subject.streamSingleTransaction(new Statement("UNWIND range(1, 3) AS item RETURN item"));
+
+        assertThat(result).isRight();
+        try (Cursor cursor = result.getRight()) {
+            assertThat(cursor.getColumns()).containsExactly("item");
+            assertThat(cursor).containsExactly(new Row("item", 1L), new Row("item", 2L), new Row("item", 3L));
+            assertThat(cursor.getFaults()).isEmpty();
+        }
+    }
+
+    @Test
+    public void maps_rows_into_user_objects() {
+        Either<List<Fault>, List<String>> result = subject.runSingleTransaction(
+            new Statement("UNWIND range(1, 3) AS item RETURN item"),
+            row -> "item-" + row.getLong("item"));
+
+        assertThat(result).isRight();
+        assertThat(result.getRight()).containsExactly("item-1", "item-2", "item-3");
+    }
+
+    @Test
+    public void writes_rows_in_batches() {
+        BulkWriter<OngoingLocalTransaction> writer = new BulkWriter<>(subject, 2, 2);
+        Iterator<Map<String, Object>> rows = IntStream.rangeClosed(1, 5)
+            .mapToObj(i -> singletonMap("name", (Object) ("crew-" + i)))
+            .iterator();
+
+        Either<List<Fault>, Long> result = writer.write("CREATE (:Crew {name: row.name})", rows);
+
+        assertThat(result).isRight();
+        assertThat(result.getRight()).isEqualTo(5L);
+        List<Long> counts = graphDatabaseRule.doInTransaction((tx, db) -> {
+            Result executionResult = db.execute("MATCH (n:Crew) RETURN count(n) AS count");
+            return executionResult
+                .columnAs("count")
+                .map(Object::toString)
+                .map(Long::valueOf)
+                .stream().collect(toList());
+        });
+        assertThat(counts).containsExactly(5L);
+    }
+
+    @Test
+    public void reports_executions_to_listeners() {
+        LatencyHistogramListener histograms = new LatencyHistogramListener();
+        List<String> events = new ArrayList<>();
+        ListeningCypherClient<OngoingLocalTransaction> client = new ListeningCypherClient<>(subject, histograms, new ExecutionListenerAdapter() {
+            @Override
+            public void queryCompleted(List<Statement> statements, long rows, long elapsedNanos) {
+                events.add("completed " + rows);
+            }
+
+            @Override
+            public void queryFailed(List<Statement> statements, List<Fault> faults, long elapsedNanos) {
+                events.add("failed");
+            }
+
+            @Override
+            public void transactionOpened(AccessMode accessMode) {
+                events.add("opened " + accessMode);
+            }
+
+            @Override
+            public void transactionCommitted(long elapsedNanos) {
+                events.add(elapsedNanos >= 0 ? "committed" : "committed unknown");
+            }
+        });
+
+        client.runSingleTransaction("UNWIND range(1, 2) AS i RETURN i");
+        client.runSingleTransaction("UNWIND range(3,   5) AS i RETURN i");
+        client.runSingleTransaction("NOT A QUERY");
+        Either<List<Fault>, OngoingLocalTransaction> transaction = client.openTransaction();
+        client.commit(transaction.getRight(), new Statement("RETURN 1"));
+
+        assertThat(events).containsExactly("completed 2", "completed 3", "failed", "opened WRITE", "completed 1", "committed");
+        assertThat(histograms.getHistograms()).containsOnlyKeys("UNWIND range(?, ?) AS i RETURN i", "RETURN ?");
+        LatencyHistogram histogram = histograms.getHistogram("UNWIND range(?, ?) AS i RETURN i");
+        assertThat(histogram.getTotalCount()).isEqualTo(2L);
+        assertThat(histogram.getValueAtPercentile(99)).isGreaterThan(0L);
+    }
+
+    @Test
+    public void reports_query_statistics_with_client_timings() {
+        Either<List<Fault>, List<Data>> result = subject.runSingleTransaction("CREATE (:Crew {name: 'Neo'})-[:KNOWS]->(:Crew {name: 'Trinity'})");
+
+        assertThat(result).isRight();
+        QuerySummary summary = result.getRight().get(0).getSummary();
+        assertThat(summary.getNodesCreated()).isEqualTo(2);
+        assertThat(summary.getResultAvailableAfter()).isNotNegative();
+        assertThat(summary.getResultConsumedAfter()).isNotNegative();
+    }
+
     @Test
     public void returns_errors_from_invalid_statements() {
         Either<List<Fault>, List<Data>> result = subject.runSingleTransaction(
@@ -131,6 +256,20 @@ public class EmbeddedClientTest {
         }
     }
 
+    @Test
+    public void reads_several_rows_while_committing_an_open_transaction() {
+        Either<List<Fault>, OngoingLocalTransaction> openTransaction = subject.openTransaction(
+            "UNWIND range(1, 3) AS i CREATE (:Number {value: i})");
+        Either<List<Fault>, ClosedTransaction> result = subject.commit(
+            openTransaction.getRight(),
+            "MATCH (n:Number) RETURN n.value AS value");
+
+        assertThat(result).isRight();
+        assertThat(result.getRight().getData()).hasSize(1);
+        assertThat(result.getRight().getData().get(0).getRows())
+            .containsOnly(new Row("value", 1L), new Row("value", 2L), new Row("value", 3L));
+    }
+
     @Test
     public void rolls_back_an_open_transaction() {
         Either<List<Fault>, OngoingLocalTransaction> openTransaction = subject.openTransaction("CREATE (n:Bar {type:'Ry White'}) RETURN n.type");
@@ -149,4 +288,35 @@ public class EmbeddedClientTest {
         }
     }
 
+    @Test
+    public void terminates_statements_exceeding_their_timeout() {
+        subject.runSingleTransaction("FOREACH (i IN range(1, 100) | CREATE (:Row {value: i}))");
+
+        long start = System.nanoTime();
+        Either<List<Fault>, List<Data>> result = subject.runSingleTransaction(
+            new Statement("MATCH (a:Row), (b:Row), (c:Row), (d:Row), (e:Row) RETURN count(*)").withTimeout(100, TimeUnit.MILLISECONDS));
+
+        assertThat(result).isLeft();
+        assertThat(result.getLeft()).hasSize(1);
+        assertThat(result.getLeft().get(0).isTimeout()).overridingErrorMessage("Statement must time out").isTrue();
+        assertThat(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start)).isLessThan(10L);
+    }
+
+    @Test
+    public void rolls_back_transactions_exceeding_their_timeout() throws InterruptedException {
+        EmbeddedClient client = new EmbeddedClient(graphDatabaseRule.getGraphDatabaseService(), 100);
+        Either<List<Fault>, OngoingLocalTransaction> openTransaction = client.openTransaction("CREATE (n:Bar {type:'Ry White'}) RETURN n.type");
+        Thread.sleep(300);
+
+        Either<List<Fault>, ClosedTransaction> result = client.commit(openTransaction.getRight());
+
+        assertThat(result).isLeft();
+        assertThat(result.getLeft().get(0).isTimeout()).overridingErrorMessage("Transaction must time out").isTrue();
+        GraphDatabaseService graphDatabase = graphDatabaseRule.getGraphDatabaseService();
+        try (Transaction ignored = graphDatabase.beginTx()) {
+            assertThat(graphDatabase.getAllNodes())
+                .overridingErrorMessage("The node insertion must be rolled back")
+                .isEmpty();
+        }
+    }
 }
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.liquigraph.trinity.http;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.BufferedSource;
+import okio.ForwardingSink;
+import okio.ForwardingSource;
+import okio.Okio;
+import org.liquigraph.trinity.ExecutionListener;
+
+import java.io.IOException;
+
+/**
+ * Reports the size of request and response bodies to an {@link ExecutionListener}, once each response body is closed.
+ * Register it as a network interceptor of the {@link okhttp3.OkHttpClient} given to {@link HttpClient}.
+ */
+public final class ByteCountingInterceptor implements Interceptor {
+
+    private final ExecutionListener listener;
+
+    public ByteCountingInterceptor(ExecutionListener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        CountingRequestBody requestBody = null;
+        if (request.body() != null) {
+            requestBody = new CountingRequestBody(request.body());
+            request = request.newBuilder().method(request.method(), requestBody).build();
+        }
+        Response response = chain.proceed(request);
+        ResponseBody body = response.body();
+        if (body == null) {
+            listener.bytesTransferred(sent(requestBody), 0);
+            return response;
+        }
+        return response.newBuilder()
+            .body(new CountingResponseBody(body, requestBody, listener))
+            .build();
+    }
+
+    private static long sent(CountingRequestBody requestBody) {
+        return requestBody == null ? 0 : requestBody.written;
+    }
+
+    /**
+     * Counts bytes as they are written, since streamed bodies do not know their length upfront.
+     * Only the last write is counted when the body is replayed, e.g. on retries.
+     */
+    private static final class CountingRequestBody extends RequestBody {
+        private final RequestBody delegate;
+        private long written;
+
+        CountingRequestBody(RequestBody delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public MediaType contentType() {
+            return delegate.contentType();
+        }
+
+        @Override
+        public long contentLength() throws IOException {
+            return delegate.contentLength();
+        }
+
+        @Override
+        public void writeTo(BufferedSink sink) throws IOException {
+            written = 0;
+            BufferedSink counting = Okio.buffer(new ForwardingSink(sink) {
+                @Override
+                public void write(Buffer source, long byteCount) throws IOException {
+                    super.write(source, byteCount);
+                    written += byteCount;
+                }
+            });
+            delegate.writeTo(counting);
+            counting.emit();
+        }
+    }
+
+    private static final class CountingResponseBody extends ResponseBody {
+        private final ResponseBody delegate;
+        private final BufferedSource source;
+
+        CountingResponseBody(ResponseBody delegate, final CountingRequestBody requestBody, final ExecutionListener listener) {
+            this.delegate = delegate;
+            this.source = Okio.buffer(new ForwardingSource(delegate.source()) {
+                private long received;
+                private boolean reported;
+
+                @Override
+                public long read(Buffer sink, long byteCount) throws IOException {
+                    long read = super.read(sink, byteCount);
+                    if (read > 0) {
+                        received += read;
+                    }
+                    return read;
+                }
+
+                @Override
+                public void close() throws IOException {
+                    super.close();
+                    if (!reported) {
+                        reported = true;
+                        listener.bytesTransferred(sent(requestBody), received);
+                    }
+                }
+            });
+        }
+
+        @Override
+        public MediaType contentType() {
+            return delegate.contentType();
+        }
+
+        @Override
+        public long contentLength() {
+            return delegate.contentLength();
+        }
+
+        @Override
+        public BufferedSource source() {
+            return source;
+        }
+    }
+}
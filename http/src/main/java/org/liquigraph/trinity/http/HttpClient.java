@@ -15,7 +15,9 @@
  */
 package org.liquigraph.trinity.http;
 
-import okhttp3.MediaType;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.RequestBody;
@@ -23,176 +25,661 @@ import okhttp3.Response;
 import okhttp3.ResponseBody;
 
 import static java.util.Arrays.asList;
-import static org.liquigraph.trinity.http.internal.http.Endpoints.openTransactionUri;
-import static org.liquigraph.trinity.http.internal.http.Endpoints.singleTransactionUri;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.liquigraph.trinity.http.LoadBalancingStrategies.roundRobin;
 import static org.liquigraph.trinity.http.internal.http.RequestBuilders.json;
+import static org.liquigraph.trinity.internal.Cursors.mapAll;
+import static org.liquigraph.trinity.internal.Cursors.watched;
+import static org.liquigraph.trinity.internal.Statements.statements;
+import static org.liquigraph.trinity.internal.Statements.timeoutMillis;
 import static org.liquigraph.trinity.internal.collection.Lists.prepend;
 
 import java.io.IOException;
-import java.io.Reader;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import org.liquigraph.trinity.AccessMode;
+import org.liquigraph.trinity.AsyncCypherClient;
 import org.liquigraph.trinity.ClosedTransaction;
 import org.liquigraph.trinity.CypherClient;
+import org.liquigraph.trinity.Cursor;
 import org.liquigraph.trinity.Data;
 import org.liquigraph.trinity.DefaultEither;
 import org.liquigraph.trinity.Either;
 import org.liquigraph.trinity.Fault;
-import org.liquigraph.trinity.http.internal.payload.CypherExecutionError;
-import org.liquigraph.trinity.http.internal.payload.CypherExecutionResults;
-import org.liquigraph.trinity.http.internal.payload.CypherStatements;
+import org.liquigraph.trinity.ResultCallback;
+import org.liquigraph.trinity.RowMapper;
+import org.liquigraph.trinity.Statement;
 import org.liquigraph.trinity.http.internal.payload.TransactionDateFormatSupplier;
+import org.liquigraph.trinity.internal.Watchdog;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
 
-public final class HttpClient implements CypherClient<OngoingRemoteTransaction> {
+/**
+ * Safe to share across threads: requests are built from immutable URLs and headers, so that a single instance,
+ * and therefore a single OkHttp connection pool, can serve all callers.
+ */
+public final class HttpClient implements CypherClient<OngoingRemoteTransaction>, AsyncCypherClient<OngoingRemoteTransaction> {
     private static final Logger LOGGER = LoggerFactory.getLogger(HttpClient.class);
-    private static final MediaType JSON = MediaType.parse("application/json;charset=UTF-8");
 
-    private OkHttpClient httpClient;
-    private Gson gson;
-    private Request.Builder singleTransaction;
-    private Request.Builder openTransaction;
+    private final OkHttpClient httpClient;
+    private final Gson gson;
+    private final TypeAdapter<Object> valueAdapter;
+    private final List<HttpEndpoint> endpoints;
+    private final List<HttpEndpoint> writeEndpoints;
+    private final List<HttpEndpoint> readEndpoints;
+    private final LoadBalancingStrategy loadBalancingStrategy;
+    private final long transactionTimeoutMillis;
+    private final KeepAliveScheduler keepAliveScheduler;
 
     public HttpClient(String baseUrl) {
         this(baseUrl, new OkHttpClient());
     }
 
     public HttpClient(String baseUrl, OkHttpClient client) {
+        this(Collections.singletonList(baseUrl), client, roundRobin());
+    }
+
+    public HttpClient(List<String> baseUrls, OkHttpClient client, LoadBalancingStrategy loadBalancingStrategy) {
+        this(baseUrls, Collections.<String>emptyList(), client, loadBalancingStrategy);
+    }
+
+    /**
+     * Read transactions are balanced across {@code readBaseUrls} (e.g. followers or read replicas), or across
+     * {@code baseUrls} if no read URL is specified. Write transactions are always balanced across {@code baseUrls}.
+     */
+    public HttpClient(List<String> baseUrls, List<String> readBaseUrls, OkHttpClient client, LoadBalancingStrategy loadBalancingStrategy) {
+        this(baseUrls, readBaseUrls, client, loadBalancingStrategy, 0);
+    }
+
+    /**
+     * Transactions still open after {@code transactionTimeoutMillis}, 0 for no timeout, are rolled back on the server.
+     */
+    public HttpClient(List<String> baseUrls,
+                      List<String> readBaseUrls,
+                      OkHttpClient client,
+                      LoadBalancingStrategy loadBalancingStrategy,
+                      long transactionTimeoutMillis) {
+        this(baseUrls, readBaseUrls, client, loadBalancingStrategy, transactionTimeoutMillis, null);
+    }
+
+    /**
+     * Open transactions are kept alive by {@code keepAliveScheduler} until they are committed or rolled back,
+     * unless it is null.
+     */
+    public HttpClient(List<String> baseUrls,
+                      List<String> readBaseUrls,
+                      OkHttpClient client,
+                      LoadBalancingStrategy loadBalancingStrategy,
+                      long transactionTimeoutMillis,
+                      KeepAliveScheduler keepAliveScheduler) {
+        if (baseUrls.isEmpty()) {
+            throw new IllegalArgumentException("At least one base URL must be specified");
+        }
         httpClient = client;
         gson = new Gson();
-        singleTransaction = json().url(singleTransactionUri(baseUrl));
-        openTransaction = json().url(openTransactionUri(baseUrl));
-        LOGGER.info("HTTP client targets {}", baseUrl);
+        valueAdapter = gson.getAdapter(Object.class);
+        writeEndpoints = endpoints(baseUrls);
+        readEndpoints = readBaseUrls.isEmpty() ? writeEndpoints : endpoints(readBaseUrls);
+        List<HttpEndpoint> allEndpoints = new ArrayList<>(writeEndpoints);
+        if (readEndpoints != writeEndpoints) {
+            allEndpoints.addAll(readEndpoints);
+        }
+        this.endpoints = Collections.unmodifiableList(allEndpoints);
+        this.loadBalancingStrategy = loadBalancingStrategy;
+        this.transactionTimeoutMillis = transactionTimeoutMillis;
+        this.keepAliveScheduler = keepAliveScheduler;
+        LOGGER.info("HTTP client targets {} and reads from {}", baseUrls, readBaseUrls.isEmpty() ? baseUrls : readBaseUrls);
+    }
+
+    public List<HttpEndpoint> getEndpoints() {
+        return endpoints;
+    }
+
+    /**
+     * Asynchronously opens up to {@code connectionsPerEndpoint} connections to each endpoint, by issuing as many
+     * concurrent discovery requests, so that the first statements do not pay for connection establishment.
+     * Connections beyond the dispatcher per-host limit or the pool idle capacity are not kept.
+     */
+    public void prewarm(int connectionsPerEndpoint) {
+        for (final HttpEndpoint endpoint : endpoints) {
+            for (int i = 0; i < connectionsPerEndpoint; i++) {
+                httpClient.newCall(json().url(endpoint.getBaseUrl()).get().build()).enqueue(new Callback() {
+                    @Override
+                    public void onFailure(Call call, IOException e) {
+                        LOGGER.warn("Could not open connection to {} ahead of time", endpoint.getBaseUrl(), e);
+                    }
+
+                    @Override
+                    public void onResponse(Call call, Response response) {
+                        response.close();
+                    }
+                });
+            }
+        }
     }
 
     @Override
     public Either<List<Fault>, List<Data>> runSingleTransaction(String query, String... queries) {
-        List<String> allQueries = prepend(query, queries);
-        LOGGER.debug("About to run {} queries in a single transaction", allQueries.size());
-        RequestBody requestBody = requestBody(serializeQueries(allQueries));
-        Request request = singleTransaction.post(requestBody).build();
-        return executeRequest(request);
+        return runSingleTransaction(statements(prepend(query, queries)));
     }
 
     @Override
-    public Either<List<Fault>, OngoingRemoteTransaction> openTransaction(String... queries) {
-        List<String> allQueries = asList(queries);
-        LOGGER.debug("About to open a transaction and run {} queries", allQueries.size());
-        RequestBody requestBody = requestBody(serializeQueries(allQueries));
-        Request request = openTransaction.post(requestBody).build();
-        try (Response httpResponse = httpClient.newCall(request).execute()) {
-            Either<IOException, CypherExecutionResults> response = deserializeResponse(httpResponse.body());
-            if (response.isLeft()) {
-                return this.leftIoException(response.getLeft());
-            }
-            TransactionUri location = new TransactionUri(httpResponse.header("Location"));
-            LOGGER.info("Transaction has been successfully open at URI {}", location.value());
-            CypherExecutionResults payload = response.getRight();
-            return DefaultEither.right(new OngoingRemoteTransaction(
-                  location,
-                  expiryTime(payload),
-                  new TransactionUri(payload.getCommit()),
-                  payload.explode()
-            ));
+    public Either<List<Fault>, List<Data>> runSingleTransaction(Statement statement, Statement... statements) {
+        return runSingleTransaction(prepend(statement, statements));
+    }
+
+    @Override
+    public Either<List<Fault>, List<Data>> runSingleTransaction(AccessMode accessMode, Statement statement, Statement... statements) {
+        return runSingleTransaction(accessMode, prepend(statement, statements));
+    }
+
+    @Override
+    public <T> Either<List<Fault>, List<T>> runSingleTransaction(Statement statement, RowMapper<T> mapper) {
+        return mapAll(streamSingleTransaction(statement), mapper);
+    }
+
+    @Override
+    public Either<List<Fault>, Cursor> streamSingleTransaction(Statement statement) {
+        return streamSingleTransaction(AccessMode.WRITE, statement);
+    }
+
+    @Override
+    public Either<List<Fault>, Cursor> streamSingleTransaction(AccessMode accessMode, Statement statement) {
+        LOGGER.debug("About to stream the results of a single transaction");
+        RequestBody requestBody = statementsBody(Collections.singletonList(statement));
+        HttpEndpoint endpoint = selectEndpoint(accessMode);
+        final Request request = json().url(endpoint.singleTransactionUri()).tag(endpoint).post(requestBody).build();
+        final long start = requestStarted(request);
+        Call call = httpClient.newCall(request);
+        Watchdog watchdog = startWatchdog(call, Watchdog.shortest(transactionTimeoutMillis, statement.getTimeoutMillis()), null);
+        Response response;
+        try {
+            response = call.execute();
         } catch (IOException e) {
-            return this.leftIoException(e);
+            watchdog.stop();
+            requestCompleted(request, start);
+            return closeOnFailure(this.<Cursor>leftIoException(e), watchdog, null);
+        }
+        // the endpoint stays busy until the results are streamed, i.e. until the cursor is closed
+        Either<List<Fault>, Cursor> result = HttpCursor.open(response, gson, new Runnable() {
+            @Override
+            public void run() {
+                requestCompleted(request, start);
+            }
+        });
+        if (result.isLeft()) {
+            watchdog.stop();
+            return closeOnFailure(result, watchdog, null);
         }
+        return DefaultEither.right(watched(result.getRight(), watchdog));
+    }
+
+    @Override
+    public Either<List<Fault>, OngoingRemoteTransaction> openTransaction(String... queries) {
+        return openTransaction(statements(asList(queries)));
+    }
+
+    @Override
+    public Either<List<Fault>, OngoingRemoteTransaction> openTransaction(Statement statement, Statement... statements) {
+        return openTransaction(prepend(statement, statements));
+    }
+
+    @Override
+    public Either<List<Fault>, OngoingRemoteTransaction> openTransaction(AccessMode accessMode, Statement... statements) {
+        return openTransaction(accessMode, asList(statements));
     }
 
     @Override
     public Either<List<Fault>, OngoingRemoteTransaction> execute(OngoingRemoteTransaction transaction, String... queries) {
-        List<String> allQueries = asList(queries);
-        TransactionUri location = transaction.getLocation();
-        LOGGER.debug("About to run {} queries in currently open transaction at URI {}", allQueries.size(), location.value());
-        RequestBody body = requestBody(serializeQueries(allQueries));
-        Request request = json().url(location.value()).post(body).build();
-
-        try (Response httpResponse = httpClient.newCall(request).execute()) {
-            Either<IOException, CypherExecutionResults> response = deserializeResponse(httpResponse.body());
-            if (response.isLeft()) {
-                return this.leftIoException(response.getLeft());
-            }
-            CypherExecutionResults payload = response.getRight();
-            return DefaultEither.right(new OngoingRemoteTransaction(
-                  location,
-                  expiryTime(payload),
-                  new TransactionUri(payload.getCommit()),
-                  payload.explode()));
-        } catch (IOException e) {
-            return this.leftIoException(e);
-        }
+        return execute(transaction, statements(asList(queries)));
+    }
+
+    @Override
+    public Either<List<Fault>, OngoingRemoteTransaction> execute(OngoingRemoteTransaction transaction, Statement statement, Statement... statements) {
+        return execute(transaction, prepend(statement, statements));
     }
 
     @Override
     public Either<List<Fault>, ClosedTransaction> commit(OngoingRemoteTransaction transaction, String... queries) {
-        List<String> allQueries = asList(queries);
-        RequestBody body = requestBody(serializeQueries(allQueries));
-        TransactionUri location = transaction.getCommitLocation();
-        String commitUri = location.value();
-        LOGGER.debug("About to run {} queries and commit open transaction at URI {}", allQueries.size(), commitUri);
-        Either<List<Fault>, List<Data>> result = executeRequest(json().url(commitUri).post(body).build());
+        return commit(transaction, statements(asList(queries)));
+    }
 
-        if (result.isLeft()) {
-            return DefaultEither.left(result.getLeft());
-        }
-        return DefaultEither.right(new ClosedTransaction(result.getRight(), false));
+    @Override
+    public Either<List<Fault>, ClosedTransaction> commit(OngoingRemoteTransaction transaction, Statement statement, Statement... statements) {
+        return commit(transaction, prepend(statement, statements));
     }
 
     @Override
     public Either<List<Fault>, ClosedTransaction> rollback(OngoingRemoteTransaction transaction) {
-        String uri = transaction.getLocation().value();
-        LOGGER.debug("About to roll back open transaction at URI {}", uri);
-        Request rollback = json().url(uri).delete().build();
-        try {
-            httpClient.newCall(rollback).execute();
-            return DefaultEither.right(ClosedTransaction.ROLLED_BACK);
-        } catch (IOException e) {
-            return this.leftIoException(e);
+        transaction.getWatchdog().stop();
+        stopKeepAlive(transaction);
+        return execute(rollbackRequest(transaction), 0, null, rolledBackParser);
+    }
+
+    @Override
+    public void runSingleTransaction(List<Statement> statements, ResultCallback<List<Data>> callback) {
+        enqueue(singleTransactionRequest(AccessMode.WRITE, statements), singleTransactionTimeout(statements), null, dataParser, callback);
+    }
+
+    @Override
+    public void openTransaction(List<Statement> statements, ResultCallback<OngoingRemoteTransaction> callback) {
+        enqueue(openTransactionRequest(AccessMode.WRITE, statements), timeoutMillis(statements), null, openedTransaction(AccessMode.WRITE), callback);
+    }
+
+    @Override
+    public void execute(OngoingRemoteTransaction transaction, List<Statement> statements, ResultCallback<OngoingRemoteTransaction> callback) {
+        enqueue(executeRequest(transaction, statements), timeoutMillis(statements), transaction, ongoingTransaction(transaction), callback);
+    }
+
+    @Override
+    public void commit(OngoingRemoteTransaction transaction, List<Statement> statements, ResultCallback<ClosedTransaction> callback) {
+        stopKeepAlive(transaction);
+        enqueue(commitRequest(transaction, statements), timeoutMillis(statements), transaction, committedTransaction(transaction), callback);
+    }
+
+    @Override
+    public void rollback(OngoingRemoteTransaction transaction, ResultCallback<ClosedTransaction> callback) {
+        transaction.getWatchdog().stop();
+        stopKeepAlive(transaction);
+        enqueue(rollbackRequest(transaction), 0, null, rolledBackParser, callback);
+    }
+
+    private Either<List<Fault>, List<Data>> runSingleTransaction(List<Statement> allStatements) {
+        return runSingleTransaction(AccessMode.WRITE, allStatements);
+    }
+
+    private Either<List<Fault>, List<Data>> runSingleTransaction(AccessMode accessMode, List<Statement> allStatements) {
+        return execute(singleTransactionRequest(accessMode, allStatements), singleTransactionTimeout(allStatements), null, dataParser);
+    }
+
+    private Either<List<Fault>, OngoingRemoteTransaction> openTransaction(List<Statement> allStatements) {
+        return openTransaction(AccessMode.WRITE, allStatements);
+    }
+
+    private Either<List<Fault>, OngoingRemoteTransaction> openTransaction(AccessMode accessMode, List<Statement> allStatements) {
+        return execute(openTransactionRequest(accessMode, allStatements), timeoutMillis(allStatements), null, openedTransaction(accessMode));
+    }
+
+    private Either<List<Fault>, OngoingRemoteTransaction> execute(OngoingRemoteTransaction transaction, List<Statement> allStatements) {
+        return execute(executeRequest(transaction, allStatements), timeoutMillis(allStatements), transaction, ongoingTransaction(transaction));
+    }
+
+    private Either<List<Fault>, ClosedTransaction> commit(OngoingRemoteTransaction transaction, List<Statement> allStatements) {
+        stopKeepAlive(transaction);
+        return execute(commitRequest(transaction, allStatements), timeoutMillis(allStatements), transaction, committedTransaction(transaction));
+    }
+
+    private long singleTransactionTimeout(List<Statement> allStatements) {
+        return Watchdog.shortest(transactionTimeoutMillis, timeoutMillis(allStatements));
+    }
+
+    private Request singleTransactionRequest(AccessMode accessMode, List<Statement> allStatements) {
+        LOGGER.debug("About to run {} queries in a single transaction", allStatements.size());
+        RequestBody requestBody = statementsBody(allStatements);
+        HttpEndpoint endpoint = selectEndpoint(accessMode);
+        return json().url(endpoint.singleTransactionUri()).tag(endpoint).post(requestBody).build();
+    }
+
+    private Request openTransactionRequest(AccessMode accessMode, List<Statement> allStatements) {
+        LOGGER.debug("About to open a {} transaction and run {} queries", accessMode, allStatements.size());
+        RequestBody requestBody = statementsBody(allStatements);
+        HttpEndpoint endpoint = selectEndpoint(accessMode);
+        return json().url(endpoint.openTransactionUri()).tag(endpoint).post(requestBody).build();
+    }
+
+    private Request executeRequest(OngoingRemoteTransaction transaction, List<Statement> allStatements) {
+        TransactionUri location = transaction.getLocation();
+        LOGGER.debug("About to run {} queries in currently open transaction at URI {}", allStatements.size(), location.value());
+        RequestBody body = statementsBody(allStatements);
+        return pinnedRequest(location).post(body).build();
+    }
+
+    private Request commitRequest(OngoingRemoteTransaction transaction, List<Statement> allStatements) {
+        RequestBody body = statementsBody(allStatements);
+        TransactionUri commitUri = transaction.getCommitLocation();
+        LOGGER.debug("About to run {} queries and commit open transaction at URI {}", allStatements.size(), commitUri.value());
+        return pinnedRequest(commitUri).post(body).build();
+    }
+
+    private Request rollbackRequest(OngoingRemoteTransaction transaction) {
+        TransactionUri location = transaction.getLocation();
+        LOGGER.debug("About to roll back open transaction at URI {}", location.value());
+        return pinnedRequest(location).delete().build();
+    }
+
+    private HttpEndpoint selectEndpoint(AccessMode accessMode) {
+        return loadBalancingStrategy.select(accessMode == AccessMode.READ ? readEndpoints : writeEndpoints);
+    }
+
+    private static List<HttpEndpoint> endpoints(List<String> baseUrls) {
+        List<HttpEndpoint> result = new ArrayList<>(baseUrls.size());
+        for (String baseUrl : baseUrls) {
+            result.add(new HttpEndpoint(baseUrl));
         }
+        return Collections.unmodifiableList(result);
     }
 
-    private static RequestBody requestBody(String serialize) {
-        return RequestBody.create(JSON, serialize);
+    private Request.Builder pinnedRequest(TransactionUri transactionUri) {
+        HttpUrl url = transactionUri.url();
+        if (url == null) {
+            throw new IllegalArgumentException(String.format("Invalid transaction URI: %s", transactionUri.value()));
+        }
+        return json().url(url).tag(owningEndpoint(url));
     }
 
-    private Either<List<Fault>, List<Data>> executeRequest(Request request) {
-        try (Response response = httpClient.newCall(request).execute()) {
-            return parseResponse(response);
+    private HttpEndpoint owningEndpoint(HttpUrl url) {
+        for (HttpEndpoint endpoint : endpoints) {
+            if (endpoint.owns(url)) {
+                return endpoint;
+            }
+        }
+        return null;
+    }
+
+    private static long requestStarted(Request request) {
+        if (request.tag() instanceof HttpEndpoint) {
+            ((HttpEndpoint) request.tag()).requestStarted();
+        }
+        return System.nanoTime();
+    }
+
+    private static void requestCompleted(Request request, long start) {
+        if (request.tag() instanceof HttpEndpoint) {
+            ((HttpEndpoint) request.tag()).requestCompleted(System.nanoTime() - start);
+        }
+    }
+
+    private RequestBody statementsBody(List<Statement> statements) {
+        return new StatementsBody(statements, gson, valueAdapter);
+    }
+
+    /**
+     * @param transaction the open transaction the request belongs to, or null
+     */
+    private <T> Either<List<Fault>, T> execute(Request request, long timeoutMillis, OngoingRemoteTransaction transaction, ResponseParser<T> parser) {
+        final Watchdog transactionWatchdog = transactionWatchdog(transaction);
+        if (transactionWatchdog.hasExpired()) {
+            return DefaultEither.left(Collections.singletonList(transactionWatchdog.fault()));
+        }
+        long start = requestStarted(request);
+        Call call = httpClient.newCall(request);
+        Watchdog watchdog = startWatchdog(call, timeoutMillis, transaction);
+        try (Response response = call.execute()) {
+            return closeOnFailure(parse(parser, response, transaction), watchdog, transaction);
         } catch (IOException e) {
-            return leftIoException(e);
+            return closeOnFailure(this.<T>leftIoException(e), watchdog, transaction);
+        } finally {
+            watchdog.stop();
+            requestCompleted(request, start);
         }
     }
 
+    /**
+     * @param transaction the open transaction the request belongs to, or null
+     */
+    private <T> void enqueue(final Request request,
+                             long timeoutMillis,
+                             final OngoingRemoteTransaction transaction,
+                             final ResponseParser<T> parser,
+                             final ResultCallback<T> callback) {
+        final Watchdog transactionWatchdog = transactionWatchdog(transaction);
+        if (transactionWatchdog.hasExpired()) {
+            callback.onResult(DefaultEither.<List<Fault>, T>left(Collections.singletonList(transactionWatchdog.fault())));
+            return;
+        }
+        final long start = requestStarted(request);
+        Call call = httpClient.newCall(request);
+        final Watchdog watchdog = startWatchdog(call, timeoutMillis, transaction);
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                watchdog.stop();
+                requestCompleted(request, start);
+                callback.onResult(closeOnFailure(HttpClient.this.<T>leftIoException(e), watchdog, transaction));
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                try (Response ignored = response) {
+                    requestCompleted(request, start);
+                    callback.onResult(closeOnFailure(parse(parser, response, transaction), watchdog, transaction));
+                } finally {
+                    watchdog.stop();
+                }
+            }
+        });
+    }
+
+    /**
+     * Unreadable responses leave the server-side transaction in an unknown state, it is therefore rolled back.
+     */
+    private <T> Either<List<Fault>, T> parse(ResponseParser<T> parser, Response response, OngoingRemoteTransaction transaction) {
+        try {
+            return parser.parse(response);
+        } catch (RuntimeException e) {
+            LOGGER.error("An unexpected error happened while reading the HTTP response", e);
+            if (transaction != null) {
+                discard(transaction.getLocation());
+            }
+            Fault error = new Fault("HttpClient.Error.InvalidResponse", e.getMessage());
+            return DefaultEither.left(Collections.singletonList(error));
+        }
+    }
+
+    /**
+     * Faults met once a timeout expired are reported as a single timeout fault.
+     * Neo4j rolls back transactions on failure, their watchdog and keep-alive are therefore stopped.
+     */
+    private <T> Either<List<Fault>, T> closeOnFailure(Either<List<Fault>, T> result, Watchdog watchdog, OngoingRemoteTransaction transaction) {
+        if (result.isRight()) {
+            return result;
+        }
+        Watchdog transactionWatchdog = transactionWatchdog(transaction);
+        transactionWatchdog.stop();
+        stopKeepAlive(transaction);
+        if (watchdog.hasExpired()) {
+            return DefaultEither.left(Collections.singletonList(watchdog.fault()));
+        }
+        if (transactionWatchdog.hasExpired()) {
+            return DefaultEither.left(Collections.singletonList(transactionWatchdog.fault()));
+        }
+        return result;
+    }
+
+    private static Watchdog transactionWatchdog(OngoingRemoteTransaction transaction) {
+        return transaction == null ? Watchdog.disabled() : transaction.getWatchdog();
+    }
+
+    /**
+     * Cancels the call once timed out, and rolls back the transaction it belongs to, if any, as Neo4j
+     * keeps running the queries of cancelled requests.
+     */
+    private Watchdog startWatchdog(final Call call, long timeoutMillis, final OngoingRemoteTransaction transaction) {
+        return Watchdog.start(timeoutMillis, new Runnable() {
+            @Override
+            public void run() {
+                call.cancel();
+                if (transaction != null) {
+                    terminate(transaction.getLocation());
+                }
+            }
+        });
+    }
+
+    private void keepAlive(OngoingRemoteTransaction transaction) {
+        if (keepAliveScheduler != null) {
+            TransactionUri location = transaction.getLocation();
+            keepAliveScheduler.schedule(location, transaction.getExpiry(), new TransactionKeepAlive(location));
+        }
+    }
+
+    private void stopKeepAlive(OngoingRemoteTransaction transaction) {
+        if (keepAliveScheduler != null && transaction != null) {
+            keepAliveScheduler.cancel(transaction.getLocation());
+        }
+    }
+
+    private Watchdog startTransactionWatchdog(final TransactionUri location, long timeoutMillis) {
+        return Watchdog.start(timeoutMillis, new Runnable() {
+            @Override
+            public void run() {
+                terminate(location);
+            }
+        });
+    }
+
+    private void terminate(TransactionUri location) {
+        LOGGER.warn("Rolling back transaction at URI {} after timing out", location.value());
+        sendRollback(location);
+    }
+
+    private void discard(TransactionUri location) {
+        LOGGER.warn("Rolling back transaction at URI {} after an unreadable response", location.value());
+        sendRollback(location);
+    }
+
+    private void sendRollback(final TransactionUri location) {
+        if (keepAliveScheduler != null) {
+            keepAliveScheduler.cancel(location);
+        }
+        httpClient.newCall(pinnedRequest(location).delete().build()).enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                LOGGER.warn("Could not roll back transaction at URI {}", location.value(), e);
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                response.close();
+            }
+        });
+    }
+
     private Either<List<Fault>, List<Data>> parseResponse(Response response) {
-        Either<IOException, CypherExecutionResults> payloadResult = deserializeResponse(response.body());
+        Either<IOException, TransactionPayload> payloadResult = deserializeResponse(response.body());
         if (payloadResult.isLeft()) {
             return leftIoException(payloadResult.getLeft());
         }
-        CypherExecutionResults results = payloadResult.getRight();
+        TransactionPayload results = payloadResult.getRight();
         if (results.hasErrors()) {
-            return DefaultEither.left(mapErrors(results.getErrors()));
+            return DefaultEither.left(results.getErrors());
         }
-        return DefaultEither.right(results.explode());
+        return DefaultEither.right(results.getResults());
     }
 
-    private List<Fault> mapErrors(List<CypherExecutionError> errors) {
-        List<Fault> result = new ArrayList<>(errors.size());
-        for (CypherExecutionError error : errors) {
-            result.add(new Fault(error.getCode(), error.getMessage()));
+    private Either<List<Fault>, OngoingRemoteTransaction> parseOngoingTransaction(TransactionUri location,
+                                                                                  AccessMode accessMode,
+                                                                                  Watchdog watchdog,
+                                                                                  Response httpResponse) {
+        Either<IOException, TransactionPayload> response = deserializeResponse(httpResponse.body());
+        if (response.isLeft()) {
+            return this.leftIoException(response.getLeft());
         }
-        return result;
+        TransactionPayload payload = response.getRight();
+        if (payload.hasErrors()) {
+            return DefaultEither.left(payload.getErrors());
+        }
+        OngoingRemoteTransaction transaction = new OngoingRemoteTransaction(
+              location,
+              expiryTime(payload),
+              new TransactionUri(payload.getCommit()),
+              payload.getResults(),
+              accessMode,
+              watchdog
+        );
+        keepAlive(transaction);
+        return DefaultEither.right(transaction);
+    }
+
+    private ResponseParser<OngoingRemoteTransaction> ongoingTransaction(final OngoingRemoteTransaction transaction) {
+        return new ResponseParser<OngoingRemoteTransaction>() {
+            @Override
+            public Either<List<Fault>, OngoingRemoteTransaction> parse(Response response) {
+                return parseOngoingTransaction(transaction.getLocation(), transaction.getAccessMode(), transaction.getWatchdog(), response);
+            }
+        };
+    }
+
+    private ResponseParser<OngoingRemoteTransaction> openedTransaction(final AccessMode accessMode) {
+        final long start = System.nanoTime();
+        return new ResponseParser<OngoingRemoteTransaction>() {
+            @Override
+            public Either<List<Fault>, OngoingRemoteTransaction> parse(Response response) {
+                TransactionUri location = new TransactionUri(response.header("Location"));
+                Watchdog watchdog = Watchdog.disabled();
+                if (transactionTimeoutMillis > 0 && response.isSuccessful()) {
+                    long elapsedMillis = NANOSECONDS.toMillis(System.nanoTime() - start);
+                    watchdog = startTransactionWatchdog(location, Math.max(1, transactionTimeoutMillis - elapsedMillis));
+                }
+                Either<List<Fault>, OngoingRemoteTransaction> result;
+                try {
+                    result = parseOngoingTransaction(location, accessMode, watchdog, response);
+                } catch (RuntimeException e) {
+                    watchdog.stop();
+                    if (response.isSuccessful() && location.url() != null) {
+                        discard(location);
+                    }
+                    throw e;
+                }
+                if (result.isRight()) {
+                    LOGGER.info("Transaction has been successfully open at URI {}", location.value());
+                }
+                else {
+                    watchdog.stop();
+                }
+                return result;
+            }
+        };
+    }
+
+    private ResponseParser<ClosedTransaction> committedTransaction(final OngoingRemoteTransaction transaction) {
+        return new ResponseParser<ClosedTransaction>() {
+            @Override
+            public Either<List<Fault>, ClosedTransaction> parse(Response response) {
+                transaction.getWatchdog().stop();
+                return committedTransactionParser.parse(response);
+            }
+        };
     }
 
-    private Either<IOException, CypherExecutionResults> deserializeResponse(ResponseBody body) {
-        try (Reader reader = body.charStream()) {
-            return DefaultEither.right(gson.fromJson(reader, CypherExecutionResults.class));
+    private final ResponseParser<List<Data>> dataParser = new ResponseParser<List<Data>>() {
+        @Override
+        public Either<List<Fault>, List<Data>> parse(Response response) {
+            return parseResponse(response);
+        }
+    };
+
+    private final ResponseParser<ClosedTransaction> committedTransactionParser = new ResponseParser<ClosedTransaction>() {
+        @Override
+        public Either<List<Fault>, ClosedTransaction> parse(Response response) {
+            Either<List<Fault>, List<Data>> result = parseResponse(response);
+            if (result.isLeft()) {
+                return DefaultEither.left(result.getLeft());
+            }
+            return DefaultEither.right(new ClosedTransaction(result.getRight(), false));
+        }
+    };
+
+    private final ResponseParser<ClosedTransaction> rolledBackParser = new ResponseParser<ClosedTransaction>() {
+        @Override
+        public Either<List<Fault>, ClosedTransaction> parse(Response response) {
+            return DefaultEither.right(ClosedTransaction.ROLLED_BACK);
+        }
+    };
+
+    private Either<IOException, TransactionPayload> deserializeResponse(ResponseBody body) {
+        try {
+            return DefaultEither.right(TransactionPayload.read(body, valueAdapter));
         } catch (IOException e) {
             LOGGER.error("An unexpected error happened while deserializing the HTTP response", e);
             return DefaultEither.left(e);
+        } catch (RuntimeException e) {
+            LOGGER.error("An unexpected error happened while deserializing the HTTP response", e);
+            return DefaultEither.left(new IOException(e.getMessage(), e));
         }
     }
 
@@ -202,9 +689,9 @@ public final class HttpClient implements CypherClient<OngoingRemoteTransaction>
         return DefaultEither.left(Collections.singletonList(error));
     }
 
-    private static long expiryTime(CypherExecutionResults response) {
+    private static long expiryTime(TransactionPayload response) {
         try {
-            return tryParseTransactionDate(response.getTransaction().getExpires());
+            return tryParseTransactionDate(response.getExpires());
         } catch (ParseException e) {
             LOGGER.error("An unexpected error happened while parsing the transaction expiry time", e);
             throw new RuntimeException(e.getMessage(), e);
@@ -215,7 +702,46 @@ public final class HttpClient implements CypherClient<OngoingRemoteTransaction>
         return TransactionDateFormatSupplier.get().parse(expires).getTime();
     }
 
-    private String serializeQueries(List<String> queries) {
-        return gson.toJson(CypherStatements.create(queries));
+    /**
+     * Sends an empty list of statements, which resets the expiry of the transaction, and schedules the next keep-alive.
+     */
+    private final class TransactionKeepAlive implements Runnable, Callback {
+        private final TransactionUri location;
+
+        TransactionKeepAlive(TransactionUri location) {
+            this.location = location;
+        }
+
+        @Override
+        public void run() {
+            RequestBody body = statementsBody(Collections.<Statement>emptyList());
+            httpClient.newCall(pinnedRequest(location).post(body).build()).enqueue(this);
+        }
+
+        @Override
+        public void onFailure(Call call, IOException e) {
+            LOGGER.warn("Could not keep transaction at URI {} alive", location.value(), e);
+            keepAliveScheduler.cancel(location);
+        }
+
+        @Override
+        public void onResponse(Call call, Response response) {
+            try (Response ignored = response) {
+                Either<IOException, TransactionPayload> payload = deserializeResponse(response.body());
+                if (payload.isLeft() || payload.getRight().hasErrors()) {
+                    LOGGER.warn("Transaction at URI {} could not be kept alive, it may have been closed meanwhile", location.value());
+                    keepAliveScheduler.cancel(location);
+                    return;
+                }
+                keepAliveScheduler.reschedule(location, expiryTime(payload.getRight()), this);
+            } catch (RuntimeException e) {
+                LOGGER.warn("Could not keep transaction at URI {} alive", location.value(), e);
+                keepAliveScheduler.cancel(location);
+            }
+        }
+    }
+
+    private interface ResponseParser<T> {
+        Either<List<Fault>, T> parse(Response response);
     }
 }
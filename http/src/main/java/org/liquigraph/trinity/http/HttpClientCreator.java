@@ -17,15 +17,26 @@ package org.liquigraph.trinity.http;
 
 import org.liquigraph.trinity.CypherClientCreator;
 import org.liquigraph.trinity.CypherTransport;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
 import okhttp3.OkHttpClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 
 public class HttpClientCreator implements CypherClientCreator {
     private static final Logger LOGGER = LoggerFactory.getLogger(HttpClientCreator.class);
 
+    // OkHttp defaults, spelled out since ConnectionPool and timeouts cannot be partially overridden
+    private static final int DEFAULT_MAX_IDLE_CONNECTIONS = 5;
+    private static final long DEFAULT_KEEP_ALIVE_MILLISECONDS = TimeUnit.MINUTES.toMillis(5);
+    private static final long DEFAULT_TIMEOUT_MILLISECONDS = 10_000;
+
     @Override
     public boolean supports(CypherTransport transport) {
         return CypherTransport.HTTP == transport;
@@ -34,10 +45,45 @@ public class HttpClientCreator implements CypherClientCreator {
     @Override
     public HttpClient create(Properties properties) {
         LOGGER.trace("About to instantiate the HTTP client");
-        String baseUrl = read(properties, "cypher.http.baseurl", "the base URL of Neo4j REST API (e.g. http://localhost:7474)");
+        String baseUrls = read(properties, "cypher.http.baseurl", "the comma-separated base URLs of Neo4j REST API (e.g. http://localhost:7474)");
+        String readBaseUrls = read(properties, "cypher.http.read.baseurl");
         String username = read(properties, "cypher.http.username");
         String password = read(properties, "cypher.http.password", "the user password", username == null);
-        return new HttpClient(baseUrl, createHttpClient(username, password));
+        String loadBalancing = properties.getProperty("cypher.http.load-balancing", "round-robin");
+        String transactionTimeout = properties.getProperty("cypher.http.transaction-timeout-milliseconds", "0");
+        String keepAliveMargin = read(properties, "cypher.http.keep-alive-margin-milliseconds");
+        String prewarmedConnections = properties.getProperty("cypher.http.pool.prewarmed-connections", "0");
+        HttpClient client = new HttpClient(
+            split(baseUrls),
+            readBaseUrls == null ? Collections.<String>emptyList() : split(readBaseUrls),
+            createHttpClient(properties, username, password),
+            LoadBalancingStrategies.forName(loadBalancing),
+            Long.parseLong(transactionTimeout, 10),
+            keepAliveMargin == null ? null : new KeepAliveScheduler(Long.parseLong(keepAliveMargin, 10), TimeUnit.MILLISECONDS)
+        );
+        client.prewarm(Integer.parseInt(prewarmedConnections, 10));
+        return client;
+    }
+
+    private static List<String> split(String baseUrls) {
+        List<String> result = new ArrayList<>();
+        for (String baseUrl : baseUrls.split(",")) {
+            String trimmed = baseUrl.trim();
+            if (!trimmed.isEmpty()) {
+                result.add(trimmed);
+            }
+        }
+        return result;
+    }
+
+    private static int readInt(Properties properties, String name, int defaultValue) {
+        String property = properties.getProperty(name);
+        return property == null ? defaultValue : Integer.parseInt(property, 10);
+    }
+
+    private static long readLong(Properties properties, String name, long defaultValue) {
+        String property = properties.getProperty(name);
+        return property == null ? defaultValue : Long.parseLong(property, 10);
     }
 
     private String read(Properties properties, String name) {
@@ -56,11 +102,24 @@ public class HttpClientCreator implements CypherClientCreator {
         return property;
     }
 
-    private static OkHttpClient createHttpClient(String username, String password) {
-        OkHttpClient.Builder builder = new OkHttpClient.Builder();
+    private static OkHttpClient createHttpClient(Properties properties, String username, String password) {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(readInt(properties, "cypher.http.dispatcher.max-requests", dispatcher.getMaxRequests()));
+        dispatcher.setMaxRequestsPerHost(readInt(properties, "cypher.http.dispatcher.max-requests-per-host", dispatcher.getMaxRequestsPerHost()));
+        OkHttpClient.Builder builder = new OkHttpClient.Builder()
+            .dispatcher(dispatcher)
+            .connectionPool(new ConnectionPool(
+                readInt(properties, "cypher.http.pool.max-idle-connections", DEFAULT_MAX_IDLE_CONNECTIONS),
+                readLong(properties, "cypher.http.pool.keep-alive-milliseconds", DEFAULT_KEEP_ALIVE_MILLISECONDS),
+                TimeUnit.MILLISECONDS))
+            .connectTimeout(readLong(properties, "cypher.http.connect-timeout-milliseconds", DEFAULT_TIMEOUT_MILLISECONDS), TimeUnit.MILLISECONDS)
+            .readTimeout(readLong(properties, "cypher.http.read-timeout-milliseconds", DEFAULT_TIMEOUT_MILLISECONDS), TimeUnit.MILLISECONDS)
+            .writeTimeout(readLong(properties, "cypher.http.write-timeout-milliseconds", DEFAULT_TIMEOUT_MILLISECONDS), TimeUnit.MILLISECONDS);
         if (username != null && password != null) {
-            LOGGER.trace("Targetting Neo4j without authentication credentials");
-            builder = builder.authenticator(new BasicAuthenticator(username, password));
+            LOGGER.trace("Targetting Neo4j with authentication credentials");
+            builder = builder
+                .addInterceptor(new PreemptiveAuthInterceptor(username, password))
+                .authenticator(new BasicAuthenticator(username, password));
         }
         return builder.build();
     }
@@ -0,0 +1,279 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.liquigraph.trinity.http;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import okhttp3.Response;
+import org.liquigraph.trinity.ColumnIndex;
+import org.liquigraph.trinity.Cursor;
+import org.liquigraph.trinity.DefaultEither;
+import org.liquigraph.trinity.Either;
+import org.liquigraph.trinity.Fault;
+import org.liquigraph.trinity.Row;
+import org.liquigraph.trinity.RowMapper;
+import org.liquigraph.trinity.internal.ArrayRowView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.liquigraph.trinity.http.TransactionPayload.checkWithinColumns;
+import static org.liquigraph.trinity.http.TransactionPayload.readColumns;
+import static org.liquigraph.trinity.http.TransactionPayload.readFaults;
+import static org.liquigraph.trinity.http.TransactionPayload.readValue;
+import static org.liquigraph.trinity.http.TransactionPayload.skipRemainingFields;
+
+/**
+ * Reads rows straight off the response body of a single statement.
+ * This relies on Neo4j writing "columns" before "data" in each result, other payloads are reported as faults.
+ */
+final class HttpCursor implements Cursor {
+    private static final Logger LOGGER = LoggerFactory.getLogger(HttpCursor.class);
+
+    private final Response response;
+    private final JsonReader reader;
+    private final TypeAdapter<Object> valueAdapter;
+    private final ColumnIndex columns;
+    private final List<Fault> faults;
+    private final Runnable onClose;
+    private boolean exhausted;
+    private boolean closed;
+    private ArrayRowView view;
+
+    private HttpCursor(Response response, JsonReader reader, TypeAdapter<Object> valueAdapter, ColumnIndex columns, List<Fault> faults, boolean exhausted, Runnable onClose) {
+        this.response = response;
+        this.reader = reader;
+        this.valueAdapter = valueAdapter;
+        this.columns = columns;
+        this.faults = faults;
+        this.exhausted = exhausted;
+        this.onClose = onClose;
+    }
+
+    /**
+     * @param onClose run once the response is closed, either by the cursor or right away if reading its head failed
+     */
+    public static Either<List<Fault>, Cursor> open(Response response, Gson gson, Runnable onClose) {
+        JsonReader reader = new JsonReader(response.body().charStream());
+        List<String> columns = Collections.emptyList();
+        List<Fault> faults = new ArrayList<>(0);
+        try {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if ("errors".equals(name)) {
+                    readFaults(reader, faults);
+                    if (!faults.isEmpty()) {
+                        break;
+                    }
+                }
+                else if ("results".equals(name)) {
+                    reader.beginArray();
+                    if (reader.hasNext()) {
+                        columns = readUntilData(reader);
+                        return DefaultEither.<List<Fault>, Cursor>right(
+                            new HttpCursor(response, reader, gson.getAdapter(Object.class), new ColumnIndex(columns), faults, false, onClose));
+                    }
+                    reader.endArray();
+                }
+                else {
+                    reader.skipValue();
+                }
+            }
+            if (faults.isEmpty()) {
+                reader.endObject();
+            }
+        } catch (IOException | IllegalStateException e) {
+            LOGGER.error("An unexpected error happened while reading the HTTP response", e);
+            faults.add(new Fault("HttpClient.Error.IOException", e.getMessage()));
+        }
+        if (!faults.isEmpty()) {
+            response.close();
+            onClose.run();
+            return DefaultEither.left(faults);
+        }
+        return DefaultEither.<List<Fault>, Cursor>right(
+            new HttpCursor(response, reader, gson.getAdapter(Object.class), new ColumnIndex(columns), faults, true, onClose));
+    }
+
+    @Override
+    public List<String> getColumns() {
+        return columns.getColumns();
+    }
+
+    @Override
+    public List<Fault> getFaults() {
+        return faults;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (exhausted) {
+            return false;
+        }
+        try {
+            if (reader.hasNext()) {
+                return true;
+            }
+            readRemainingPayload();
+        } catch (IOException | IllegalStateException e) {
+            LOGGER.error("An unexpected error happened while reading the HTTP response", e);
+            faults.add(new Fault("HttpClient.Error.IOException", e.getMessage()));
+        }
+        exhausted = true;
+        return false;
+    }
+
+    @Override
+    public Row next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("Cursor is exhausted");
+        }
+        try {
+            return readRow();
+        } catch (IOException | IllegalStateException e) {
+            throw fail(e);
+        }
+    }
+
+    @Override
+    public <T> T next(RowMapper<T> mapper) {
+        if (!hasNext()) {
+            throw new NoSuchElementException("Cursor is exhausted");
+        }
+        if (view == null) {
+            view = new ArrayRowView(columns);
+        }
+        try {
+            readRow(view.values());
+        } catch (IOException | IllegalStateException e) {
+            throw fail(e);
+        }
+        return mapper.map(view);
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("Cursor is read-only");
+    }
+
+    @Override
+    public void close() {
+        response.close();
+        closed();
+    }
+
+    @Override
+    public void abort() {
+        response.close();
+        closed();
+    }
+
+    private void closed() {
+        if (!closed) {
+            closed = true;
+            onClose.run();
+        }
+    }
+
+    private Row readRow() throws IOException {
+        Row.Builder row = new Row.Builder(columns);
+        beginRow();
+        for (int i = 0; reader.hasNext(); i++) {
+            checkWithinColumns(i, columns);
+            readValue(reader, valueAdapter, row, i);
+        }
+        endRow();
+        return row.build();
+    }
+
+    private void readRow(Object[] values) throws IOException {
+        beginRow();
+        for (int i = 0; reader.hasNext(); i++) {
+            checkWithinColumns(i, columns);
+            values[i] = valueAdapter.read(reader);
+        }
+        endRow();
+    }
+
+    private void beginRow() throws IOException {
+        reader.beginObject();
+        while (!"row".equals(reader.nextName())) {
+            reader.skipValue();
+        }
+        reader.beginArray();
+    }
+
+    private void endRow() throws IOException {
+        reader.endArray();
+        skipRemainingFields(reader);
+        reader.endObject();
+    }
+
+    private NoSuchElementException fail(Exception e) {
+        LOGGER.error("An unexpected error happened while reading the HTTP response", e);
+        faults.add(new Fault("HttpClient.Error.IOException", e.getMessage()));
+        exhausted = true;
+        return new NoSuchElementException(e.getMessage());
+    }
+
+    private void readRemainingPayload() throws IOException {
+        reader.endArray();
+        skipRemainingFields(reader);
+        reader.endObject();
+        while (reader.hasNext()) {
+            reader.skipValue();
+        }
+        reader.endArray();
+        while (reader.hasNext()) {
+            if ("errors".equals(reader.nextName())) {
+                readFaults(reader, faults);
+            }
+            else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    private static List<String> readUntilData(JsonReader reader) throws IOException {
+        List<String> columns = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("columns".equals(name)) {
+                columns = readColumns(reader);
+            }
+            else if ("data".equals(name)) {
+                if (columns == null) {
+                    throw new IllegalStateException("Result payload lists data before columns");
+                }
+                reader.beginArray();
+                return columns;
+            }
+            else {
+                reader.skipValue();
+            }
+        }
+        throw new IllegalStateException("Result payload does not contain any data");
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.liquigraph.trinity.http;
+
+import okhttp3.HttpUrl;
+import org.liquigraph.trinity.http.internal.http.Endpoints;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Neo4j instance targeted by {@link HttpClient}, along with the load figures
+ * {@link LoadBalancingStrategy} implementations base their decisions on.
+ */
+public final class HttpEndpoint {
+
+    public static final long UNKNOWN_LATENCY = -1;
+
+    private static final int LATENCY_SMOOTHING_FACTOR = 5;
+
+    private final String baseUrl;
+    private final HttpUrl singleTransactionUri;
+    private final HttpUrl openTransactionUri;
+    private final AtomicInteger outstandingRequests = new AtomicInteger();
+    private final AtomicLong averageLatencyNanos = new AtomicLong(UNKNOWN_LATENCY);
+
+    HttpEndpoint(String baseUrl) {
+        this.baseUrl = baseUrl;
+        this.singleTransactionUri = Endpoints.singleTransactionUri(baseUrl);
+        this.openTransactionUri = Endpoints.openTransactionUri(baseUrl);
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public int getOutstandingRequests() {
+        return outstandingRequests.get();
+    }
+
+    /**
+     * Exponentially weighted moving average of the observed response times,
+     * or {@link #UNKNOWN_LATENCY} until a first request completes.
+     */
+    public long getAverageLatencyNanos() {
+        return averageLatencyNanos.get();
+    }
+
+    HttpUrl singleTransactionUri() {
+        return singleTransactionUri;
+    }
+
+    HttpUrl openTransactionUri() {
+        return openTransactionUri;
+    }
+
+    boolean owns(HttpUrl url) {
+        return singleTransactionUri.scheme().equals(url.scheme())
+            && singleTransactionUri.host().equals(url.host())
+            && singleTransactionUri.port() == url.port();
+    }
+
+    void requestStarted() {
+        outstandingRequests.incrementAndGet();
+    }
+
+    void requestCompleted(long latencyNanos) {
+        outstandingRequests.decrementAndGet();
+        long previous;
+        long next;
+        do {
+            previous = averageLatencyNanos.get();
+            next = previous == UNKNOWN_LATENCY ? latencyNanos : previous + (latencyNanos - previous) / LATENCY_SMOOTHING_FACTOR;
+        } while (!averageLatencyNanos.compareAndSet(previous, next));
+    }
+
+    @Override
+    public String toString() {
+        return "HttpEndpoint{" +
+            "baseUrl='" + baseUrl + '\'' +
+            ", outstandingRequests=" + outstandingRequests +
+            ", averageLatencyNanos=" + averageLatencyNanos +
+            '}';
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.liquigraph.trinity.http;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Keeps open transactions alive by running their keep-alive action shortly before they expire.
+ * All transactions share a single timer wheel, driven by one daemon thread started on first use.
+ */
+public final class KeepAliveScheduler implements AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(KeepAliveScheduler.class);
+    private static final long DEFAULT_TICK_MILLIS = 100;
+    private static final int DEFAULT_WHEEL_SIZE = 1024;
+
+    private final long marginMillis;
+    private final long tickMillis;
+    private final Queue<Entry>[] wheel;
+    private final ConcurrentMap<TransactionUri, Entry> entries = new ConcurrentHashMap<>();
+    private final long startNanos = System.nanoTime();
+    private volatile long currentTick;
+    private volatile boolean closed;
+    private Thread worker;
+
+    /**
+     * @param margin how long before the expiry of transactions their keep-alive runs
+     */
+    public KeepAliveScheduler(long margin, TimeUnit unit) {
+        this(unit.toMillis(margin), DEFAULT_TICK_MILLIS, DEFAULT_WHEEL_SIZE);
+    }
+
+    @SuppressWarnings("unchecked")
+    KeepAliveScheduler(long marginMillis, long tickMillis, int wheelSize) {
+        if (marginMillis < 0 || tickMillis <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("Keep-alive margin must be positive, tick duration and wheel size strictly positive");
+        }
+        this.marginMillis = marginMillis;
+        this.tickMillis = tickMillis;
+        this.wheel = new Queue[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            wheel[i] = new ConcurrentLinkedQueue<>();
+        }
+    }
+
+    /**
+     * @return the number of transactions currently kept alive
+     */
+    public int getTrackedCount() {
+        return entries.size();
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        entries.clear();
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    /**
+     * Starts tracking the transaction, replacing any keep-alive already scheduled for it.
+     *
+     * @param expiry the server expiry time of the transaction, in milliseconds since the epoch
+     */
+    void schedule(TransactionUri location, long expiry, Runnable keepAlive) {
+        Entry entry = new Entry(location, deadlineTick(expiry), keepAlive);
+        Entry previous = entries.put(location, entry);
+        if (previous != null) {
+            previous.cancel();
+        }
+        add(entry);
+    }
+
+    /**
+     * Schedules the next keep-alive of the transaction, unless it stopped being tracked meanwhile.
+     */
+    void reschedule(TransactionUri location, long expiry, Runnable keepAlive) {
+        Entry entry = new Entry(location, deadlineTick(expiry), keepAlive);
+        Entry previous = entries.replace(location, entry);
+        if (previous == null) {
+            return;
+        }
+        previous.cancel();
+        add(entry);
+    }
+
+    void cancel(TransactionUri location) {
+        Entry entry = entries.remove(location);
+        if (entry != null) {
+            entry.cancel();
+        }
+    }
+
+    private long deadlineTick(long expiry) {
+        long delayMillis = expiry - marginMillis - System.currentTimeMillis();
+        long deadlineMillis = NANOSECONDS.toMillis(System.nanoTime() - startNanos) + Math.max(delayMillis, 0);
+        return Math.max(deadlineMillis / tickMillis, currentTick + 1);
+    }
+
+    private void add(Entry entry) {
+        if (closed) {
+            return;
+        }
+        wheel[(int) (entry.deadlineTick % wheel.length)].add(entry);
+        startWorker();
+    }
+
+    private synchronized void startWorker() {
+        if (worker != null || closed) {
+            return;
+        }
+        worker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                turnWheel();
+            }
+        }, "trinity-http-keep-alive");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    private void turnWheel() {
+        while (!closed) {
+            long tick = currentTick + 1;
+            long sleepMillis = tick * tickMillis - NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            if (sleepMillis > 0) {
+                try {
+                    MILLISECONDS.sleep(sleepMillis);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+            currentTick = tick;
+            expire(wheel[(int) (tick % wheel.length)], tick);
+        }
+    }
+
+    private void expire(Queue<Entry> bucket, long tick) {
+        Iterator<Entry> iterator = bucket.iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.isCancelled()) {
+                iterator.remove();
+            }
+            else if (entry.deadlineTick <= tick) {
+                iterator.remove();
+                entry.run();
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final TransactionUri location;
+        private final long deadlineTick;
+        private final Runnable keepAlive;
+        private volatile boolean cancelled;
+
+        Entry(TransactionUri location, long deadlineTick, Runnable keepAlive) {
+            this.location = location;
+            this.deadlineTick = deadlineTick;
+            this.keepAlive = keepAlive;
+        }
+
+        void cancel() {
+            cancelled = true;
+        }
+
+        boolean isCancelled() {
+            return cancelled;
+        }
+
+        void run() {
+            LOGGER.debug("Keeping transaction at URI {} alive", location.value());
+            try {
+                keepAlive.run();
+            } catch (RuntimeException e) {
+                LOGGER.warn("Could not keep transaction at URI {} alive", location.value(), e);
+            }
+        }
+    }
+}
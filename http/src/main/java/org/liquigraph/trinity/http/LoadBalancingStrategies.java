@@ -0,0 +1,124 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.liquigraph.trinity.http;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public final class LoadBalancingStrategies {
+
+    private LoadBalancingStrategies() {
+        throw new UnsupportedOperationException("Static class");
+    }
+
+    public static LoadBalancingStrategy roundRobin() {
+        return new RoundRobin();
+    }
+
+    public static LoadBalancingStrategy leastOutstandingRequests() {
+        return new LeastOutstandingRequests();
+    }
+
+    public static LoadBalancingStrategy latencyWeighted() {
+        return new LatencyWeighted();
+    }
+
+    public static LoadBalancingStrategy forName(String name) {
+        switch (name) {
+            case "round-robin":
+                return roundRobin();
+            case "least-outstanding-requests":
+                return leastOutstandingRequests();
+            case "latency-weighted":
+                return latencyWeighted();
+            default:
+                throw new IllegalArgumentException(String.format(
+                    "Unknown load balancing strategy %s, expected one of: round-robin, least-outstanding-requests, latency-weighted", name));
+        }
+    }
+
+    private static int nextIndex(AtomicInteger counter, int size) {
+        return (counter.getAndIncrement() & Integer.MAX_VALUE) % size;
+    }
+
+    private static class RoundRobin implements LoadBalancingStrategy {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public HttpEndpoint select(List<HttpEndpoint> endpoints) {
+            return endpoints.get(nextIndex(counter, endpoints.size()));
+        }
+    }
+
+    private static class LeastOutstandingRequests implements LoadBalancingStrategy {
+
+        // rotates the starting point so that ties do not always favour the first endpoint
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public HttpEndpoint select(List<HttpEndpoint> endpoints) {
+            int size = endpoints.size();
+            int start = nextIndex(counter, size);
+            HttpEndpoint result = endpoints.get(start);
+            for (int i = 1; i < size; i++) {
+                HttpEndpoint candidate = endpoints.get((start + i) % size);
+                if (candidate.getOutstandingRequests() < result.getOutstandingRequests()) {
+                    result = candidate;
+                }
+            }
+            return result;
+        }
+    }
+
+    private static class LatencyWeighted implements LoadBalancingStrategy {
+
+        @Override
+        public HttpEndpoint select(List<HttpEndpoint> endpoints) {
+            int size = endpoints.size();
+            if (size == 1) {
+                return endpoints.get(0);
+            }
+            long fastest = Long.MAX_VALUE;
+            for (HttpEndpoint endpoint : endpoints) {
+                long latency = endpoint.getAverageLatencyNanos();
+                if (latency != HttpEndpoint.UNKNOWN_LATENCY) {
+                    fastest = Math.min(fastest, latency);
+                }
+            }
+            if (fastest == Long.MAX_VALUE) {
+                return endpoints.get(ThreadLocalRandom.current().nextInt(size));
+            }
+            // endpoints without samples yet are given the best observed latency so that they get probed
+            double[] weights = new double[size];
+            double total = 0;
+            for (int i = 0; i < size; i++) {
+                long latency = endpoints.get(i).getAverageLatencyNanos();
+                weights[i] = 1.0 / (1 + (latency == HttpEndpoint.UNKNOWN_LATENCY ? fastest : latency));
+                total += weights[i];
+            }
+            double pick = ThreadLocalRandom.current().nextDouble(total);
+            for (int i = 0; i < size - 1; i++) {
+                pick -= weights[i];
+                if (pick < 0) {
+                    return endpoints.get(i);
+                }
+            }
+            return endpoints.get(size - 1);
+        }
+    }
+}
@@ -15,8 +15,10 @@
  */
 package org.liquigraph.trinity.http;
 
+import org.liquigraph.trinity.AccessMode;
 import org.liquigraph.trinity.Data;
 import org.liquigraph.trinity.OngoingTransaction;
+import org.liquigraph.trinity.internal.Watchdog;
 
 import java.util.List;
 import java.util.Objects;
@@ -26,12 +28,24 @@ public class OngoingRemoteTransaction implements OngoingTransaction {
     private final long expiry;
     private final TransactionUri commitLocation;
     private final List<Data> data;
+    private final AccessMode accessMode;
+    private final Watchdog watchdog;
 
     public OngoingRemoteTransaction(TransactionUri location, long expiry, TransactionUri commitLocation, List<Data> data) {
+        this(location, expiry, commitLocation, data, AccessMode.WRITE);
+    }
+
+    public OngoingRemoteTransaction(TransactionUri location, long expiry, TransactionUri commitLocation, List<Data> data, AccessMode accessMode) {
+        this(location, expiry, commitLocation, data, accessMode, Watchdog.disabled());
+    }
+
+    OngoingRemoteTransaction(TransactionUri location, long expiry, TransactionUri commitLocation, List<Data> data, AccessMode accessMode, Watchdog watchdog) {
         this.location = location;
         this.expiry = expiry;
         this.commitLocation = commitLocation;
         this.data = data;
+        this.accessMode = accessMode;
+        this.watchdog = watchdog;
     }
 
     public TransactionUri getLocation() {
@@ -51,9 +65,18 @@ public class OngoingRemoteTransaction implements OngoingTransaction {
         return data;
     }
 
+    @Override
+    public AccessMode getAccessMode() {
+        return accessMode;
+    }
+
+    Watchdog getWatchdog() {
+        return watchdog;
+    }
+
     @Override
     public int hashCode() {
-        return Objects.hash(location, expiry, commitLocation, data);
+        return Objects.hash(location, expiry, commitLocation, data, accessMode);
     }
 
     @Override
@@ -68,7 +91,8 @@ public class OngoingRemoteTransaction implements OngoingTransaction {
         return Objects.equals(this.location, other.location)
             && Objects.equals(this.expiry, other.expiry)
             && Objects.equals(this.commitLocation, other.commitLocation)
-            && Objects.equals(this.data, other.data);
+            && Objects.equals(this.data, other.data)
+            && Objects.equals(this.accessMode, other.accessMode);
     }
 
     @Override
@@ -78,6 +102,7 @@ public class OngoingRemoteTransaction implements OngoingTransaction {
             ", expiry=" + expiry +
             ", commitLocation=" + commitLocation +
             ", data=" + data +
+            ", accessMode=" + accessMode +
             '}';
     }
 }
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.liquigraph.trinity.http;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonWriter;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+import org.liquigraph.trinity.Statement;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.Charset;
+import java.util.List;
+
+/**
+ * Writes statements straight to the request sink, without materializing the JSON payload first.
+ * The body is written again from the same statements if OkHttp retries the request.
+ */
+final class StatementsBody extends RequestBody {
+    private static final MediaType JSON = MediaType.parse("application/json;charset=UTF-8");
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final List<Statement> statements;
+    private final Gson gson;
+    private final TypeAdapter<Object> valueAdapter;
+
+    StatementsBody(List<Statement> statements, Gson gson, TypeAdapter<Object> valueAdapter) {
+        this.statements = statements;
+        this.gson = gson;
+        this.valueAdapter = valueAdapter;
+    }
+
+    @Override
+    public MediaType contentType() {
+        return JSON;
+    }
+
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        JsonWriter writer = gson.newJsonWriter(new OutputStreamWriter(sink.outputStream(), UTF_8));
+        writer.beginObject();
+        writer.name("statements").beginArray();
+        for (Statement statement : statements) {
+            writer.beginObject();
+            writer.name("statement").value(statement.getQuery());
+            if (statement.hasParameters()) {
+                writer.name("parameters");
+                valueAdapter.write(writer, statement.getParameters());
+            }
+            writer.name("includeStats").value(true);
+            writer.endObject();
+        }
+        writer.endArray();
+        writer.endObject();
+        writer.flush();
+    }
+}
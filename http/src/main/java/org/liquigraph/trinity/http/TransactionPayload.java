@@ -0,0 +1,318 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.liquigraph.trinity.http;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import okhttp3.ResponseBody;
+import org.liquigraph.trinity.ColumnIndex;
+import org.liquigraph.trinity.Data;
+import org.liquigraph.trinity.Fault;
+import org.liquigraph.trinity.QuerySummary;
+import org.liquigraph.trinity.Row;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Transactional endpoint response, decoded incrementally into {@link Data} rows.
+ * Decoding stops as soon as errors are met, the rest of the payload being irrelevant then.
+ */
+final class TransactionPayload {
+
+    private final String commit;
+    private final String expires;
+    private final List<Data> results;
+    private final List<Fault> errors;
+
+    private TransactionPayload(String commit, String expires, List<Data> results, List<Fault> errors) {
+        this.commit = commit;
+        this.expires = expires;
+        this.results = results;
+        this.errors = errors;
+    }
+
+    public static TransactionPayload read(ResponseBody body, TypeAdapter<Object> valueAdapter) throws IOException {
+        try (JsonReader reader = new JsonReader(body.charStream())) {
+            String commit = null;
+            String expires = null;
+            List<Data> results = Collections.emptyList();
+            List<Fault> errors = new ArrayList<>(0);
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if ("errors".equals(name)) {
+                    readFaults(reader, errors);
+                    if (!errors.isEmpty()) {
+                        break;
+                    }
+                }
+                else if ("results".equals(name)) {
+                    results = readResults(reader, valueAdapter);
+                }
+                else if ("commit".equals(name)) {
+                    commit = reader.nextString();
+                }
+                else if ("transaction".equals(name)) {
+                    expires = readExpiry(reader);
+                }
+                else {
+                    reader.skipValue();
+                }
+            }
+            return new TransactionPayload(commit, expires, results, errors);
+        }
+    }
+
+    public String getCommit() {
+        return commit;
+    }
+
+    public String getExpires() {
+        return expires;
+    }
+
+    public List<Data> getResults() {
+        return results;
+    }
+
+    public boolean hasErrors() {
+        return !errors.isEmpty();
+    }
+
+    public List<Fault> getErrors() {
+        return errors;
+    }
+
+    static List<String> readColumns(JsonReader reader) throws IOException {
+        List<String> columns = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            columns.add(reader.nextString());
+        }
+        reader.endArray();
+        return columns;
+    }
+
+    static void readFaults(JsonReader reader, List<Fault> faults) throws IOException {
+        reader.beginArray();
+        while (reader.hasNext()) {
+            String code = null;
+            String message = null;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if ("code".equals(name)) {
+                    code = reader.nextString();
+                }
+                else if ("message".equals(name)) {
+                    message = reader.nextString();
+                }
+                else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+            faults.add(new Fault(code, message));
+        }
+        reader.endArray();
+    }
+
+    static void checkWithinColumns(int index, ColumnIndex columns) {
+        if (index >= columns.size()) {
+            throw new IllegalStateException(String.format("Row has more values than columns %s", columns.getColumns()));
+        }
+    }
+
+    static void readValue(JsonReader reader, TypeAdapter<Object> valueAdapter, Row.Builder row, int index) throws IOException {
+        switch (reader.peek()) {
+            case NUMBER:
+                row.setDouble(index, reader.nextDouble());
+                break;
+            case BOOLEAN:
+                row.setBoolean(index, reader.nextBoolean());
+                break;
+            default:
+                row.set(index, valueAdapter.read(reader));
+        }
+    }
+
+    static void skipRemainingFields(JsonReader reader) throws IOException {
+        while (reader.hasNext()) {
+            reader.nextName();
+            reader.skipValue();
+        }
+    }
+
+    private static List<Data> readResults(JsonReader reader, TypeAdapter<Object> valueAdapter) throws IOException {
+        List<Data> results = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            results.add(readResult(reader, valueAdapter));
+        }
+        reader.endArray();
+        return results;
+    }
+
+    private static Data readResult(JsonReader reader, TypeAdapter<Object> valueAdapter) throws IOException {
+        ColumnIndex columns = null;
+        List<Row> rows = Collections.emptyList();
+        Object bufferedRows = null;
+        QuerySummary summary = QuerySummary.EMPTY;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("columns".equals(name)) {
+                columns = new ColumnIndex(readColumns(reader));
+            }
+            else if ("data".equals(name) && columns == null) {
+                bufferedRows = valueAdapter.read(reader);
+            }
+            else if ("data".equals(name)) {
+                rows = readRows(reader, valueAdapter, columns);
+            }
+            else if ("stats".equals(name)) {
+                summary = readSummary(reader);
+            }
+            else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        if (columns == null) {
+            columns = new ColumnIndex(Collections.<String>emptyList());
+        }
+        if (bufferedRows != null) {
+            rows = toRows(bufferedRows, columns);
+        }
+        return new Data(columns, rows, summary);
+    }
+
+    /**
+     * Builds the rows of a result whose "data" came before its "columns".
+     */
+    private static List<Row> toRows(Object data, ColumnIndex columns) {
+        List<Row> rows = new ArrayList<>();
+        for (Object item : (List<?>) data) {
+            List<?> values = (List<?>) ((Map<?, ?>) item).get("row");
+            if (values == null) {
+                continue;
+            }
+            Row.Builder row = new Row.Builder(columns);
+            for (int i = 0; i < values.size(); i++) {
+                checkWithinColumns(i, columns);
+                row.set(i, values.get(i));
+            }
+            rows.add(row.build());
+        }
+        return rows;
+    }
+
+    private static List<Row> readRows(JsonReader reader, TypeAdapter<Object> valueAdapter, ColumnIndex columns) throws IOException {
+        List<Row> rows = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if ("row".equals(reader.nextName())) {
+                    rows.add(readRow(reader, valueAdapter, columns));
+                }
+                else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+        reader.endArray();
+        return rows;
+    }
+
+    private static Row readRow(JsonReader reader, TypeAdapter<Object> valueAdapter, ColumnIndex columns) throws IOException {
+        Row.Builder row = new Row.Builder(columns);
+        reader.beginArray();
+        for (int i = 0; reader.hasNext(); i++) {
+            checkWithinColumns(i, columns);
+            readValue(reader, valueAdapter, row, i);
+        }
+        reader.endArray();
+        return row.build();
+    }
+
+    private static QuerySummary readSummary(JsonReader reader) throws IOException {
+        QuerySummary.Builder summary = new QuerySummary.Builder();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            switch (name) {
+                case "nodes_created":
+                    summary.nodesCreated(reader.nextInt());
+                    break;
+                case "nodes_deleted":
+                    summary.nodesDeleted(reader.nextInt());
+                    break;
+                case "relationships_created":
+                    summary.relationshipsCreated(reader.nextInt());
+                    break;
+                case "relationship_deleted":
+                    summary.relationshipsDeleted(reader.nextInt());
+                    break;
+                case "properties_set":
+                    summary.propertiesSet(reader.nextInt());
+                    break;
+                case "labels_added":
+                    summary.labelsAdded(reader.nextInt());
+                    break;
+                case "labels_removed":
+                    summary.labelsRemoved(reader.nextInt());
+                    break;
+                case "indexes_added":
+                    summary.indexesAdded(reader.nextInt());
+                    break;
+                case "indexes_removed":
+                    summary.indexesRemoved(reader.nextInt());
+                    break;
+                case "constraints_added":
+                    summary.constraintsAdded(reader.nextInt());
+                    break;
+                case "constraints_removed":
+                    summary.constraintsRemoved(reader.nextInt());
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return summary.build();
+    }
+
+    private static String readExpiry(JsonReader reader) throws IOException {
+        String expires = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if ("expires".equals(reader.nextName())) {
+                expires = reader.nextString();
+            }
+            else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return expires;
+    }
+}
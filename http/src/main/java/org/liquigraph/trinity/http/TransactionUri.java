@@ -15,20 +15,31 @@
  */
 package org.liquigraph.trinity.http;
 
+import okhttp3.HttpUrl;
+
 import java.util.Objects;
 
 public final class TransactionUri {
 
     private final String uri;
+    private final HttpUrl url;
 
     public TransactionUri(String uri) {
         this.uri = uri;
+        this.url = uri == null ? null : HttpUrl.parse(uri);
     }
 
     public String value() {
         return uri;
     }
 
+    /**
+     * Parsed once, since the same transaction URI is requested until commit or rollback. Null if invalid.
+     */
+    HttpUrl url() {
+        return url;
+    }
+
     @Override
     public int hashCode() {
         return Objects.hash(uri);
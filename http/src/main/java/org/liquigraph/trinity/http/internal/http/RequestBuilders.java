@@ -15,11 +15,14 @@
  */
 package org.liquigraph.trinity.http.internal.http;
 
+import okhttp3.Headers;
 import okhttp3.Request;
 
 public class RequestBuilders {
 
+    private static final Headers JSON_HEADERS = Headers.of("Accept", "application/json");
+
     public static Request.Builder json() {
-        return new Request.Builder().addHeader("Accept", "application/json");
+        return new Request.Builder().headers(JSON_HEADERS);
     }
 }
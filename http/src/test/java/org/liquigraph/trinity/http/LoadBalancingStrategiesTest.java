@@ -0,0 +1,79 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.liquigraph.trinity.http;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LoadBalancingStrategiesTest {
+
+    @Rule public ExpectedException thrown = ExpectedException.none();
+
+    private final HttpEndpoint first = new HttpEndpoint("http://localhost:7474");
+    private final HttpEndpoint second = new HttpEndpoint("http://localhost:7475");
+    private final List<HttpEndpoint> endpoints = Arrays.asList(first, second);
+
+    @Test
+    public void cycles_through_endpoints() {
+        LoadBalancingStrategy strategy = LoadBalancingStrategies.roundRobin();
+
+        assertThat(strategy.select(endpoints)).isSameAs(first);
+        assertThat(strategy.select(endpoints)).isSameAs(second);
+        assertThat(strategy.select(endpoints)).isSameAs(first);
+    }
+
+    @Test
+    public void selects_endpoint_with_least_outstanding_requests() {
+        LoadBalancingStrategy strategy = LoadBalancingStrategies.leastOutstandingRequests();
+        first.requestStarted();
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(strategy.select(endpoints)).isSameAs(second);
+        }
+    }
+
+    @Test
+    public void favours_endpoint_with_lowest_latency() {
+        LoadBalancingStrategy strategy = LoadBalancingStrategies.latencyWeighted();
+        first.requestStarted();
+        first.requestCompleted(1_000_000_000L);
+        second.requestStarted();
+        second.requestCompleted(1_000L);
+
+        int secondSelections = 0;
+        for (int i = 0; i < 100; i++) {
+            if (strategy.select(endpoints) == second) {
+                secondSelections++;
+            }
+        }
+
+        assertThat(secondSelections).isGreaterThan(90);
+    }
+
+    @Test
+    public void rejects_unknown_strategy() {
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Unknown load balancing strategy random");
+
+        LoadBalancingStrategies.forName("random");
+    }
+}
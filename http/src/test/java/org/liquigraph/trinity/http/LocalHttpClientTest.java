@@ -15,25 +15,50 @@
  */
 package org.liquigraph.trinity.http;
 
+import org.liquigraph.trinity.AccessMode;
+import org.liquigraph.trinity.BulkWriter;
 import org.liquigraph.trinity.ClosedTransaction;
-import org.liquigraph.trinity.CypherClient;
+import org.liquigraph.trinity.CoalescingCypherClient;
+import org.liquigraph.trinity.Cursor;
 import org.liquigraph.trinity.Data;
 import org.liquigraph.trinity.Either;
+import org.liquigraph.trinity.ExecutionListenerAdapter;
 import org.liquigraph.trinity.Fault;
+import org.liquigraph.trinity.ResultCallback;
+import org.liquigraph.trinity.QuerySummary;
 import org.liquigraph.trinity.Row;
+import org.liquigraph.trinity.RowView;
+import org.liquigraph.trinity.RowMapper;
+import org.liquigraph.trinity.Statement;
 import org.liquigraph.trinity.http.internal.payload.TransactionDateFormatSupplier;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
 import org.assertj.core.data.MapEntry;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.LogManager;
 
 import static org.liquigraph.trinity.Assertions.assertThat;
@@ -45,7 +70,7 @@ import static org.assertj.core.data.MapEntry.entry;
 public class LocalHttpClientTest {
 
     private MockWebServer neo4jServer;
-    private CypherClient<OngoingRemoteTransaction> subject;
+    private HttpClient subject;
 
     @BeforeClass
     public static void prepareAll() {
@@ -246,6 +271,653 @@ public class LocalHttpClientTest {
         assertThat(first.getRows()).containsExactly(row(entry("result", (Object) 123.0)));
     }
 
+    @Test
+    public void sends_statement_parameters() throws InterruptedException {
+        neo4jServer.enqueue(jsonOkResponse("{\"results\": [{\"columns\": [\"name\"], \"data\": [{\"row\": [\"Trinity\"]}]}], \"errors\": []}"));
+
+        Either<List<Fault>, List<Data>> result = subject.runSingleTransaction(
+                new Statement("RETURN {name} AS name", Collections.<String, Object>singletonMap("name", "Trinity")));
+
+        assertThat(result).isRight();
+        assertThat(result.getRight()).containsExactly(new Data("name", new Row("name", "Trinity")));
+        RecordedRequest request = neo4jServer.takeRequest();
+        assertThat(request.getBody().readUtf8())
+                .isEqualTo("{\"statements\":[{\"statement\":\"RETURN {name} AS name\",\"parameters\":{\"name\":\"Trinity\"},\"includeStats\":true}]}");
+    }
+
+    @Test
+    public void writes_rows_in_unwind_batches() throws InterruptedException {
+        neo4jServer.enqueue(jsonOkResponse("{\"commit\": \"" + neo4jServer.url("/db/data/transaction/1/commit") + "\", \"results\": [], \"transaction\": { \"expires\": \"Sun, 30 Jul 2017 14:45:11 +0000\" }, \"errors\": []}", header("Location", neo4jServer.url("/db/data/transaction/1").toString())));
+        neo4jServer.enqueue(jsonOkResponse("{\"results\": [], \"errors\": []}"));
+        BulkWriter<OngoingRemoteTransaction> writer = new BulkWriter<>(subject, 2, 2);
+        List<Map<String, Object>> rows = Arrays.asList(
+                Collections.<String, Object>singletonMap("name", "Neo"),
+                Collections.<String, Object>singletonMap("name", "Trinity"),
+                Collections.<String, Object>singletonMap("name", "Morpheus"));
+
+        Either<List<Fault>, Long> result = writer.write("CREATE (:Crew {name: row.name})", rows.iterator());
+
+        assertThat(result).isRight();
+        assertThat(result.getRight()).isEqualTo(3L);
+        RecordedRequest open = neo4jServer.takeRequest();
+        assertThat(open.getPath()).isEqualTo("/db/data/transaction");
+        assertThat(open.getBody().readUtf8()).isEqualTo("{\"statements\":[{\"statement\":\"UNWIND {batch} AS row CREATE (:Crew {name: row.name})\",\"parameters\":{\"batch\":[{\"name\":\"Neo\"},{\"name\":\"Trinity\"}]},\"includeStats\":true}]}");
+        RecordedRequest commit = neo4jServer.takeRequest();
+        assertThat(commit.getPath()).isEqualTo("/db/data/transaction/1/commit");
+        assertThat(commit.getBody().readUtf8()).isEqualTo("{\"statements\":[{\"statement\":\"UNWIND {batch} AS row CREATE (:Crew {name: row.name})\",\"parameters\":{\"batch\":[{\"name\":\"Morpheus\"}]},\"includeStats\":true}]}");
+    }
+
+    @Test
+    public void reports_query_statistics() {
+        neo4jServer.enqueue(jsonOkResponse("{\"results\": [{\"columns\": [], \"data\": [], \"stats\": {\"contains_updates\": true, \"nodes_created\": 2, \"nodes_deleted\": 0, \"properties_set\": 2, \"relationships_created\": 1, \"relationship_deleted\": 0, \"labels_added\": 2, \"labels_removed\": 0, \"indexes_added\": 0, \"indexes_removed\": 0, \"constraints_added\": 0, \"constraints_removed\": 0}}], \"errors\": []}"));
+
+        Either<List<Fault>, List<Data>> result = subject.runSingleTransaction("CREATE (:Crew {name: 'Neo'})-[:KNOWS]->(:Crew {name: 'Trinity'})");
+
+        assertThat(result).isRight();
+        QuerySummary summary = result.getRight().get(0).getSummary();
+        assertThat(summary.getNodesCreated()).isEqualTo(2);
+        assertThat(summary.getRelationshipsCreated()).isEqualTo(1);
+        assertThat(summary.getPropertiesSet()).isEqualTo(2);
+        assertThat(summary.getLabelsAdded()).isEqualTo(2);
+        assertThat(summary.getResultAvailableAfter()).isEqualTo(QuerySummary.UNKNOWN_TIME);
+    }
+
+    @Test
+    public void reads_data_listed_before_columns() {
+        neo4jServer.enqueue(jsonOkResponse("{\"errors\": [], \"results\": [{\"data\": [{\"row\": [1, \"Neo\"]}, {\"row\": [2, \"Trinity\"]}], \"columns\": [\"id\", \"name\"]}]}"));
+
+        Either<List<Fault>, List<Data>> result = subject.runSingleTransaction("MATCH (c:Crew) RETURN id(c) AS id, c.name AS name");
+
+        assertThat(result).isRight();
+        Data data = result.getRight().get(0);
+        assertThat(data.getColumns()).containsExactly("id", "name");
+        assertThat(data.getRows()).containsExactly(
+                row(entry("id", (Object) 1.0), entry("name", (Object) "Neo")),
+                row(entry("id", (Object) 2.0), entry("name", (Object) "Trinity"))
+        );
+    }
+
+    @Test
+    public void reports_errors_listed_alongside_results() {
+        neo4jServer.enqueue(jsonOkResponse("{\"results\": [{\"columns\": [\"item\"], \"data\": [{\"row\": [1]}]}], \"errors\": [{\"code\": \"Neo.ClientError.Statement.ArithmeticError\", \"message\": \"/ by zero\"}]}"));
+
+        Either<List<Fault>, List<Data>> result = subject.runSingleTransaction("UNWIND [1,0] AS item RETURN 1/item AS item");
+
+        assertThat(result).isLeft();
+        assertThat(result.getLeft()).containsExactly(new Fault("Neo.ClientError.Statement.ArithmeticError", "/ by zero"));
+    }
+
+    @Test
+    public void reports_rows_longer_than_columns() {
+        neo4jServer.enqueue(jsonOkResponse("{\"results\": [{\"columns\": [\"item\"], \"data\": [{\"row\": [1, 2]}]}], \"errors\": []}"));
+
+        Either<List<Fault>, List<Data>> result = subject.runSingleTransaction("RETURN 1 AS item");
+
+        assertThat(result).isLeft();
+        assertThat(result.getLeft()).containsExactly(new Fault("HttpClient.Error.IOException", "Row has more values than columns [item]"));
+    }
+
+    @Test
+    public void streams_rows_one_at_a_time() {
+        neo4jServer.enqueue(jsonOkResponse("{\"results\": [{\"columns\": [\"item\"], \"data\": [{\"row\": [1], \"meta\": [null]}, {\"row\": [2], \"meta\": [null]}]}], \"errors\": []}"));
+
+        Either<List<Fault>, Cursor> result = subject.streamSingleTransaction(new Statement("UNWIND [1,2] AS item RETURN item"));
+
+        assertThat(result).isRight();
+        try (Cursor cursor = result.getRight()) {
+            assertThat(cursor.getColumns()).containsExactly("item");
+            assertThat(cursor).containsExactly(new Row("item", 1.0), new Row("item", 2.0));
+            assertThat(cursor.getFaults()).isEmpty();
+        }
+    }
+
+    @Test
+    public void streams_typed_values() {
+        neo4jServer.enqueue(jsonOkResponse("{\"results\": [{\"columns\": [\"count\", \"average\", \"found\", \"name\"], \"data\": [{\"row\": [3, 1.5, true, \"Trinity\"]}]}], \"errors\": []}"));
+
+        Either<List<Fault>, Cursor> result = subject.streamSingleTransaction(new Statement("MATCH (n) RETURN count(n) AS count, avg(n.x) AS average, true AS found, 'Trinity' AS name"));
+
+        assertThat(result).isRight();
+        try (Cursor cursor = result.getRight()) {
+            Row row = cursor.next();
+            assertThat(row.getLong("count")).isEqualTo(3L);
+            assertThat(row.getDouble("average")).isEqualTo(1.5);
+            assertThat(row.getBoolean("found")).isTrue();
+            assertThat(row.getString("name")).isEqualTo("Trinity");
+        }
+    }
+
+    @Test
+    public void maps_rows_into_user_objects() {
+        neo4jServer.enqueue(jsonOkResponse("{\"results\": [{\"columns\": [\"item\"], \"data\": [{\"row\": [1], \"meta\": [null]}, {\"row\": [2], \"meta\": [null]}]}], \"errors\": []}"));
+
+        Either<List<Fault>, List<String>> result = subject.runSingleTransaction(
+                new Statement("UNWIND [1,2] AS item RETURN item"),
+                new RowMapper<String>() {
+                    @Override
+                    public String map(RowView row) {
+                        return "item-" + row.getLong("item");
+                    }
+                });
+
+        assertThat(result).isRight();
+        assertThat(result.getRight()).containsExactly("item-1", "item-2");
+    }
+
+    @Test
+    public void reports_faults_met_while_mapping_rows() {
+        neo4jServer.enqueue(jsonOkResponse("{\"results\": [{\"columns\": [\"item\"], \"data\": [{\"row\": [1]}]}], \"errors\": [{\"code\": \"Neo.ClientError.Statement.ArithmeticError\", \"message\": \"/ by zero\"}]}"));
+
+        Either<List<Fault>, List<Object>> result = subject.runSingleTransaction(
+                new Statement("UNWIND [1,0] AS item RETURN 1/item AS item"),
+                new RowMapper<Object>() {
+                    @Override
+                    public Object map(RowView row) {
+                        return row.get("item");
+                    }
+                });
+
+        assertThat(result).isLeft();
+        assertThat(result.getLeft()).containsExactly(new Fault("Neo.ClientError.Statement.ArithmeticError", "/ by zero"));
+    }
+
+    @Test
+    public void stops_streaming_at_first_fault() {
+        neo4jServer.enqueue(jsonOkResponse("{\"results\": [{\"columns\": [\"item\"], \"data\": [{\"row\": [1]}]}], \"errors\": [{\"code\": \"Neo.ClientError.Statement.ArithmeticError\", \"message\": \"/ by zero\"}]}"));
+
+        Either<List<Fault>, Cursor> result = subject.streamSingleTransaction(new Statement("UNWIND [1,0] AS item RETURN 1/item AS item"));
+
+        assertThat(result).isRight();
+        try (Cursor cursor = result.getRight()) {
+            assertThat(cursor).containsExactly(new Row("item", 1.0));
+            assertThat(cursor.getFaults()).containsExactly(new Fault("Neo.ClientError.Statement.ArithmeticError", "/ by zero"));
+        }
+    }
+
+    @Test
+    public void rejects_invalid_streamed_statement() {
+        neo4jServer.enqueue(jsonOkResponse("{\"results\": [], \"errors\": [{\"code\": \"Neo.ClientError.Statement.SyntaxError\", \"message\": \"Invalid input\"}]}"));
+
+        Either<List<Fault>, Cursor> result = subject.streamSingleTransaction(new Statement("Not a valid query"));
+
+        assertThat(result).isLeft();
+        assertThat(result.getLeft()).containsExactly(new Fault("Neo.ClientError.Statement.SyntaxError", "Invalid input"));
+    }
+
+    @Test
+    public void rejects_streamed_statement_with_errors_listed_before_results() {
+        neo4jServer.enqueue(jsonOkResponse("{\"errors\": [{\"code\": \"Neo.ClientError.Statement.SyntaxError\", \"message\": \"Invalid input\"}], \"results\": [{\"columns\": [\"item\"], \"data\": []}]}"));
+
+        Either<List<Fault>, Cursor> result = subject.streamSingleTransaction(new Statement("Not a valid query"));
+
+        assertThat(result).isLeft();
+        assertThat(result.getLeft()).containsExactly(new Fault("Neo.ClientError.Statement.SyntaxError", "Invalid input"));
+    }
+
+    @Test
+    public void reports_streamed_data_listed_before_columns() {
+        neo4jServer.enqueue(jsonOkResponse("{\"results\": [{\"data\": [{\"row\": [1]}], \"columns\": [\"item\"]}], \"errors\": []}"));
+
+        Either<List<Fault>, Cursor> result = subject.streamSingleTransaction(new Statement("RETURN 1 AS item"));
+
+        assertThat(result).isLeft();
+        assertThat(result.getLeft()).containsExactly(new Fault("HttpClient.Error.IOException", "Result payload lists data before columns"));
+    }
+
+    @Test
+    public void reports_streamed_rows_longer_than_columns() {
+        neo4jServer.enqueue(jsonOkResponse("{\"results\": [{\"columns\": [\"item\"], \"data\": [{\"row\": [1]}, {\"row\": [2, 3]}]}], \"errors\": []}"));
+
+        Either<List<Fault>, List<Object>> result = subject.runSingleTransaction(
+                new Statement("UNWIND [1,2] AS item RETURN item"),
+                new RowMapper<Object>() {
+                    @Override
+                    public Object map(RowView row) {
+                        return row.get("item");
+                    }
+                });
+
+        assertThat(result).isLeft();
+        assertThat(result.getLeft()).containsExactly(new Fault("HttpClient.Error.IOException", "Row has more values than columns [item]"));
+    }
+
+    @Test
+    public void runs_single_transaction_asynchronously() throws InterruptedException {
+        neo4jServer.enqueue(jsonOkResponse("{\"results\": [{\"columns\": [\"item\"], \"data\": [{\"row\": [1]}]}], \"errors\": []}"));
+        BlockingCallback<List<Data>> callback = new BlockingCallback<>();
+
+        subject.runSingleTransaction(Collections.singletonList(new Statement("RETURN 1 AS item")), callback);
+
+        Either<List<Fault>, List<Data>> result = callback.await();
+        assertThat(result).isRight();
+        assertThat(result.getRight()).containsExactly(new Data("item", new Row("item", 1.0)));
+    }
+
+    @Test
+    public void opens_and_rolls_back_transaction_asynchronously() throws InterruptedException {
+        neo4jServer.enqueue(jsonOkResponse("{\"commit\": \"http://localhost:7474/db/data/transaction/1/commit\", \"results\": [], \"transaction\": { \"expires\": \"Sun, 30 Jul 2017 14:45:11 +0000\" }, \"errors\": []}", header("Location", String.format("http://localhost:%d/db/data/transaction/1", neo4jServer.getPort()))));
+        BlockingCallback<OngoingRemoteTransaction> openCallback = new BlockingCallback<>();
+
+        subject.openTransaction(Collections.<Statement>emptyList(), openCallback);
+
+        Either<List<Fault>, OngoingRemoteTransaction> transaction = openCallback.await();
+        assertThat(transaction).isRight();
+        assertThat(transaction.getRight().getCommitLocation().value()).isEqualTo("http://localhost:7474/db/data/transaction/1/commit");
+
+        neo4jServer.enqueue(jsonOkResponse("{\"results\": [], \"errors\": []}"));
+        BlockingCallback<ClosedTransaction> rollbackCallback = new BlockingCallback<>();
+        subject.rollback(transaction.getRight(), rollbackCallback);
+
+        Either<List<Fault>, ClosedTransaction> closedTransaction = rollbackCallback.await();
+        assertThat(closedTransaction).isRight();
+        assertThat(closedTransaction.getRight().isRolledBack()).isTrue();
+    }
+
+    @Test
+    public void reports_asynchronous_errors() throws InterruptedException {
+        neo4jServer.enqueue(jsonOkResponse("{\"results\": [], \"errors\": [{\"code\": \"Neo.ClientError.Statement.SyntaxError\", \"message\": \"Invalid input\"}]}"));
+        BlockingCallback<List<Data>> callback = new BlockingCallback<>();
+
+        subject.runSingleTransaction(Collections.singletonList(new Statement("Not a valid query")), callback);
+
+        Either<List<Fault>, List<Data>> result = callback.await();
+        assertThat(result).isLeft();
+        assertThat(result.getLeft()).containsExactly(new Fault("Neo.ClientError.Statement.SyntaxError", "Invalid input"));
+    }
+
+    @Test
+    public void reports_unreadable_asynchronous_responses_and_rolls_back_the_opened_transaction() throws InterruptedException {
+        neo4jServer.enqueue(jsonOkResponse("{\"commit\": \"" + neo4jServer.url("/db/data/transaction/1/commit") + "\", \"results\": [], \"transaction\": { \"expires\": \"not a date\" }, \"errors\": []}", header("Location", neo4jServer.url("/db/data/transaction/1").toString())));
+        neo4jServer.enqueue(jsonOkResponse("{\"results\": [], \"errors\": []}"));
+        BlockingCallback<OngoingRemoteTransaction> callback = new BlockingCallback<>();
+
+        subject.openTransaction(Collections.<Statement>emptyList(), callback);
+
+        Either<List<Fault>, OngoingRemoteTransaction> result = callback.await();
+        assertThat(result).isLeft();
+        assertThat(result.getLeft()).extracting("code").containsExactly("HttpClient.Error.InvalidResponse");
+        assertThat(neo4jServer.takeRequest().getMethod()).isEqualTo("POST");
+        RecordedRequest rollback = neo4jServer.takeRequest(5, TimeUnit.SECONDS);
+        assertThat(rollback.getMethod()).isEqualTo("DELETE");
+        assertThat(rollback.getPath()).isEqualTo("/db/data/transaction/1");
+    }
+
+    @Test
+    public void reports_unreadable_asynchronous_responses_and_rolls_back_the_ongoing_transaction() throws InterruptedException {
+        neo4jServer.enqueue(jsonOkResponse("{\"commit\": \"" + neo4jServer.url("/db/data/transaction/1/commit") + "\", \"results\": [], \"transaction\": { \"expires\": \"Sun, 30 Jul 2017 14:45:11 +0000\" }, \"errors\": []}", header("Location", neo4jServer.url("/db/data/transaction/1").toString())));
+        neo4jServer.enqueue(jsonOkResponse("{\"commit\": \"" + neo4jServer.url("/db/data/transaction/1/commit") + "\", \"results\": [], \"transaction\": { \"expires\": \"not a date\" }, \"errors\": []}"));
+        neo4jServer.enqueue(jsonOkResponse("{\"results\": [], \"errors\": []}"));
+        Either<List<Fault>, OngoingRemoteTransaction> transaction = subject.openTransaction();
+        BlockingCallback<OngoingRemoteTransaction> callback = new BlockingCallback<>();
+
+        subject.execute(transaction.getRight(), Collections.singletonList(new Statement("RETURN 1")), callback);
+
+        Either<List<Fault>, OngoingRemoteTransaction> result = callback.await();
+        assertThat(result).isLeft();
+        assertThat(result.getLeft()).extracting("code").containsExactly("HttpClient.Error.InvalidResponse");
+        neo4jServer.takeRequest();
+        neo4jServer.takeRequest();
+        RecordedRequest rollback = neo4jServer.takeRequest(5, TimeUnit.SECONDS);
+        assertThat(rollback.getMethod()).isEqualTo("DELETE");
+        assertThat(rollback.getPath()).isEqualTo("/db/data/transaction/1");
+    }
+
+    @Test
+    public void reports_malformed_response_bodies() {
+        neo4jServer.enqueue(jsonOkResponse("{\"results\": \"not a list\", \"errors\": []}"));
+
+        Either<List<Fault>, List<Data>> result = subject.runSingleTransaction("RETURN 1");
+
+        assertThat(result).isLeft();
+        assertThat(result.getLeft()).extracting("code").containsExactly("HttpClient.Error.IOException");
+    }
+
+    @Test
+    public void balances_single_transactions_across_endpoints() throws Exception {
+        MockWebServer replica = new MockWebServer();
+        replica.start();
+        try {
+            HttpClient client = new HttpClient(
+                Arrays.asList(baseUrl(neo4jServer), baseUrl(replica)),
+                new OkHttpClient(),
+                LoadBalancingStrategies.roundRobin()
+            );
+            neo4jServer.enqueue(jsonOkResponse("{\"results\": [], \"errors\": []}"));
+            replica.enqueue(jsonOkResponse("{\"results\": [], \"errors\": []}"));
+
+            assertThat(client.runSingleTransaction("RETURN 1")).isRight();
+            assertThat(client.runSingleTransaction("RETURN 2")).isRight();
+
+            assertThat(neo4jServer.getRequestCount()).isEqualTo(1);
+            assertThat(replica.getRequestCount()).isEqualTo(1);
+            for (HttpEndpoint endpoint : client.getEndpoints()) {
+                assertThat(endpoint.getOutstandingRequests()).isEqualTo(0);
+                assertThat(endpoint.getAverageLatencyNanos()).isGreaterThan(0);
+            }
+        } finally {
+            replica.shutdown();
+        }
+    }
+
+    @Test
+    public void keeps_endpoints_busy_until_streamed_results_are_closed() {
+        neo4jServer.enqueue(jsonOkResponse("{\"results\": [{\"columns\": [\"item\"], \"data\": [{\"row\": [1]}, {\"row\": [2]}]}], \"errors\": []}"));
+        HttpEndpoint endpoint = subject.getEndpoints().get(0);
+
+        Either<List<Fault>, Cursor> result = subject.streamSingleTransaction(new Statement("UNWIND [1,2] AS item RETURN item"));
+
+        assertThat(result).isRight();
+        assertThat(endpoint.getOutstandingRequests()).isEqualTo(1);
+        try (Cursor cursor = result.getRight()) {
+            assertThat(cursor).containsExactly(new Row("item", 1.0), new Row("item", 2.0));
+        }
+        assertThat(endpoint.getOutstandingRequests()).isEqualTo(0);
+        assertThat(endpoint.getAverageLatencyNanos()).isGreaterThan(0);
+    }
+
+    @Test
+    public void keeps_open_transactions_pinned_to_their_endpoint() throws Exception {
+        MockWebServer replica = new MockWebServer();
+        replica.start();
+        try {
+            HttpClient client = new HttpClient(
+                Arrays.asList(baseUrl(neo4jServer), baseUrl(replica)),
+                new OkHttpClient(),
+                LoadBalancingStrategies.roundRobin()
+            );
+            neo4jServer.enqueue(jsonOkResponse(String.format("{\"commit\": \"%s/db/data/transaction/1/commit\", \"results\": [], \"transaction\": { \"expires\": \"Sun, 30 Jul 2017 14:45:11 +0000\" }, \"errors\": []}", baseUrl(neo4jServer)), header("Location", String.format("%s/db/data/transaction/1", baseUrl(neo4jServer)))));
+            neo4jServer.enqueue(jsonOkResponse("{\"results\": [], \"errors\": []}"));
+            replica.enqueue(jsonOkResponse("{\"results\": [], \"errors\": []}"));
+
+            Either<List<Fault>, OngoingRemoteTransaction> transaction = client.openTransaction();
+            assertThat(client.runSingleTransaction("RETURN 1")).isRight();
+            Either<List<Fault>, ClosedTransaction> committed = client.commit(transaction.getRight());
+
+            assertThat(committed).isRight();
+            assertThat(neo4jServer.getRequestCount()).isEqualTo(2);
+            assertThat(neo4jServer.takeRequest().getPath()).isEqualTo("/db/data/transaction");
+            assertThat(neo4jServer.takeRequest().getPath()).isEqualTo("/db/data/transaction/1/commit");
+            assertThat(replica.getRequestCount()).isEqualTo(1);
+            assertThat(replica.takeRequest().getPath()).isEqualTo("/db/data/transaction/commit");
+        } finally {
+            replica.shutdown();
+        }
+    }
+
+    @Test
+    public void routes_read_transactions_to_read_endpoints() throws Exception {
+        MockWebServer replica = new MockWebServer();
+        replica.start();
+        try {
+            HttpClient client = new HttpClient(
+                Collections.singletonList(baseUrl(neo4jServer)),
+                Collections.singletonList(baseUrl(replica)),
+                new OkHttpClient(),
+                LoadBalancingStrategies.roundRobin()
+            );
+            replica.enqueue(jsonOkResponse("{\"results\": [], \"errors\": []}"));
+            replica.enqueue(jsonOkResponse(String.format("{\"commit\": \"%s/db/data/transaction/1/commit\", \"results\": [], \"transaction\": { \"expires\": \"Sun, 30 Jul 2017 14:45:11 +0000\" }, \"errors\": []}", baseUrl(replica)), header("Location", String.format("%s/db/data/transaction/1", baseUrl(replica)))));
+            neo4jServer.enqueue(jsonOkResponse("{\"results\": [], \"errors\": []}"));
+
+            assertThat(client.runSingleTransaction(AccessMode.READ, new Statement("MATCH (n) RETURN n"))).isRight();
+            Either<List<Fault>, OngoingRemoteTransaction> transaction = client.openTransaction(AccessMode.READ);
+            assertThat(client.runSingleTransaction("CREATE (n)")).isRight();
+
+            assertThat(transaction).isRight();
+            assertThat(transaction.getRight().getAccessMode()).isEqualTo(AccessMode.READ);
+            assertThat(replica.getRequestCount()).isEqualTo(2);
+            assertThat(neo4jServer.getRequestCount()).isEqualTo(1);
+        } finally {
+            replica.shutdown();
+        }
+    }
+
+    @Test
+    public void shares_in_flight_execution_of_identical_reads() throws Exception {
+        neo4jServer.enqueue(jsonOkResponse("{\"results\": [{\"columns\": [\"count\"], \"data\": [{\"row\": [42]}]}], \"errors\": []}")
+            .setBodyDelay(1, TimeUnit.SECONDS));
+        final CoalescingCypherClient<OngoingRemoteTransaction> client = new CoalescingCypherClient<>(subject);
+        final Statement statement = new Statement("MATCH (n) RETURN count(n) AS count");
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Either<List<Fault>, List<Data>>>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(executor.submit(new Callable<Either<List<Fault>, List<Data>>>() {
+                    @Override
+                    public Either<List<Fault>, List<Data>> call() throws InterruptedException {
+                        start.await();
+                        return client.runSingleTransaction(AccessMode.READ, statement);
+                    }
+                }));
+            }
+            start.countDown();
+
+            List<Data> first = futures.get(0).get().getRight();
+            assertThat(first).containsExactly(new Data("count", new Row("count", 42.0)));
+            for (Future<Either<List<Fault>, List<Data>>> future : futures) {
+                assertThat(future.get().getRight()).isSameAs(first);
+            }
+            assertThat(neo4jServer.getRequestCount()).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void can_be_shared_across_threads() throws Exception {
+        int threads = 8;
+        final int requestsPerThread = 25;
+        for (int i = 0; i < threads * requestsPerThread; i++) {
+            neo4jServer.enqueue(jsonOkResponse("{\"results\": [{\"columns\": [\"item\"], \"data\": [{\"row\": [1]}]}], \"errors\": []}"));
+        }
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws InterruptedException {
+                        start.await();
+                        int successes = 0;
+                        for (int j = 0; j < requestsPerThread; j++) {
+                            Either<List<Fault>, List<Data>> result = subject.runSingleTransaction("RETURN 1 AS item");
+                            if (result.isRight() && result.getRight().equals(Collections.singletonList(new Data("item", new Row("item", 1.0))))) {
+                                successes++;
+                            }
+                        }
+                        return successes;
+                    }
+                }));
+            }
+            start.countDown();
+
+            for (Future<Integer> future : futures) {
+                assertThat(future.get()).isEqualTo(requestsPerThread);
+            }
+            assertThat(neo4jServer.getRequestCount()).isEqualTo(threads * requestsPerThread);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void counts_transferred_bytes() throws InterruptedException {
+        final AtomicLong sent = new AtomicLong();
+        final AtomicLong received = new AtomicLong();
+        OkHttpClient okHttpClient = new OkHttpClient.Builder()
+            .addNetworkInterceptor(new ByteCountingInterceptor(new ExecutionListenerAdapter() {
+                @Override
+                public void bytesTransferred(long sentBytes, long receivedBytes) {
+                    sent.addAndGet(sentBytes);
+                    received.addAndGet(receivedBytes);
+                }
+            }))
+            .build();
+        HttpClient client = new HttpClient(baseUrl(neo4jServer), okHttpClient);
+        String body = "{\"results\": [{\"columns\": [\"item\"], \"data\": [{\"row\": [1]}]}], \"errors\": []}";
+        neo4jServer.enqueue(jsonOkResponse(body));
+
+        assertThat(client.runSingleTransaction("RETURN 1 AS item")).isRight();
+
+        assertThat(sent.get()).isEqualTo(neo4jServer.takeRequest().getBodySize());
+        assertThat(received.get()).isEqualTo(body.length());
+    }
+
+    @Test
+    public void counts_sent_bytes_once_when_request_body_is_replayed() throws InterruptedException {
+        final AtomicLong sent = new AtomicLong();
+        OkHttpClient okHttpClient = new OkHttpClient.Builder()
+            .addNetworkInterceptor(new ByteCountingInterceptor(new ExecutionListenerAdapter() {
+                @Override
+                public void bytesTransferred(long sentBytes, long receivedBytes) {
+                    sent.addAndGet(sentBytes);
+                }
+            }))
+            .addNetworkInterceptor(new Interceptor() {
+                @Override
+                public Response intercept(Chain chain) throws IOException {
+                    chain.request().body().writeTo(new Buffer());
+                    return chain.proceed(chain.request());
+                }
+            })
+            .build();
+        HttpClient client = new HttpClient(baseUrl(neo4jServer), okHttpClient);
+        neo4jServer.enqueue(jsonOkResponse("{\"results\": [{\"columns\": [\"item\"], \"data\": [{\"row\": [1]}]}], \"errors\": []}"));
+
+        assertThat(client.runSingleTransaction("RETURN 1 AS item")).isRight();
+
+        assertThat(sent.get()).isEqualTo(neo4jServer.takeRequest().getBodySize());
+    }
+
+    @Test
+    public void prewarms_connections_to_each_endpoint() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            neo4jServer.enqueue(new MockResponse().setBody("{}").setBodyDelay(200, TimeUnit.MILLISECONDS));
+        }
+
+        subject.prewarm(3);
+
+        for (int i = 0; i < 3; i++) {
+            RecordedRequest request = neo4jServer.takeRequest(5, TimeUnit.SECONDS);
+            assertThat(request.getPath()).isEqualTo("/");
+            assertThat(request.getSequenceNumber()).isEqualTo(0);
+        }
+    }
+
+    @Test
+    public void cancels_requests_exceeding_the_statement_timeout() {
+        neo4jServer.enqueue(jsonOkResponse("{\"results\": [], \"errors\": []}").setBodyDelay(5, TimeUnit.SECONDS));
+
+        long start = System.nanoTime();
+        Either<List<Fault>, List<Data>> result = subject.runSingleTransaction(
+            new Statement("MATCH (n) RETURN n").withTimeout(100, TimeUnit.MILLISECONDS));
+
+        assertThat(result).isLeft();
+        assertThat(result.getLeft()).hasSize(1);
+        assertThat(result.getLeft().get(0).isTimeout()).overridingErrorMessage("Statement must time out").isTrue();
+        assertThat(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start)).isLessThan(5L);
+    }
+
+    @Test
+    public void rolls_back_open_transactions_exceeding_the_transaction_timeout() throws InterruptedException {
+        HttpClient client = new HttpClient(
+            Collections.singletonList(baseUrl(neo4jServer)),
+            Collections.<String>emptyList(),
+            new OkHttpClient(),
+            LoadBalancingStrategies.roundRobin(),
+            100
+        );
+        neo4jServer.enqueue(jsonOkResponse(String.format("{\"commit\": \"%s/db/data/transaction/1/commit\", \"results\": [], \"transaction\": { \"expires\": \"Sun, 30 Jul 2017 14:45:11 +0000\" }, \"errors\": []}", baseUrl(neo4jServer)), header("Location", String.format("%s/db/data/transaction/1", baseUrl(neo4jServer)))));
+        neo4jServer.enqueue(jsonOkResponse("{\"results\": [], \"errors\": []}"));
+
+        Either<List<Fault>, OngoingRemoteTransaction> transaction = client.openTransaction();
+        assertThat(transaction).isRight();
+        assertThat(neo4jServer.takeRequest().getPath()).isEqualTo("/db/data/transaction");
+        RecordedRequest rollback = neo4jServer.takeRequest(5, TimeUnit.SECONDS);
+        Either<List<Fault>, ClosedTransaction> committed = client.commit(transaction.getRight());
+
+        assertThat(rollback.getMethod()).isEqualTo("DELETE");
+        assertThat(rollback.getPath()).isEqualTo("/db/data/transaction/1");
+        assertThat(committed).isLeft();
+        assertThat(committed.getLeft().get(0).isTimeout()).overridingErrorMessage("Transaction must time out").isTrue();
+        assertThat(neo4jServer.getRequestCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void keeps_open_transactions_alive_until_committed() throws InterruptedException {
+        KeepAliveScheduler keepAliveScheduler = new KeepAliveScheduler(1500, 10, 64);
+        HttpClient client = keepAliveClient(keepAliveScheduler);
+        String expiry = TransactionDateFormatSupplier.get().format(new Date(System.currentTimeMillis() + 2000));
+        neo4jServer.enqueue(jsonOkResponse(String.format("{\"commit\": \"%s/db/data/transaction/1/commit\", \"results\": [], \"transaction\": { \"expires\": \"%s\" }, \"errors\": []}", baseUrl(neo4jServer), expiry), header("Location", String.format("%s/db/data/transaction/1", baseUrl(neo4jServer)))));
+        neo4jServer.enqueue(jsonOkResponse("{\"results\": [], \"transaction\": { \"expires\": \"Sun, 30 Jul 2017 14:45:11 +0000\" }, \"errors\": []}"));
+        neo4jServer.enqueue(jsonOkResponse("{\"results\": [], \"errors\": []}"));
+
+        Either<List<Fault>, OngoingRemoteTransaction> transaction = client.openTransaction();
+        assertThat(keepAliveScheduler.getTrackedCount()).isEqualTo(1);
+        assertThat(neo4jServer.takeRequest().getPath()).isEqualTo("/db/data/transaction");
+        RecordedRequest keepAlive = neo4jServer.takeRequest(5, TimeUnit.SECONDS);
+        Either<List<Fault>, ClosedTransaction> committed = client.commit(transaction.getRight());
+
+        assertThat(keepAlive.getMethod()).isEqualTo("POST");
+        assertThat(keepAlive.getPath()).isEqualTo("/db/data/transaction/1");
+        assertThat(keepAlive.getBody().readUtf8()).isEqualTo("{\"statements\":[]}");
+        assertThat(committed).isRight();
+        assertThat(keepAliveScheduler.getTrackedCount()).isEqualTo(0);
+        keepAliveScheduler.close();
+    }
+
+    @Test
+    public void does_not_keep_alive_transactions_failing_to_open() {
+        KeepAliveScheduler keepAliveScheduler = new KeepAliveScheduler(1500, 10, 64);
+        HttpClient client = keepAliveClient(keepAliveScheduler);
+        neo4jServer.enqueue(jsonOkResponse("{\"results\": [], \"errors\": [{\"code\": \"Neo.ClientError.Statement.SyntaxError\", \"message\": \"Invalid input\"}]}", header("Location", String.format("%s/db/data/transaction/1", baseUrl(neo4jServer)))));
+
+        Either<List<Fault>, OngoingRemoteTransaction> transaction = client.openTransaction("Not a valid query");
+
+        assertThat(transaction).isLeft();
+        assertThat(transaction.getLeft()).containsExactly(new Fault("Neo.ClientError.Statement.SyntaxError", "Invalid input"));
+        assertThat(keepAliveScheduler.getTrackedCount()).isEqualTo(0);
+        keepAliveScheduler.close();
+    }
+
+    @Test
+    public void stops_keeping_alive_transactions_with_unreadable_expiry() throws InterruptedException {
+        KeepAliveScheduler keepAliveScheduler = new KeepAliveScheduler(1500, 10, 64);
+        HttpClient client = keepAliveClient(keepAliveScheduler);
+        String expiry = TransactionDateFormatSupplier.get().format(new Date(System.currentTimeMillis() + 2000));
+        neo4jServer.enqueue(jsonOkResponse(String.format("{\"commit\": \"%s/db/data/transaction/1/commit\", \"results\": [], \"transaction\": { \"expires\": \"%s\" }, \"errors\": []}", baseUrl(neo4jServer), expiry), header("Location", String.format("%s/db/data/transaction/1", baseUrl(neo4jServer)))));
+        neo4jServer.enqueue(jsonOkResponse("{\"results\": [], \"transaction\": { \"expires\": \"tomorrow\" }, \"errors\": []}"));
+
+        assertThat(client.openTransaction()).isRight();
+        assertThat(keepAliveScheduler.getTrackedCount()).isEqualTo(1);
+        neo4jServer.takeRequest();
+        assertThat(neo4jServer.takeRequest(5, TimeUnit.SECONDS)).isNotNull();
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (keepAliveScheduler.getTrackedCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(keepAliveScheduler.getTrackedCount()).isEqualTo(0);
+        keepAliveScheduler.close();
+    }
+
+    private HttpClient keepAliveClient(KeepAliveScheduler keepAliveScheduler) {
+        return new HttpClient(
+            Collections.singletonList(baseUrl(neo4jServer)),
+            Collections.<String>emptyList(),
+            new OkHttpClient(),
+            LoadBalancingStrategies.roundRobin(),
+            0,
+            keepAliveScheduler
+        );
+    }
+
+    private static String baseUrl(MockWebServer server) {
+        return String.format("http://localhost:%d", server.getPort());
+    }
+
     @SafeVarargs
     private final Row row(MapEntry<String, Object>... entries) {
         return new Row(asMap(entries));
@@ -260,4 +932,19 @@ public class LocalHttpClientTest {
         return result;
     }
 
+    private static class BlockingCallback<T> implements ResultCallback<T> {
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private Either<List<Fault>, T> result;
+
+        @Override
+        public void onResult(Either<List<Fault>, T> result) {
+            this.result = result;
+            latch.countDown();
+        }
+
+        public Either<List<Fault>, T> await() throws InterruptedException {
+            assertThat(latch.await(5, TimeUnit.SECONDS)).as("Callback must be called").isTrue();
+            return result;
+        }
+    }
 }
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.liquigraph.trinity.http;
+
+import okhttp3.Credentials;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.logging.LogManager;
+
+import static org.liquigraph.trinity.Assertions.assertThat;
+
+public class PreemptiveAuthInterceptorTest {
+
+    private MockWebServer server;
+    private Request request;
+
+    @BeforeClass
+    public static void prepareAll() {
+        LogManager.getLogManager().reset();
+    }
+
+    @Before
+    public void prepare() throws IOException {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                if (!Credentials.basic("user", "s3cr3t").equals(request.getHeader("Authorization"))) {
+                    return new MockResponse().setResponseCode(401);
+                }
+                return new MockResponse().setResponseCode(200);
+            }
+        });
+        server.start();
+        HttpUrl url = new HttpUrl.Builder().scheme("http").host("localhost").port(server.getPort()).build();
+        request = new Request.Builder().url(url).build();
+    }
+
+    @After
+    public void cleanUp() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void authenticates_clients_on_first_attempt() throws IOException {
+        OkHttpClient httpClient = new OkHttpClient.Builder()
+                .addInterceptor(new PreemptiveAuthInterceptor("user", "s3cr3t"))
+                .build();
+
+        Response response = httpClient.newCall(request).execute();
+
+        assertThat(response.code()).isEqualTo(200);
+        assertThat(server.getRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void does_not_retry_rejected_credentials() throws IOException {
+        OkHttpClient httpClient = new OkHttpClient.Builder()
+                .addInterceptor(new PreemptiveAuthInterceptor("user", "expired"))
+                .build();
+
+        Response response = httpClient.newCall(request).execute();
+
+        assertThat(response.code()).isEqualTo(401);
+        assertThat(server.getRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void answers_challenges_of_rejected_preemptive_credentials() throws IOException {
+        OkHttpClient httpClient = new OkHttpClient.Builder()
+                .addInterceptor(new PreemptiveAuthInterceptor("user", "expired"))
+                .authenticator(new BasicAuthenticator("user", "s3cr3t"))
+                .build();
+
+        Response response = httpClient.newCall(request).execute();
+
+        assertThat(response.code()).isEqualTo(200);
+        assertThat(server.getRequestCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void does_not_answer_challenges_with_the_rejected_credentials() throws IOException {
+        OkHttpClient httpClient = new OkHttpClient.Builder()
+                .addInterceptor(new PreemptiveAuthInterceptor("user", "expired"))
+                .authenticator(new BasicAuthenticator("user", "expired"))
+                .build();
+
+        Response response = httpClient.newCall(request).execute();
+
+        assertThat(response.code()).isEqualTo(401);
+        assertThat(server.getRequestCount()).isEqualTo(1);
+    }
+}
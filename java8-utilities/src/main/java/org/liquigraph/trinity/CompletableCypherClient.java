@@ -0,0 +1,62 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.liquigraph.trinity;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Exposes an {@link AsyncCypherClient} through {@link CompletionStage}s, for Java 8+ callers.
+ */
+public final class CompletableCypherClient<OpenTx extends OngoingTransaction> {
+
+    private final AsyncCypherClient<OpenTx> delegate;
+
+    public CompletableCypherClient(AsyncCypherClient<OpenTx> delegate) {
+        this.delegate = delegate;
+    }
+
+    public CompletionStage<Either<List<Fault>, List<Data>>> runSingleTransaction(List<Statement> statements) {
+        CompletableFuture<Either<List<Fault>, List<Data>>> result = new CompletableFuture<>();
+        delegate.runSingleTransaction(statements, result::complete);
+        return result;
+    }
+
+    public CompletionStage<Either<List<Fault>, OpenTx>> openTransaction(List<Statement> statements) {
+        CompletableFuture<Either<List<Fault>, OpenTx>> result = new CompletableFuture<>();
+        delegate.openTransaction(statements, result::complete);
+        return result;
+    }
+
+    public CompletionStage<Either<List<Fault>, OpenTx>> execute(OpenTx transaction, List<Statement> statements) {
+        CompletableFuture<Either<List<Fault>, OpenTx>> result = new CompletableFuture<>();
+        delegate.execute(transaction, statements, result::complete);
+        return result;
+    }
+
+    public CompletionStage<Either<List<Fault>, ClosedTransaction>> commit(OpenTx transaction, List<Statement> statements) {
+        CompletableFuture<Either<List<Fault>, ClosedTransaction>> result = new CompletableFuture<>();
+        delegate.commit(transaction, statements, result::complete);
+        return result;
+    }
+
+    public CompletionStage<Either<List<Fault>, ClosedTransaction>> rollback(OpenTx transaction) {
+        CompletableFuture<Either<List<Fault>, ClosedTransaction>> result = new CompletableFuture<>();
+        delegate.rollback(transaction, result::complete);
+        return result;
+    }
+}
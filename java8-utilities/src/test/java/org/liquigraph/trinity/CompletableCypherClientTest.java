@@ -0,0 +1,146 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.liquigraph.trinity;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.liquigraph.trinity.internal.FunctionalEither;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CompletableCypherClientTest {
+
+    private DeferringAsyncCypherClient delegate;
+    private CompletableCypherClient<StubTransaction> subject;
+
+    @Before
+    public void prepare() {
+        delegate = new DeferringAsyncCypherClient();
+        subject = new CompletableCypherClient<>(delegate);
+    }
+
+    @Test
+    public void completes_single_transactions_once_the_delegate_calls_back() {
+        List<Data> data = singletonList(new Data("item", new Row("item", 1L)));
+
+        CompletableFuture<Either<List<Fault>, List<Data>>> result =
+            subject.runSingleTransaction(singletonList(new Statement("RETURN 1 AS item"))).toCompletableFuture();
+
+        assertThat(result).isNotDone();
+        delegate.complete(FunctionalEither.right(data));
+        assertThat(result.join().getRight()).isEqualTo(data);
+    }
+
+    @Test
+    public void completes_with_the_faults_reported_by_the_delegate() {
+        List<Fault> faults = singletonList(new Fault("Neo.ClientError.Statement.SyntaxError", "Invalid input"));
+
+        CompletableFuture<Either<List<Fault>, StubTransaction>> result =
+            subject.openTransaction(singletonList(new Statement("RETURN"))).toCompletableFuture();
+
+        delegate.complete(FunctionalEither.left(faults));
+        assertThat(result.join().getLeft()).isEqualTo(faults);
+    }
+
+    @Test
+    public void chains_transaction_steps() {
+        StubTransaction transaction = new StubTransaction();
+
+        CompletableFuture<Either<List<Fault>, ClosedTransaction>> result = subject
+            .openTransaction(singletonList(new Statement("CREATE (:Crew)")))
+            .thenCompose(opened -> subject.execute(opened.getRight(), singletonList(new Statement("CREATE (:Crew)"))))
+            .thenCompose(executed -> subject.commit(executed.getRight(), Collections.emptyList()))
+            .toCompletableFuture();
+
+        delegate.complete(FunctionalEither.right(transaction));
+        delegate.complete(FunctionalEither.right(transaction));
+        assertThat(result).isNotDone();
+        delegate.complete(FunctionalEither.right(new ClosedTransaction(Collections.emptyList(), false)));
+        assertThat(result.join().getRight().isRolledBack()).isFalse();
+        assertThat(delegate.calls).containsExactly("open", "execute", "commit");
+    }
+
+    @Test
+    public void completes_rollbacks() {
+        CompletableFuture<Either<List<Fault>, ClosedTransaction>> result =
+            subject.rollback(new StubTransaction()).toCompletableFuture();
+
+        delegate.complete(FunctionalEither.right(ClosedTransaction.ROLLED_BACK));
+        assertThat(result.join().getRight()).isSameAs(ClosedTransaction.ROLLED_BACK);
+        assertThat(delegate.calls).containsExactly("rollback");
+    }
+
+    private static class StubTransaction implements OngoingTransaction {
+        @Override
+        public List<Data> getData() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public AccessMode getAccessMode() {
+            return AccessMode.WRITE;
+        }
+    }
+
+    private static class DeferringAsyncCypherClient implements AsyncCypherClient<StubTransaction> {
+        private final List<String> calls = new ArrayList<>();
+        private ResultCallback<Object> pending;
+
+        @Override
+        public void runSingleTransaction(List<Statement> statements, ResultCallback<List<Data>> callback) {
+            defer("run", callback);
+        }
+
+        @Override
+        public void openTransaction(List<Statement> statements, ResultCallback<StubTransaction> callback) {
+            defer("open", callback);
+        }
+
+        @Override
+        public void execute(StubTransaction transaction, List<Statement> statements, ResultCallback<StubTransaction> callback) {
+            defer("execute", callback);
+        }
+
+        @Override
+        public void commit(StubTransaction transaction, List<Statement> statements, ResultCallback<ClosedTransaction> callback) {
+            defer("commit", callback);
+        }
+
+        @Override
+        public void rollback(StubTransaction transaction, ResultCallback<ClosedTransaction> callback) {
+            defer("rollback", callback);
+        }
+
+        @SuppressWarnings("unchecked")
+        <T> void complete(Either<List<Fault>, T> result) {
+            ResultCallback<Object> callback = pending;
+            pending = null;
+            callback.onResult((Either<List<Fault>, Object>) (Either<List<Fault>, ?>) result);
+        }
+
+        @SuppressWarnings("unchecked")
+        private void defer(String call, ResultCallback<?> callback) {
+            calls.add(call);
+            pending = (ResultCallback<Object>) callback;
+        }
+    }
+}
@@ -18,33 +18,162 @@ package org.liquigraph.trinity;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Iterator;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.ServiceLoader;
+import java.util.concurrent.CountDownLatch;
 
+/**
+ * Creates Cypher clients with the {@link CypherClientCreator}s available on the classpath.
+ * Creators are discovered once and lookups can be reused and shared between threads.
+ */
 public final class CypherClientLookup {
     private static final Logger LOGGER = LoggerFactory.getLogger(CypherClientLookup.class);
+    private static final Map<List<Object>, SharedCypherClient<OngoingTransaction>> SHARED_CLIENTS = new HashMap<>();
+    /**
+     * Creations in progress, by key: clients are created outside of the lock and concurrent callers wait for them.
+     */
+    private static final Map<List<Object>, CountDownLatch> PENDING_CREATIONS = new HashMap<>();
 
-    private final Iterator<CypherClientCreator> services;
+    private final Map<CypherTransport, SlowQueryLog> slowQueryLogs = Collections.synchronizedMap(new EnumMap<CypherTransport, SlowQueryLog>(CypherTransport.class));
+    private final Map<CypherTransport, TrackingCypherClient<OngoingTransaction>> trackingClients = Collections.synchronizedMap(new EnumMap<CypherTransport, TrackingCypherClient<OngoingTransaction>>(CypherTransport.class));
 
-    public CypherClientLookup() {
-        services = ServiceLoader.load(CypherClientCreator.class).iterator();
+    public Optional<CypherClient<OngoingTransaction>> getInstance(CypherTransport transport, Properties configuration) {
+        CypherClientCreator creator = lookUp(transport);
+        if (creator == null) {
+            return Optional.empty();
+        }
+        LOGGER.info("Found implementation of type {} for transport {}", creator.getClass(), transport);
+        return Optional.of(decorate(transport, configuration, creator.<OngoingTransaction>create(configuration)));
     }
 
-    public Optional<CypherClient<OngoingTransaction>> getInstance(CypherTransport transport, Properties configuration) {
-        LOGGER.debug("Starting Cypher client discovery for transport {}", transport);
-        return lookUp(transport, configuration);
+    /**
+     * Returns the client already shared for the same transport and configuration, if any, or creates it.
+     * Callers must close the returned client once done with it, see {@link SharedCypherClient}.
+     */
+    public Optional<SharedCypherClient<OngoingTransaction>> getSharedInstance(CypherTransport transport, Properties configuration) {
+        CypherClientCreator creator = lookUp(transport);
+        if (creator == null) {
+            return Optional.empty();
+        }
+        return Optional.of(share(creator, transport, configuration));
+    }
+
+    /**
+     * @return the slow query log of the last client created for the given transport,
+     * if {@link SlowQueryLog#THRESHOLD_SETTING} is part of its configuration
+     */
+    public Optional<SlowQueryLog> getSlowQueryLog(CypherTransport transport) {
+        return Optional.ofNullable(slowQueryLogs.get(transport));
+    }
+
+    /**
+     * @return the transaction tracking of the last client created for the given transport,
+     * if {@link TrackingCypherClient#IDLE_TIMEOUT_SETTING} is part of its configuration
+     */
+    public Optional<TrackingCypherClient<OngoingTransaction>> getTrackingClient(CypherTransport transport) {
+        return Optional.ofNullable(trackingClients.get(transport));
+    }
+
+    private static CypherClientCreator lookUp(CypherTransport transport) {
+        CypherClientCreator creator = Creators.BY_TRANSPORT.get(transport);
+        if (creator == null) {
+            LOGGER.error("No implementations could be found for {}", transport);
+        }
+        return creator;
+    }
+
+    private SharedCypherClient<OngoingTransaction> share(CypherClientCreator creator, CypherTransport transport, Properties configuration) {
+        List<Object> key = Arrays.<Object>asList(transport, snapshot(configuration));
+        while (true) {
+            CountDownLatch creation;
+            synchronized (SHARED_CLIENTS) {
+                SharedCypherClient<OngoingTransaction> sharedClient = SHARED_CLIENTS.get(key);
+                if (sharedClient != null) {
+                    LOGGER.debug("Reusing shared client for transport {}", transport);
+                    sharedClient.retain();
+                    return sharedClient;
+                }
+                creation = PENDING_CREATIONS.get(key);
+                if (creation == null) {
+                    PENDING_CREATIONS.put(key, new CountDownLatch(1));
+                    break;
+                }
+            }
+            awaitUninterruptibly(creation);
+        }
+        try {
+            CypherClient<OngoingTransaction> transportClient = creator.create(configuration);
+            SharedCypherClient<OngoingTransaction> sharedClient = new SharedCypherClient<>(decorate(transport, configuration, transportClient), transportClient, SHARED_CLIENTS, key);
+            synchronized (SHARED_CLIENTS) {
+                SHARED_CLIENTS.put(key, sharedClient);
+            }
+            return sharedClient;
+        } finally {
+            synchronized (SHARED_CLIENTS) {
+                PENDING_CREATIONS.remove(key).countDown();
+            }
+        }
+    }
+
+    private CypherClient<OngoingTransaction> decorate(CypherTransport transport,
+                                                      Properties configuration,
+                                                      CypherClient<OngoingTransaction> client) {
+        CypherClient<OngoingTransaction> result = client;
+        SlowQueryLog slowQueryLog = SlowQueryLog.fromProperties(transport, configuration);
+        if (slowQueryLog != null) {
+            slowQueryLogs.put(transport, slowQueryLog);
+            result = new ListeningCypherClient<>(result, slowQueryLog);
+        }
+        result = TrackingCypherClient.fromProperties(transport, configuration, result);
+        if (result instanceof TrackingCypherClient) {
+            trackingClients.put(transport, (TrackingCypherClient<OngoingTransaction>) result);
+        }
+        return result;
+    }
+
+    private static Map<String, String> snapshot(Properties configuration) {
+        Map<String, String> result = new HashMap<>();
+        for (String name : configuration.stringPropertyNames()) {
+            result.put(name, configuration.getProperty(name));
+        }
+        return result;
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
     }
 
-    private Optional<CypherClient<OngoingTransaction>> lookUp(CypherTransport transport, Properties configuration) {
-        while (services.hasNext()) {
-            CypherClientCreator creator = services.next();
-            if (creator.supports(transport)) {
-                LOGGER.info("Found implementation of type {} for transport {}", creator.getClass(), transport);
-                return Optional.of(creator.create(configuration));
+    private static final class Creators {
+        private static final Map<CypherTransport, CypherClientCreator> BY_TRANSPORT = discover();
+
+        private static Map<CypherTransport, CypherClientCreator> discover() {
+            LOGGER.debug("Starting Cypher client discovery");
+            Map<CypherTransport, CypherClientCreator> result = new EnumMap<>(CypherTransport.class);
+            for (CypherClientCreator creator : ServiceLoader.load(CypherClientCreator.class)) {
+                for (CypherTransport transport : CypherTransport.values()) {
+                    if (!result.containsKey(transport) && creator.supports(transport)) {
+                        result.put(transport, creator);
+                    }
+                }
             }
+            return Collections.unmodifiableMap(result);
         }
-        LOGGER.error("No implementations could be found for {}", transport);
-        return Optional.empty();
     }
 }
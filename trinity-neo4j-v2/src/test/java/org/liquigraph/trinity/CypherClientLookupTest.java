@@ -50,6 +50,36 @@ public class CypherClientLookupTest {
         ).get()).isInstanceOf(HttpClient.class);
     }
 
+    @Test
+    public void looks_up_same_transport_repeatedly() {
+        CypherClientLookup subject = new CypherClientLookup();
+        Properties configuration = $("cypher.http.baseurl", "http://localhost:7474");
+
+        assertThat(subject.getInstance(CypherTransport.HTTP, configuration).isPresent()).isTrue();
+        assertThat(subject.getInstance(CypherTransport.HTTP, configuration).isPresent()).isTrue();
+    }
+
+    @Test
+    public void shares_clients_created_with_identical_configuration() {
+        Properties configuration = $("cypher.http.baseurl", "http://localhost:7474");
+        SharedCypherClient<OngoingTransaction> first = new CypherClientLookup().getSharedInstance(CypherTransport.HTTP, configuration).get();
+        SharedCypherClient<OngoingTransaction> second = new CypherClientLookup().getSharedInstance(CypherTransport.HTTP, $("cypher.http.baseurl", "http://localhost:7474")).get();
+        SharedCypherClient<OngoingTransaction> other = new CypherClientLookup().getSharedInstance(CypherTransport.HTTP, $("cypher.http.baseurl", "http://localhost:7575")).get();
+
+        assertThat(second).isSameAs(first);
+        assertThat(other).isNotSameAs(first);
+        assertThat(first.getReferenceCount()).isEqualTo(2);
+
+        first.close();
+        second.close();
+        other.close();
+
+        assertThat(first.getReferenceCount()).isEqualTo(0);
+        SharedCypherClient<OngoingTransaction> recreated = new CypherClientLookup().getSharedInstance(CypherTransport.HTTP, configuration).get();
+        assertThat(recreated).isNotSameAs(first);
+        recreated.close();
+    }
+
     private Properties $(String key, String value) {
         Properties properties = new Properties();
         properties.setProperty(key, value);
@@ -18,54 +18,161 @@ package org.liquigraph.trinity;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.ServiceLoader;
-import java.util.Spliterators;
-import java.util.stream.Stream;
-import java.util.stream.StreamSupport;
-
-import static java.util.Spliterator.ORDERED;
+import java.util.concurrent.CountDownLatch;
 
+/**
+ * Creates Cypher clients with the {@link CypherClientCreator}s available on the classpath.
+ * Creators are discovered once and lookups can be reused and shared between threads.
+ */
 public final class CypherClientLookup {
     private static final Logger LOGGER = LoggerFactory.getLogger(CypherClientLookup.class);
+    private static final Map<List<Object>, SharedCypherClient<OngoingTransaction>> SHARED_CLIENTS = new HashMap<>();
+    /**
+     * Creations in progress, by key: clients are created outside of the lock and concurrent callers wait for them.
+     */
+    private static final Map<List<Object>, CountDownLatch> PENDING_CREATIONS = new HashMap<>();
 
-    private final Iterator<CypherClientCreator> clients;
+    private final Map<CypherTransport, SlowQueryLog> slowQueryLogs = Collections.synchronizedMap(new EnumMap<>(CypherTransport.class));
+    private final Map<CypherTransport, TrackingCypherClient<OngoingTransaction>> trackingClients = Collections.synchronizedMap(new EnumMap<>(CypherTransport.class));
 
-    public CypherClientLookup() {
-        clients = ServiceLoader.load(CypherClientCreator.class).iterator();
+    public Optional<CypherClient<OngoingTransaction>> getInstance(CypherTransport transport, Properties configuration) {
+        return lookUp(transport).map(creator -> create(creator, transport, configuration));
     }
 
-    public Optional<CypherClient<OngoingTransaction>> getInstance(CypherTransport transport, Properties configuration) {
-        LOGGER.debug("Starting Cypher client discovery for transport {}", transport);
-        Optional<CypherClient<OngoingTransaction>> result = lookUp(transport, configuration);
-        return logAbsence(transport, result);
+    /**
+     * Returns the client already shared for the same transport and configuration, if any, or creates it.
+     * Callers must close the returned client once done with it, see {@link SharedCypherClient}.
+     */
+    public Optional<SharedCypherClient<OngoingTransaction>> getSharedInstance(CypherTransport transport, Properties configuration) {
+        return lookUp(transport).map(creator -> share(creator, transport, configuration));
     }
 
-    private Optional<CypherClient<OngoingTransaction>> lookUp(CypherTransport transport, Properties configuration) {
-        return createStream(clients, ORDERED)
-            .filter(serviceCreator -> serviceCreator.supports(transport))
-            .findFirst()
-            .map(creator -> {
-                LOGGER.info("Found implementation of type {} for transport {}", creator.getClass(), transport);
-                return creator.create(configuration);
-            });
+    /**
+     * @return the slow query log of the last client created for the given transport,
+     * if {@link SlowQueryLog#THRESHOLD_SETTING} is part of its configuration
+     */
+    public Optional<SlowQueryLog> getSlowQueryLog(CypherTransport transport) {
+        return Optional.ofNullable(slowQueryLogs.get(transport));
     }
 
-    private Optional<CypherClient<OngoingTransaction>> logAbsence(CypherTransport transport,
-                                                                  Optional<CypherClient<OngoingTransaction>> result) {
+    /**
+     * @return the transaction tracking of the last client created for the given transport,
+     * if {@link TrackingCypherClient#IDLE_TIMEOUT_SETTING} is part of its configuration
+     */
+    public Optional<TrackingCypherClient<OngoingTransaction>> getTrackingClient(CypherTransport transport) {
+        return Optional.ofNullable(trackingClients.get(transport));
+    }
+
+    private Optional<CypherClientCreator> lookUp(CypherTransport transport) {
+        Optional<CypherClientCreator> result = Optional.ofNullable(Creators.BY_TRANSPORT.get(transport));
         if (!result.isPresent()) {
             LOGGER.error("No implementations could be found for {}", transport);
-            return result;
         }
         return result;
     }
 
-    private static <T> Stream<T> createStream(Iterator<T> iterator, int characteristics) {
-        return StreamSupport.stream(
-            Spliterators.spliteratorUnknownSize(iterator, characteristics),
-            false
-        );
+    private CypherClient<OngoingTransaction> create(CypherClientCreator creator, CypherTransport transport, Properties configuration) {
+        LOGGER.info("Found implementation of type {} for transport {}", creator.getClass(), transport);
+        return decorate(transport, configuration, creator.create(configuration));
+    }
+
+    private SharedCypherClient<OngoingTransaction> share(CypherClientCreator creator, CypherTransport transport, Properties configuration) {
+        List<Object> key = Arrays.<Object>asList(transport, snapshot(configuration));
+        while (true) {
+            CountDownLatch creation;
+            synchronized (SHARED_CLIENTS) {
+                SharedCypherClient<OngoingTransaction> sharedClient = SHARED_CLIENTS.get(key);
+                if (sharedClient != null) {
+                    LOGGER.debug("Reusing shared client for transport {}", transport);
+                    sharedClient.retain();
+                    return sharedClient;
+                }
+                creation = PENDING_CREATIONS.get(key);
+                if (creation == null) {
+                    PENDING_CREATIONS.put(key, new CountDownLatch(1));
+                    break;
+                }
+            }
+            awaitUninterruptibly(creation);
+        }
+        try {
+            CypherClient<OngoingTransaction> transportClient = creator.create(configuration);
+            SharedCypherClient<OngoingTransaction> sharedClient = new SharedCypherClient<>(decorate(transport, configuration, transportClient), transportClient, SHARED_CLIENTS, key);
+            synchronized (SHARED_CLIENTS) {
+                SHARED_CLIENTS.put(key, sharedClient);
+            }
+            return sharedClient;
+        } finally {
+            synchronized (SHARED_CLIENTS) {
+                PENDING_CREATIONS.remove(key).countDown();
+            }
+        }
+    }
+
+    private CypherClient<OngoingTransaction> decorate(CypherTransport transport,
+                                                      Properties configuration,
+                                                      CypherClient<OngoingTransaction> client) {
+        CypherClient<OngoingTransaction> result = client;
+        SlowQueryLog slowQueryLog = SlowQueryLog.fromProperties(transport, configuration);
+        if (slowQueryLog != null) {
+            slowQueryLogs.put(transport, slowQueryLog);
+            result = new ListeningCypherClient<>(result, slowQueryLog);
+        }
+        result = TrackingCypherClient.fromProperties(transport, configuration, result);
+        if (result instanceof TrackingCypherClient) {
+            trackingClients.put(transport, (TrackingCypherClient<OngoingTransaction>) result);
+        }
+        return result;
+    }
+
+    private static Map<String, String> snapshot(Properties configuration) {
+        Map<String, String> result = new HashMap<>();
+        for (String name : configuration.stringPropertyNames()) {
+            result.put(name, configuration.getProperty(name));
+        }
+        return result;
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class Creators {
+        private static final Map<CypherTransport, CypherClientCreator> BY_TRANSPORT = discover();
+
+        private static Map<CypherTransport, CypherClientCreator> discover() {
+            LOGGER.debug("Starting Cypher client discovery");
+            List<CypherClientCreator> creators = new ArrayList<>();
+            ServiceLoader.load(CypherClientCreator.class).forEach(creators::add);
+            Map<CypherTransport, CypherClientCreator> result = new EnumMap<>(CypherTransport.class);
+            for (CypherTransport transport : CypherTransport.values()) {
+                creators.stream()
+                    .filter(creator -> creator.supports(transport))
+                    .findFirst()
+                    .ifPresent(creator -> result.put(transport, creator));
+            }
+            return Collections.unmodifiableMap(result);
+        }
     }
 }
@@ -25,7 +25,13 @@ import org.liquigraph.trinity.http.HttpClient;
 import org.liquigraph.trinity.neo4jv3.EmbeddedClient;
 import org.neo4j.harness.junit.Neo4jRule;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.slf4j.bridge.SLF4JBridgeHandler;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -59,6 +65,79 @@ public class CypherClientLookupTest {
         ).get()).isInstanceOf(BoltClient.class);
     }
 
+    @Test
+    public void captures_slow_queries_of_configured_transport() throws Exception {
+        CypherClientLookup subject = new CypherClientLookup();
+        Properties configuration = $("cypher.embeddedv3.path", folder.newFolder().getPath());
+        configuration.setProperty("cypher.embeddedv3.slow-query.threshold-milliseconds", "0");
+
+        CypherClient<OngoingTransaction> client = subject.getInstance(CypherTransport.EMBEDDED_3, configuration).get();
+        client.runSingleTransaction("RETURN 42");
+
+        assertThat(subject.getSlowQueryLog(CypherTransport.EMBEDDED_3).get().getEntries())
+            .extracting("fingerprint")
+            .containsExactly("RETURN ?");
+        assertThat(subject.getSlowQueryLog(CypherTransport.HTTP).isPresent()).isFalse();
+    }
+
+    @Test
+    public void looks_up_same_transport_repeatedly() {
+        CypherClientLookup subject = new CypherClientLookup();
+        Properties configuration = $("cypher.http.baseurl", neo4j.httpURI().toString());
+
+        assertThat(subject.getInstance(CypherTransport.HTTP, configuration).isPresent()).isTrue();
+        assertThat(subject.getInstance(CypherTransport.HTTP, configuration).isPresent()).isTrue();
+    }
+
+    @Test
+    public void shares_clients_created_with_identical_configuration() {
+        Properties configuration = $("cypher.http.baseurl", neo4j.httpURI().toString());
+        SharedCypherClient<OngoingTransaction> first = new CypherClientLookup().getSharedInstance(CypherTransport.HTTP, configuration).get();
+        SharedCypherClient<OngoingTransaction> second = new CypherClientLookup().getSharedInstance(CypherTransport.HTTP, $("cypher.http.baseurl", neo4j.httpURI().toString())).get();
+        SharedCypherClient<OngoingTransaction> other = new CypherClientLookup().getSharedInstance(CypherTransport.HTTP, $("cypher.http.baseurl", "http://localhost:7575")).get();
+
+        assertThat(second).isSameAs(first);
+        assertThat(other).isNotSameAs(first);
+        assertThat(first.getReferenceCount()).isEqualTo(2);
+
+        first.close();
+        second.close();
+        other.close();
+
+        assertThat(first.getReferenceCount()).isEqualTo(0);
+        SharedCypherClient<OngoingTransaction> recreated = new CypherClientLookup().getSharedInstance(CypherTransport.HTTP, configuration).get();
+        assertThat(recreated).isNotSameAs(first);
+        recreated.close();
+    }
+
+    @Test
+    public void shares_clients_requested_concurrently() throws Exception {
+        Properties configuration = $("cypher.http.baseurl", neo4j.httpURI().toString());
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<SharedCypherClient<OngoingTransaction>>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return new CypherClientLookup().getSharedInstance(CypherTransport.HTTP, configuration).get();
+                }));
+            }
+            start.countDown();
+
+            SharedCypherClient<OngoingTransaction> first = futures.get(0).get();
+            for (Future<SharedCypherClient<OngoingTransaction>> future : futures) {
+                assertThat(future.get()).isSameAs(first);
+            }
+            assertThat(first.getReferenceCount()).isEqualTo(8);
+            for (Future<SharedCypherClient<OngoingTransaction>> future : futures) {
+                future.get().close();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     private Properties $(String key, String value) {
         Properties properties = new Properties();
         properties.setProperty(key, value);